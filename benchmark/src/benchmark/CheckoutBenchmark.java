@@ -0,0 +1,250 @@
+package benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import database.DatabaseConnection;
+import model.Order;
+import model.OrderItem;
+import service.OrderService;
+import util.AppConfig;
+import util.AuditLogWriter;
+import util.VirtualThreads;
+
+/**
+ * Compares checkout throughput and latency on platform threads and on virtual threads.
+ *
+ * Places the given number of orders at once through {@link OrderService#placeOrder},
+ * limited the way {@link util.RequestExecutor} limits request work: first on a pool
+ * of async.threads platform threads with a queue of async.queueCapacity, then with
+ * one virtual thread per checkout and at most async.threads + async.queueCapacity
+ * in flight. Checkouts beyond the limit are rejected, as they would get a 503, and
+ * checkouts slower than async.timeoutSeconds count as timed out. Failed and timed
+ * out checkouts are reported in their own columns and stay in the latency
+ * percentiles.
+ *
+ * Uses the database from config.properties and really creates the orders, so run
+ * it against a scratch database. It is built only with the benchmark profile and
+ * is left out of the WAR:
+ *
+ * <pre>
+ * mvn -Pbenchmark package
+ * java -cp "target/classes:target/PizzaDeliverySystem/WEB-INF/lib/*" benchmark.CheckoutBenchmark \
+ *     &lt;customerId&gt; &lt;pizzaId&gt; [checkouts=1000] [platform|virtual|both]
+ * </pre>
+ *
+ * Virtual threads need Java 21 or later; on older JVMs only the platform run is done.
+ */
+public class CheckoutBenchmark {
+
+    private static final int WARMUP_CHECKOUTS = 50;
+
+    private static final int THREADS = AppConfig.getInt("async.threads", AppConfig.getInt("db.pool.maxSize", 20));
+    private static final int QUEUE_CAPACITY = AppConfig.getInt("async.queueCapacity", 200);
+    private static final long TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(AppConfig.getInt("async.timeoutSeconds", 15));
+
+    // When the start signal was given; queued checkouts are timed from here too
+    private static volatile long startedAt;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: CheckoutBenchmark <customerId> <pizzaId> [checkouts=1000] [platform|virtual|both]");
+            System.exit(1);
+        }
+        int customerId = Integer.parseInt(args[0]);
+        int pizzaId = Integer.parseInt(args[1]);
+        int checkouts = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        String mode = args.length > 3 ? args[3] : "both";
+
+        OrderService orderService = new OrderService();
+        try {
+            System.out.println("Warming up with " + WARMUP_CHECKOUTS + " checkouts");
+            run(orderService, newPlatformExecutor(), null, customerId, pizzaId, WARMUP_CHECKOUTS);
+
+            List<Result> results = new ArrayList<>();
+            if (!"virtual".equals(mode)) {
+                results.add(run("platform (" + THREADS + " threads)", orderService,
+                        newPlatformExecutor(), null, customerId, pizzaId, checkouts));
+            }
+            if (!"platform".equals(mode)) {
+                if (VirtualThreads.isSupported()) {
+                    results.add(run("virtual", orderService, VirtualThreads.newPerTaskExecutor("checkout-"),
+                            new Semaphore(THREADS + QUEUE_CAPACITY), customerId, pizzaId, checkouts));
+                } else {
+                    System.out.println("Skipping the virtual thread run, it needs Java 21 or later");
+                }
+            }
+
+            System.out.println();
+            System.out.println("Limit: " + (THREADS + QUEUE_CAPACITY) + " checkouts in flight, timeout "
+                    + TimeUnit.NANOSECONDS.toSeconds(TIMEOUT_NANOS) + "s");
+            System.out.printf("%-24s %8s %8s %8s %8s %10s %8s %8s %8s %8s %8s%n",
+                    "mode", "ok", "failed", "timeout", "rejected", "orders/s",
+                    "p50 ms", "p95 ms", "p99 ms", "max ms", "threads");
+            for (Result result : results) {
+                System.out.println(result);
+            }
+        } finally {
+            AuditLogWriter.shutdown();
+            DatabaseConnection.shutdown();
+        }
+    }
+
+    // The same pool RequestExecutor uses without virtual threads
+    private static ExecutorService newPlatformExecutor() {
+        AtomicInteger threads = new AtomicInteger();
+        return new ThreadPoolExecutor(THREADS, THREADS, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+                    Thread thread = new Thread(r, "checkout-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    private static Result run(String name, OrderService orderService, ExecutorService executor,
+            Semaphore permits, int customerId, int pizzaId, int checkouts) throws InterruptedException {
+        System.out.println("Running " + checkouts + " concurrent checkouts on " + name);
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        threadBean.resetPeakThreadCount();
+
+        Result result = run(orderService, executor, permits, customerId, pizzaId, checkouts);
+        result.name = name;
+        result.peakThreads = threadBean.getPeakThreadCount();
+        return result;
+    }
+
+    /**
+     * Runs the checkouts; with permits, only as many are started as there are
+     * permits, like RequestExecutor on virtual threads
+     */
+    private static Result run(OrderService orderService, ExecutorService executor, Semaphore permits,
+            int customerId, int pizzaId, int checkouts) throws InterruptedException {
+        // Latency of every started checkout, successful or not; -1 if never started
+        long[] latencies = new long[checkouts];
+        Arrays.fill(latencies, -1);
+        AtomicInteger ok = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger timedOut = new AtomicInteger();
+        int rejected = 0;
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(checkouts);
+
+        for (int i = 0; i < checkouts; i++) {
+            int index = i;
+            if (permits != null && !permits.tryAcquire()) {
+                rejected++;
+                done.countDown();
+                continue;
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                        try {
+                            orderService.placeOrder(newOrder(customerId, pizzaId));
+                            // Timed from the start signal, so the time in the queue counts
+                            latencies[index] = System.nanoTime() - startedAt;
+                            if (latencies[index] > TIMEOUT_NANOS) {
+                                timedOut.incrementAndGet();
+                            } else {
+                                ok.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            latencies[index] = System.nanoTime() - startedAt;
+                            if (failed.incrementAndGet() == 1) {
+                                System.err.println("First failed checkout: " + e.getMessage());
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        if (permits != null) {
+                            permits.release();
+                        }
+                        done.countDown();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                if (permits != null) {
+                    permits.release();
+                }
+                rejected++;
+                done.countDown();
+            }
+        }
+
+        startedAt = System.nanoTime();
+        long begin = startedAt;
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        return new Result(latencies, ok.get(), failed.get(), timedOut.get(), rejected, elapsed);
+    }
+
+    private static Order newOrder(int customerId, int pizzaId) {
+        Order order = new Order();
+        order.setUserId(customerId);
+        order.setDeliveryAddress("Benchmark");
+        order.setContactNumber("0000000000");
+
+        OrderItem item = new OrderItem();
+        item.setPizzaId(pizzaId);
+        item.setQuantity(1);
+        order.addOrderItem(item);
+        return order;
+    }
+
+    private static final class Result {
+        String name;
+        int peakThreads;
+        final int ok;
+        final int failed;
+        final int timedOut;
+        final int rejected;
+        final double ordersPerSecond;
+        final long[] sortedMillis;
+
+        Result(long[] latencies, int ok, int failed, int timedOut, int rejected, long elapsedNanos) {
+            this.ok = ok;
+            this.failed = failed;
+            this.timedOut = timedOut;
+            this.rejected = rejected;
+            // Failed and timed out checkouts stay in, so failing fast does not look like low latency
+            this.sortedMillis = Arrays.stream(latencies)
+                    .filter(l -> l >= 0)
+                    .map(l -> TimeUnit.NANOSECONDS.toMillis(l))
+                    .sorted()
+                    .toArray();
+            this.ordersPerSecond = ok / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        long percentile(double p) {
+            if (sortedMillis.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * sortedMillis.length) - 1;
+            return sortedMillis[Math.max(0, Math.min(index, sortedMillis.length - 1))];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-24s %8d %8d %8d %8d %10.1f %8d %8d %8d %8d %8d",
+                    name, ok, failed, timedOut, rejected, ordersPerSecond,
+                    percentile(0.50), percentile(0.95), percentile(0.99), percentile(1.0), peakThreads);
+        }
+    }
+}
@@ -53,7 +53,10 @@ CREATE TABLE IF NOT EXISTS orders (
   delivery_address TEXT NOT NULL,
   contact_number VARCHAR(15) NOT NULL,
   created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-  FOREIGN KEY (user_id) REFERENCES users(id)
+  FOREIGN KEY (user_id) REFERENCES users(id),
+  -- Keyset pagination on the admin orders list
+  INDEX idx_orders_created (created_at, id),
+  INDEX idx_orders_status_created (order_status, created_at, id)
 );
 
 -- Create table for items within an order
@@ -0,0 +1,11 @@
+-- Delivery assignment columns on orders (previously added by the connection-time schema check)
+
+ALTER TABLE orders ADD COLUMN delivery_person_id INT NULL;
+ALTER TABLE orders ADD COLUMN assigned_to_user_id INT NULL;
+ALTER TABLE orders ADD COLUMN assigned_at TIMESTAMP NULL;
+ALTER TABLE orders ADD COLUMN delivered_at TIMESTAMP NULL;
+
+ALTER TABLE orders ADD CONSTRAINT fk_orders_delivery_person
+  FOREIGN KEY (delivery_person_id) REFERENCES users(id);
+ALTER TABLE orders ADD CONSTRAINT fk_orders_assigned_user
+  FOREIGN KEY (assigned_to_user_id) REFERENCES users(id);
@@ -0,0 +1,4 @@
+-- Keyset pagination on the admin orders list
+
+CREATE INDEX idx_orders_created ON orders (created_at, id);
+CREATE INDEX idx_orders_status_created ON orders (order_status, created_at, id);
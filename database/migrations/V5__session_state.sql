@@ -0,0 +1,8 @@
+-- Session state shared by all application nodes when session.store=jdbc
+
+CREATE TABLE IF NOT EXISTS session_state (
+  id VARCHAR(64) PRIMARY KEY,
+  data MEDIUMBLOB NOT NULL,
+  expires_at BIGINT NOT NULL,
+  INDEX idx_session_state_expires (expires_at)
+);
@@ -0,0 +1,5 @@
+-- Active-delivery counts per rider, read from the index alone
+-- (InnoDB secondary indexes carry the primary key, so id is included)
+
+CREATE INDEX idx_orders_delivery_person_status ON orders (delivery_person_id, order_status);
+CREATE INDEX idx_orders_assigned_user_status ON orders (assigned_to_user_id, order_status);
@@ -0,0 +1,9 @@
+-- Menu version shared by all application nodes. Every menu change bumps it, and
+-- each node reloads its in-memory catalog when it sees a new version.
+
+CREATE TABLE IF NOT EXISTS catalog_version (
+  id TINYINT PRIMARY KEY,
+  version BIGINT NOT NULL
+);
+
+INSERT IGNORE INTO catalog_version (id, version) VALUES (1, 0);
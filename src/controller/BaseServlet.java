@@ -1,12 +1,22 @@
 package controller;
 
 import java.io.IOException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
+import model.ShoppingCart;
 import model.User;
+import session.CartCookieCodec;
+import util.RequestExecutor;
 
 /**
  * Base servlet class with common functionality for all servlets
@@ -118,4 +128,207 @@ public abstract class BaseServlet extends HttpServlet {
         req.getSession().setAttribute("flashType", type);
         req.getSession().setAttribute("flashMessage", message);
     }
-}
\ No newline at end of file
+    
+    /**
+     * Gets the shopping cart, from the signed cart cookie when cart.storage=cookie
+     * and from the session otherwise. Call {@link #saveCart} after changing it.
+     *
+     * @param req The HTTP request
+     * @return The cart, empty if there is none yet
+     */
+    protected ShoppingCart getCart(HttpServletRequest req) {
+        if (CartCookieCodec.isEnabled()) {
+            ShoppingCart cart = (ShoppingCart) req.getAttribute(CartCookieCodec.REQUEST_ATTRIBUTE);
+            if (cart == null) {
+                cart = new ShoppingCart();
+                req.setAttribute(CartCookieCodec.REQUEST_ATTRIBUTE, cart);
+            }
+            return cart;
+        }
+
+        HttpSession session = req.getSession();
+        ShoppingCart cart = (ShoppingCart) session.getAttribute("cart");
+        if (cart == null) {
+            cart = new ShoppingCart();
+            session.setAttribute("cart", cart);
+        }
+        return cart;
+    }
+
+    /**
+     * Saves the shopping cart after a change. In cookie mode this sets the cart
+     * cookie, or removes it when the cart is empty, so it must be called before
+     * the response is committed.
+     *
+     * @param req The HTTP request
+     * @param resp The HTTP response
+     * @param cart The cart
+     * @return false if the cart is too large to be kept in a cookie
+     */
+    protected boolean saveCart(HttpServletRequest req, HttpServletResponse resp, ShoppingCart cart) {
+        if (!CartCookieCodec.isEnabled()) {
+            // Set again so session stores see the change
+            req.getSession().setAttribute("cart", cart);
+            return true;
+        }
+
+        String value = "";
+        long maxAge = 0;
+        if (!cart.isEmpty()) {
+            try {
+                value = CartCookieCodec.encode(cart);
+                maxAge = CartCookieCodec.getMaxAgeSeconds();
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+        }
+
+        String path = req.getContextPath().isEmpty() ? "/" : req.getContextPath();
+        StringBuilder cookie = new StringBuilder()
+                .append(CartCookieCodec.COOKIE_NAME).append('=').append(value)
+                .append("; Path=").append(path)
+                .append("; Max-Age=").append(maxAge)
+                .append("; HttpOnly; SameSite=Lax");
+        if (req.isSecure()) {
+            cookie.append("; Secure");
+        }
+        resp.addHeader("Set-Cookie", cookie.toString());
+
+        req.setAttribute(CartCookieCodec.REQUEST_ATTRIBUTE, cart);
+        return true;
+    }
+
+    /**
+     * Runs the database work of a request on the request executor instead of the
+     * container thread. The servlet must be mapped with asyncSupported = true.
+     * 
+     * The work runs on a worker thread and must not touch the request or response;
+     * read parameters and the session before calling this method. It returns an
+     * {@link AsyncResponse} that is run afterwards to set attributes and pick the
+     * view, unless the request has timed out by then. Requests that cannot be
+     * queued or that time out are answered with 503.
+     * 
+     * @param req The HTTP request
+     * @param resp The HTTP response
+     * @param work The database work
+     * @throws IOException If the busy response cannot be written
+     */
+    protected void processAsync(HttpServletRequest req, HttpServletResponse resp, AsyncWork work) 
+            throws IOException {
+        // Pass the request on so wrappers, such as the session store's, survive the dispatch
+        AsyncContext asyncContext = req.startAsync(req, resp);
+        asyncContext.setTimeout(RequestExecutor.getTimeoutMillis());
+        
+        // Guards the response; whichever of the worker and the timeout gets here first answers.
+        // A lock rather than synchronized, so rendering on a virtual thread does not pin its carrier.
+        AsyncState state = new AsyncState();
+        asyncContext.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                state.lock.lock();
+                try {
+                    if (state.finished) {
+                        return;
+                    }
+                    state.finished = true;
+                } finally {
+                    state.lock.unlock();
+                }
+                RequestExecutor.recordTimeout();
+                if (state.future != null) {
+                    state.future.cancel(true);
+                }
+                getServletContext().log("Request timed out: " + req.getRequestURI());
+                dispatchBusy(req, resp, asyncContext);
+            }
+            
+            @Override
+            public void onComplete(AsyncEvent event) {
+            }
+            
+            @Override
+            public void onError(AsyncEvent event) {
+            }
+            
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+        
+        try {
+            Future<?> future = RequestExecutor.submit(() -> {
+                AsyncResponse response;
+                try {
+                    response = work.call();
+                } catch (Exception e) {
+                    getServletContext().log("Unexpected error processing " + req.getRequestURI(), e);
+                    response = () -> {
+                        req.setAttribute("error", "An unexpected error occurred: " + e.getMessage());
+                        return "/WEB-INF/views/error/error.jsp";
+                    };
+                }
+                
+                state.lock.lock();
+                try {
+                    if (state.finished) {
+                        return;
+                    }
+                    state.finished = true;
+                    String view = response.render();
+                    if (view != null) {
+                        asyncContext.dispatch(view);
+                    } else {
+                        asyncContext.complete();
+                    }
+                } catch (Exception e) {
+                    getServletContext().log("Error rendering " + req.getRequestURI(), e);
+                    asyncContext.complete();
+                } finally {
+                    state.lock.unlock();
+                }
+            });
+            state.future = future;
+        } catch (RejectedExecutionException e) {
+            state.lock.lock();
+            try {
+                state.finished = true;
+            } finally {
+                state.lock.unlock();
+            }
+            getServletContext().log("Request rejected, worker pool is full: " + req.getRequestURI());
+            dispatchBusy(req, resp, asyncContext);
+        }
+    }
+    
+    private void dispatchBusy(HttpServletRequest req, HttpServletResponse resp, AsyncContext asyncContext) {
+        resp.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        req.setAttribute("error", "The server is busy right now. Please try again in a moment.");
+        asyncContext.dispatch("/WEB-INF/views/error/error.jsp");
+    }
+    
+    /**
+     * Database work of an async request, run on the request executor
+     */
+    @FunctionalInterface
+    protected interface AsyncWork {
+        AsyncResponse call() throws Exception;
+    }
+    
+    /**
+     * Applies the result of {@link AsyncWork} to the request
+     */
+    @FunctionalInterface
+    protected interface AsyncResponse {
+        /**
+         * @return The view to dispatch to, or null if the response was already sent
+         */
+        String render() throws ServletException, IOException;
+    }
+    
+    private static final class AsyncState {
+        final ReentrantLock lock = new ReentrantLock();
+        // Guarded by lock
+        boolean finished;
+        volatile Future<?> future;
+    }
+}
@@ -1,23 +1,18 @@
 package controller;
 
-// Update imports: Replace Cart with ShoppingCart
 import java.io.IOException;
-import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.List;
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
-import model.ShoppingCart; // Changed from model.Cart
-import model.ShoppingCart.CartItem; // Changed from model.CartItem
+import model.CartView;
+import model.ShoppingCart;
 import model.Pizza;
-import model.Topping;
-import service.PizzaService;
-import service.ToppingService;
+import service.CartService;
 import service.ServiceException;
+import session.CartCookieCodec;
 
 /**
  * Servlet for handling the shopping cart
@@ -25,13 +20,11 @@ import service.ServiceException;
 @WebServlet({"/cart", "/cart/*"})
 public class CartServlet extends BaseServlet {
     
-    private PizzaService pizzaService;
-    private ToppingService toppingService;
+    private CartService cartService;
     
     @Override
     public void init() throws ServletException {
-        pizzaService = new PizzaService();
-        toppingService = new ToppingService();
+        cartService = new CartService();
     }
     
     /**
@@ -41,26 +34,9 @@ public class CartServlet extends BaseServlet {
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) 
             throws ServletException, IOException {
         try {
-            HttpSession session = req.getSession();
-            ShoppingCart cart = (ShoppingCart) session.getAttribute("cart");
-            
-            // Debug logging
-            System.out.println("Cart in session: " + (cart != null));
-            if (cart != null) {
-                System.out.println("Items in cart: " + cart.getItemCount());
-                for (int i = 0; i < cart.getItems().size(); i++) {
-                    CartItem item = cart.getItems().get(i);
-                    System.out.println("Item " + i + ": " + 
-                        (item.getPizza() != null ? item.getPizza().getName() : "null") + 
-                        ", Quantity: " + item.getQuantity());
-                }
-            } else {
-                // Create empty cart if null
-                cart = new ShoppingCart();
-                session.setAttribute("cart", cart);
-            }
-            
-            req.setAttribute("cart", cart);
+            // Resolve the IDs in the cart against the menu for display
+            ShoppingCart cart = getCart(req);
+            req.setAttribute("cart", cartService.getCartView(cart));
             req.getRequestDispatcher("/WEB-INF/views/cart/index.jsp").forward(req, resp);
         } catch (Exception e) {
             e.printStackTrace();
@@ -76,8 +52,8 @@ public class CartServlet extends BaseServlet {
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) 
             throws ServletException, IOException {
         
-        // Check if user is logged in
-        if (!isLoggedIn(req)) {
+        // Check if user is logged in; a cookie cart needs no account until checkout
+        if (!CartCookieCodec.isEnabled() && !isLoggedIn(req)) {
             // Set error message
             req.getSession().setAttribute("error", "Please log in to add items to your cart");
             
@@ -152,48 +128,29 @@ public class CartServlet extends BaseServlet {
                 quantity = 10;
             }
             
-            // Get pizza from database
-            Pizza pizza = pizzaService.getPizzaById(pizzaId);
-            if (pizza == null) {
-                resp.sendRedirect(req.getContextPath() + "/menu");
-                return;
-            }
-            
             // Get selected toppings
-            List<Topping> toppings = new ArrayList<>();
-            String[] toppingIds = req.getParameterValues("toppings");
-            BigDecimal toppingsCost = BigDecimal.ZERO;
-            
-            if (toppingIds != null) {
-                for (String toppingIdStr : toppingIds) {
-                    int toppingId = Integer.parseInt(toppingIdStr);
-                    Topping topping = toppingService.getToppingById(toppingId);
-                    if (topping != null) {
-                        toppings.add(topping);
-                        toppingsCost = toppingsCost.add(topping.getPrice());
-                    }
+            String[] toppingParams = req.getParameterValues("toppings");
+            int[] toppingIds = null;
+            if (toppingParams != null) {
+                toppingIds = new int[toppingParams.length];
+                for (int i = 0; i < toppingParams.length; i++) {
+                    toppingIds[i] = Integer.parseInt(toppingParams[i]);
                 }
             }
             
-            // Calculate item price
-            BigDecimal itemPrice = pizza.getPrice().add(toppingsCost);
-            
-            // Get cart from session or create new one
-            ShoppingCart cart = getCartFromSession(req);
-            
-            // Extract topping IDs from the toppings list
-            List<Integer> toppingIdsList = new ArrayList<>();
-            if (toppingIds != null) {
-                for (String toppingIdStr : toppingIds) {
-                    toppingIdsList.add(Integer.parseInt(toppingIdStr));
-                }
+            // Add item to the cart; only IDs are kept
+            ShoppingCart cart = getCart(req);
+            Pizza pizza = cartService.addItem(cart, pizzaId, quantity, toppingIds);
+            if (pizza == null) {
+                resp.sendRedirect(req.getContextPath() + "/menu");
+                return;
             }
             
-            // Add item to cart with proper parameters
-            cart.addItem(pizza, quantity, toppingIdsList, toppings);
-            
-            // Save cart to session
-            req.getSession().setAttribute("cart", cart);
+            if (!saveCart(req, resp, cart)) {
+                setFlashMessage(req, "warning", "Your cart is full. Please check out or remove some items first.");
+                resp.sendRedirect(req.getContextPath() + "/cart");
+                return;
+            }
             
             // Add success message
             req.getSession().setAttribute("success", pizza.getName() + " added to cart successfully!");
@@ -214,16 +171,16 @@ public class CartServlet extends BaseServlet {
      */
     private void removeFromCart(HttpServletRequest req, HttpServletResponse resp) 
             throws ServletException, IOException {
-        String itemIndexStr = req.getParameter("itemIndex");
+        String lineKey = req.getParameter("lineKey");
         
-        if (itemIndexStr != null) {
+        if (lineKey != null) {
             try {
-                int itemIndex = Integer.parseInt(itemIndexStr);
-                ShoppingCart cart = getCartFromSession(req);
-                cart.removeItem(itemIndex);
+                ShoppingCart cart = getCart(req);
+                cart.removeItem(ShoppingCart.LineKey.parse(lineKey));
+                saveCart(req, resp, cart);
                 req.getSession().setAttribute("success", "Item removed from cart");
-            } catch (NumberFormatException e) {
-                // Invalid index, ignore
+            } catch (IllegalArgumentException e) {
+                // Invalid key, ignore
             }
         }
         
@@ -237,16 +194,16 @@ public class CartServlet extends BaseServlet {
             throws ServletException, IOException {
         try {
             // Get parameters
-            String itemIndexStr = req.getParameter("itemIndex");
+            String lineKey = req.getParameter("lineKey");
             String quantityStr = req.getParameter("quantity");
             
             // Validate parameters
-            if (itemIndexStr == null || quantityStr == null) {
+            if (lineKey == null || quantityStr == null) {
                 resp.sendRedirect(req.getContextPath() + "/cart");
                 return;
             }
             
-            int itemIndex = Integer.parseInt(itemIndexStr);
+            ShoppingCart.LineKey key = ShoppingCart.LineKey.parse(lineKey);
             int quantity = Integer.parseInt(quantityStr);
             
             // Validate quantity
@@ -256,15 +213,9 @@ public class CartServlet extends BaseServlet {
                 quantity = 10;
             }
             
-            // Get cart from session
-            HttpSession session = req.getSession();
-            ShoppingCart cart = (ShoppingCart) session.getAttribute("cart");
-            
-            if (cart != null && itemIndex >= 0 && itemIndex < cart.getItems().size()) {
-                // Use the correct method name from ShoppingCart class
-                cart.updateQuantity(itemIndex, quantity);
-                session.setAttribute("cart", cart);
-            }
+            ShoppingCart cart = getCart(req);
+            cart.updateQuantity(key, quantity);
+            saveCart(req, resp, cart);
             
             // Check if it's an AJAX request
             String xRequestedWith = req.getHeader("X-Requested-With");
@@ -272,17 +223,22 @@ public class CartServlet extends BaseServlet {
                 // Send JSON response
                 resp.setContentType("application/json");
                 resp.setCharacterEncoding("UTF-8");
+                CartView view = cartService.getCartView(cart);
                 resp.getWriter().write("{\"success\": true, \"itemCount\": " + 
-                                       (cart != null ? cart.getItemCount() : 0) + ", " +
-                                       "\"total\": " + (cart != null ? cart.getTotal() : 0) + "}");
+                                       view.getItemCount() + ", " +
+                                       "\"total\": " + view.getTotal() + "}");
                 return;
             }
             
             // Redirect back to cart page
             resp.sendRedirect(req.getContextPath() + "/cart");
             
-        } catch (NumberFormatException e) {
+        } catch (IllegalArgumentException e) {
+            // Also covers NumberFormatException
             resp.sendRedirect(req.getContextPath() + "/cart");
+        } catch (ServiceException e) {
+            getServletContext().log("Error updating cart", e);
+            resp.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
         }
     }
     
@@ -291,24 +247,10 @@ public class CartServlet extends BaseServlet {
      */
     private void clearCart(HttpServletRequest req, HttpServletResponse resp) 
             throws ServletException, IOException {
-        ShoppingCart cart = getCartFromSession(req);
+        ShoppingCart cart = getCart(req);
         cart.clear();
+        saveCart(req, resp, cart);
         req.getSession().setAttribute("success", "Cart cleared");
         resp.sendRedirect(req.getContextPath() + "/cart");
     }
-    
-    /**
-     * Gets the cart from the session or creates a new one
-     */
-    private ShoppingCart getCartFromSession(HttpServletRequest req) { // Return type updated
-        HttpSession session = req.getSession();
-        ShoppingCart cart = (ShoppingCart) session.getAttribute("cart"); // Cast updated
-        
-        if (cart == null) {
-            cart = new ShoppingCart(); // Constructor updated
-            session.setAttribute("cart", cart);
-        }
-        
-        return cart;
-    }
 }
\ No newline at end of file
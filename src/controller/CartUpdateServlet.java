@@ -5,7 +5,6 @@ import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import javax.servlet.http.HttpSession;
 
 import model.ShoppingCart;
 
@@ -21,33 +20,31 @@ public class CartUpdateServlet extends BaseServlet {
     @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) 
             throws ServletException, IOException {
-        HttpSession session = req.getSession(false);
-        if (session == null || session.getAttribute("cart") == null) {
+        ShoppingCart cart = getCart(req);
+        if (cart.isEmpty()) {
             resp.sendRedirect(req.getContextPath() + "/cart");
             return;
         }
         
-        ShoppingCart cart = (ShoppingCart) session.getAttribute("cart");
-        
         // Handle different types of updates
         String action = req.getParameter("action");
         
         if ("update".equals(action)) {
             // Update quantity of a specific item
-            int itemIndex = Integer.parseInt(req.getParameter("itemIndex"));
+            ShoppingCart.LineKey key = ShoppingCart.LineKey.parse(req.getParameter("lineKey"));
             int quantity = Integer.parseInt(req.getParameter("quantity"));
-            cart.updateQuantity(itemIndex, quantity);
+            cart.updateQuantity(key, quantity);
             setFlashMessage(req, "info", "Cart updated successfully.");
         } else if ("remove".equals(action)) {
             // Remove a specific item
-            int itemIndex = Integer.parseInt(req.getParameter("itemIndex"));
-            cart.removeItem(itemIndex);
+            cart.removeItem(ShoppingCart.LineKey.parse(req.getParameter("lineKey")));
             setFlashMessage(req, "info", "Item removed from cart.");
         } else if ("clear".equals(action)) {
             // Clear the entire cart
             cart.clear();
             setFlashMessage(req, "info", "Cart cleared.");
         }
+        saveCart(req, resp, cart);
         
         resp.sendRedirect(req.getContextPath() + "/cart");
     }
@@ -7,10 +7,12 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
+import model.CartView;
 import model.ShoppingCart;
 import model.User;
 import model.Order;
 import model.OrderItem;
+import service.CartService;
 import service.OrderService;
 import service.ServiceException;
 import service.ValidationException;
@@ -22,10 +24,12 @@ import service.ValidationException;
 public class CheckoutServlet extends BaseServlet {
     
     private OrderService orderService;
+    private CartService cartService;
     
     @Override
     public void init() throws ServletException {
         orderService = new OrderService();
+        cartService = new CartService();
     }
     
     /**
@@ -39,17 +43,24 @@ public class CheckoutServlet extends BaseServlet {
             return;
         }
         
-        // Get the cart from the session
-        HttpSession session = req.getSession();
-        ShoppingCart cart = (ShoppingCart) session.getAttribute("cart");
+        ShoppingCart cart = getCart(req);
         
         // Check if cart is empty
-        if (cart == null || cart.getItemCount() == 0) {
+        if (cart.isEmpty()) {
             setFlashMessage(req, "warning", "Your cart is empty. Please add some items before checking out.");
             resp.sendRedirect(req.getContextPath() + "/menu");
             return;
         }
         
+        try {
+            req.setAttribute("cart", cartService.getCartView(cart));
+        } catch (ServiceException e) {
+            getServletContext().log("Error loading cart for checkout", e);
+            setFlashMessage(req, "error", "Sorry, we couldn't load your cart. Please try again later.");
+            resp.sendRedirect(req.getContextPath() + "/cart");
+            return;
+        }
+        
         // Get user for pre-filling the form
         User user = getLoggedInUser(req);
         req.setAttribute("user", user);
@@ -69,18 +80,28 @@ public class CheckoutServlet extends BaseServlet {
             return;
         }
         
-        // Get the cart from the session
         HttpSession session = req.getSession();
-        ShoppingCart cart = (ShoppingCart) session.getAttribute("cart");
+        ShoppingCart cart = getCart(req);
         
         // Check if cart is empty
-        if (cart == null || cart.getItemCount() == 0) {
+        if (cart.isEmpty()) {
             setFlashMessage(req, "warning", "Your cart is empty. Please add some items before checking out.");
             resp.sendRedirect(req.getContextPath() + "/menu");
             return;
         }
         
+        CartView cartView = null;
         try {
+            // Resolve the cart against the current menu
+            cartView = cartService.getCartView(cart);
+            if (cartView.isEmpty()) {
+                cart.clear();
+                saveCart(req, resp, cart);
+                setFlashMessage(req, "warning", "The items in your cart are no longer on the menu.");
+                resp.sendRedirect(req.getContextPath() + "/menu");
+                return;
+            }
+            
             // Get form parameters
             String deliveryAddress = req.getParameter("deliveryAddress");
             String contactNumber = req.getParameter("contactNumber");
@@ -95,7 +116,7 @@ public class CheckoutServlet extends BaseServlet {
             order.setContactNumber(contactNumber);
             
             // Add items from the cart to the order
-            for (ShoppingCart.CartItem cartItem : cart.getItems()) {
+            for (CartView.Line cartItem : cartView.getItems()) {
                 OrderItem orderItem = new OrderItem();
                 orderItem.setPizzaId(cartItem.getPizza().getId());
                 orderItem.setQuantity(cartItem.getQuantity());
@@ -111,6 +132,7 @@ public class CheckoutServlet extends BaseServlet {
             
             // Clear the cart
             cart.clear();
+            saveCart(req, resp, cart);
             
             // Store the order ID for the confirmation page
             session.setAttribute("lastOrderId", order.getId());
@@ -118,12 +140,14 @@ public class CheckoutServlet extends BaseServlet {
             // Redirect to the confirmation page
             resp.sendRedirect(req.getContextPath() + "/checkout/confirmation");
         } catch (ValidationException e) {
+            req.setAttribute("cart", cartView);
             req.setAttribute("error", e.getMessage());
             req.setAttribute("deliveryAddress", req.getParameter("deliveryAddress"));
             req.setAttribute("contactNumber", req.getParameter("contactNumber"));
             req.getRequestDispatcher("/WEB-INF/views/checkout/index.jsp").forward(req, resp);
         } catch (ServiceException e) {
             getServletContext().log("Error during checkout", e);
+            req.setAttribute("cart", cartView);
             req.setAttribute("error", "An error occurred while processing your order. Please try again later.");
             req.getRequestDispatcher("/WEB-INF/views/checkout/index.jsp").forward(req, resp);
         }
@@ -11,6 +11,7 @@ import model.User;
 import service.UserService;
 import service.ValidationException;
 import service.ServiceException;
+import util.LoginThrottle;
 
 /**
  * Servlet for handling user login
@@ -51,11 +52,24 @@ public class LoginServlet extends BaseServlet {
         String username = req.getParameter("username");
         String password = req.getParameter("password");
         
+        // Turn away brute-force bursts before they reach the database
+        String clientIp = req.getRemoteAddr();
+        long retryAfter = LoginThrottle.tryAcquire(username, clientIp);
+        if (retryAfter > 0) {
+            resp.setStatus(429);
+            resp.setHeader("Retry-After", String.valueOf(retryAfter));
+            req.setAttribute("error", "Too many login attempts. Please try again in " + retryAfter + " seconds.");
+            req.getRequestDispatcher("/WEB-INF/views/auth/login.jsp").forward(req, resp);
+            return;
+        }
+        
         try {
             // Authenticate user
             User user = userService.authenticateUser(username, password);
             
             if (user != null) {
+                LoginThrottle.recordSuccess(username);
+                
                 // Store user in session
                 HttpSession session = req.getSession();
                 session.setAttribute("user", user);
@@ -95,7 +109,11 @@ public class LoginServlet extends BaseServlet {
                 req.setAttribute("error", "Invalid username or password");
                 req.getRequestDispatcher("/WEB-INF/views/auth/login.jsp").forward(req, resp);
             }
-        } catch (ValidationException | ServiceException e) {
+        } catch (ValidationException e) {
+            LoginThrottle.recordFailure(username, clientIp);
+            req.setAttribute("error", e.getMessage());
+            req.getRequestDispatcher("/WEB-INF/views/auth/login.jsp").forward(req, resp);
+        } catch (ServiceException e) {
             req.setAttribute("error", e.getMessage());
             req.getRequestDispatcher("/WEB-INF/views/auth/login.jsp").forward(req, resp);
         }
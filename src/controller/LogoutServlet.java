@@ -7,6 +7,9 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
+import model.ShoppingCart;
+import session.CartCookieCodec;
+
 /**
  * Servlet for handling user logout
  */
@@ -24,6 +27,11 @@ public class LogoutServlet extends BaseServlet {
             session.invalidate();
         }
         
+        // A cart kept in a cookie outlives the session, so drop it as well
+        if (CartCookieCodec.isEnabled()) {
+            saveCart(req, resp, new ShoppingCart());
+        }
+        
         setFlashMessage(req, "info", "You have been successfully logged out.");
         resp.sendRedirect(req.getContextPath() + "/");
     }
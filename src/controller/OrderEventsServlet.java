@@ -0,0 +1,42 @@
+package controller;
+
+import java.io.IOException;
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import model.User;
+import service.OrderEventPublisher;
+import util.AppConfig;
+
+/**
+ * Streams status changes of the logged-in user's orders as Server-Sent Events.
+ * The request is put into async mode, so an open stream does not hold a container thread.
+ */
+@WebServlet(urlPatterns = "/orders/events", asyncSupported = true)
+public class OrderEventsServlet extends BaseServlet {
+    
+    // Streams are closed after this long; the browser reconnects on its own
+    private static final long STREAM_TIMEOUT_MILLIS = AppConfig.getInt("sse.streamTimeoutMinutes", 30) * 60_000L;
+    
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) 
+            throws ServletException, IOException {
+        // EventSource cannot follow a login redirect, so answer with a plain 401
+        User user = getLoggedInUser(req);
+        if (user == null) {
+            resp.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+        
+        AsyncContext asyncContext = req.startAsync();
+        asyncContext.setTimeout(STREAM_TIMEOUT_MILLIS);
+        
+        if (!OrderEventPublisher.CUSTOMER_STREAMS.subscribe(user.getId(), asyncContext)) {
+            resp.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many open event streams");
+            asyncContext.complete();
+        }
+    }
+}
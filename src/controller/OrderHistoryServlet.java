@@ -15,7 +15,7 @@ import service.ServiceException;
 /**
  * Servlet for displaying a user's order history
  */
-@WebServlet("/orders")
+@WebServlet(urlPatterns = "/orders", asyncSupported = true)
 public class OrderHistoryServlet extends BaseServlet {
     
     private OrderService orderService;
@@ -33,22 +33,29 @@ public class OrderHistoryServlet extends BaseServlet {
             return;
         }
         
-        try {
-            // Get logged in user
-            User user = getLoggedInUser(req);
-            
-            // Get user's orders
-            List<Order> orders = orderService.getOrdersByUser(user.getId());
-            
-            // Set orders as request attribute
-            req.setAttribute("orders", orders);
-            
-            // Forward to the orders index page
-            req.getRequestDispatcher("/WEB-INF/views/orders/index.jsp").forward(req, resp);
-        } catch (ServiceException e) {
-            getServletContext().log("Error retrieving order history", e);
-            setFlashMessage(req, "error", "An error occurred while retrieving your order history.");
-            resp.sendRedirect(req.getContextPath() + "/");
-        }
+        // Get logged in user
+        User user = getLoggedInUser(req);
+        int userId = user.getId();
+        
+        // Load the orders on the request executor so a slow database does not hold a container thread
+        processAsync(req, resp, () -> {
+            try {
+                // Get user's orders
+                List<Order> orders = orderService.getOrdersByUser(userId);
+                
+                return () -> {
+                    // Set orders as request attribute and show the orders index page
+                    req.setAttribute("orders", orders);
+                    return "/WEB-INF/views/orders/index.jsp";
+                };
+            } catch (ServiceException e) {
+                getServletContext().log("Error retrieving order history", e);
+                return () -> {
+                    setFlashMessage(req, "error", "An error occurred while retrieving your order history.");
+                    resp.sendRedirect(req.getContextPath() + "/");
+                    return null;
+                };
+            }
+        });
     }
 }
@@ -3,13 +3,13 @@ package controller.admin;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
-import java.util.HashMap;
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import controller.BaseServlet;
+import model.DashboardStats;
 import model.Order;
 import model.User;
 import service.OrderService;
@@ -20,7 +20,7 @@ import service.ServiceException;
 /**
  * Servlet for the admin dashboard
  */
-@WebServlet("/admin/dashboard")
+@WebServlet(urlPatterns = "/admin/dashboard", asyncSupported = true)
 public class AdminDashboardServlet extends BaseServlet {
     
     private OrderService orderService;
@@ -44,65 +44,71 @@ public class AdminDashboardServlet extends BaseServlet {
             return;
         }
         
-        try {
-            // Get recent orders for the dashboard (limit to 10)
-            List<Order> recentOrders = orderService.getRecentOrders(10);
-            req.setAttribute("recentOrders", recentOrders);
-            
-            // Calculate dashboard statistics
-            Map<String, Object> dashboardStats = new HashMap<>();
-            
-            try {
-                // Order statistics - wrap each section in its own try-catch
-                dashboardStats.put("totalOrders", orderService.countAllOrders());
-                dashboardStats.put("pendingOrders", orderService.countOrdersByStatus("PLACED"));
-                dashboardStats.put("preparingOrders", orderService.countOrdersByStatus("PREPARING"));
-                dashboardStats.put("readyOrders", orderService.countOrdersByStatus("READY"));
-                dashboardStats.put("activeDeliveries", orderService.countOrdersByStatus("OUT_FOR_DELIVERY"));
-                dashboardStats.put("completedOrders", orderService.countOrdersByStatus("DELIVERED"));
-                dashboardStats.put("cancelledOrders", orderService.countOrdersByStatus("CANCELLED"));
-            } catch (ServiceException e) {
-                getServletContext().log("Error loading order statistics", e);
-                dashboardStats.put("orderStatsError", true);
-            }
-            
-            try {
-                // Revenue statistics
-                dashboardStats.put("totalRevenue", orderService.calculateTotalRevenue());
-                dashboardStats.put("todayRevenue", orderService.calculateTodayRevenue());
-                dashboardStats.put("weeklyRevenue", orderService.calculateWeeklyRevenue());
-            } catch (ServiceException e) {
-                getServletContext().log("Error loading revenue statistics", e);
-                dashboardStats.put("revenueStatsError", true);
-            }
-            
+        // Load the dashboard on the request executor so a slow database does not hold a container thread
+        processAsync(req, resp, () -> {
             try {
-                // Menu statistics
-                dashboardStats.put("availablePizzas", pizzaService.countAvailablePizzas());
-                dashboardStats.put("outOfStockPizzas", pizzaService.countUnavailablePizzas());
-                dashboardStats.put("totalMenuItems", pizzaService.countTotalPizzas());
+                DashboardStats dashboardStats = loadStats();
+                // Get recent orders for the dashboard (limit to 10)
+                List<Order> recentOrders = orderService.getRecentOrders(10);
+                
+                return () -> {
+                    req.setAttribute("recentOrders", recentOrders);
+                    req.setAttribute("stats", dashboardStats);
+                    return "/WEB-INF/views/admin/dashboard.jsp";
+                };
             } catch (ServiceException e) {
-                getServletContext().log("Error loading menu statistics: " + e.getMessage(), e);
-                dashboardStats.put("menuStatsError", true);
+                getServletContext().log("Error loading admin dashboard", e);
+                return () -> {
+                    req.setAttribute("error", "An error occurred while loading the dashboard: " + e.getMessage());
+                    return "/WEB-INF/views/error/error.jsp";
+                };
             }
-            
-            try {
-                // User statistics
-                dashboardStats.put("totalCustomers", userService.countUsersByRole("CUSTOMER"));
-                dashboardStats.put("totalDeliveryPersons", userService.countUsersByRole("DELIVERY"));
-                dashboardStats.put("totalUsers", userService.countAllUsers());
-            } catch (ServiceException e) {
-                getServletContext().log("Error loading user statistics", e);
-                dashboardStats.put("userStatsError", true);
+        });
+    }
+    
+    /**
+     * Collects the dashboard statistics. A section that fails to load is flagged
+     * in the result instead of failing the whole dashboard.
+     */
+    private DashboardStats loadStats() {
+        // Order counts and revenue come from the live counters in OrderStatsCounter;
+        // revenue by day is only queried when the counters are seeded or reconciled
+        DashboardStats dashboardStats;
+        try {
+            dashboardStats = orderService.getDashboardStats();
+        } catch (ServiceException e) {
+            getServletContext().log("Error loading order statistics", e);
+            dashboardStats = new DashboardStats();
+            dashboardStats.setOrderStatsError(true);
+        }
+        
+        try {
+            // Menu statistics are counted from the in-memory catalog
+            int availablePizzas = pizzaService.countAvailablePizzas();
+            int totalPizzas = pizzaService.countTotalPizzas();
+            dashboardStats.setAvailablePizzas(availablePizzas);
+            dashboardStats.setOutOfStockPizzas(totalPizzas - availablePizzas);
+            dashboardStats.setTotalMenuItems(totalPizzas);
+        } catch (ServiceException e) {
+            getServletContext().log("Error loading menu statistics: " + e.getMessage(), e);
+            dashboardStats.setMenuStatsError(true);
+        }
+        
+        try {
+            // User statistics
+            Map<String, Integer> usersByRole = userService.countUsersGroupedByRole();
+            int totalUsers = 0;
+            for (int count : usersByRole.values()) {
+                totalUsers += count;
             }
-            
-            req.setAttribute("stats", dashboardStats);
-            
-            req.getRequestDispatcher("/WEB-INF/views/admin/dashboard.jsp").forward(req, resp);
+            dashboardStats.setTotalCustomers(usersByRole.getOrDefault(User.ROLE_CUSTOMER, 0));
+            dashboardStats.setTotalDeliveryPersons(usersByRole.getOrDefault(User.ROLE_DELIVERY, 0));
+            dashboardStats.setTotalUsers(totalUsers);
         } catch (ServiceException e) {
-            getServletContext().log("Error loading admin dashboard", e);
-            req.setAttribute("error", "An error occurred while loading the dashboard: " + e.getMessage());
-            req.getRequestDispatcher("/WEB-INF/views/error/error.jsp").forward(req, resp);
+            getServletContext().log("Error loading user statistics", e);
+            dashboardStats.setUserStatsError(true);
         }
+        
+        return dashboardStats;
     }
 }
\ No newline at end of file
@@ -0,0 +1,118 @@
+package controller.admin;
+
+import java.io.IOException;
+import java.util.Locale;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import controller.BaseServlet;
+import dao.StatementRegistry;
+import database.DatabaseConnection;
+import model.User;
+import service.DispatchScheduler;
+import service.OrderEventPublisher;
+import util.AuditLogWriter;
+import util.LoginThrottle;
+import util.PasswordHasher;
+import util.RequestExecutor;
+import util.SseHub;
+
+/**
+ * Servlet exposing runtime metrics as JSON for administrators
+ */
+@WebServlet("/admin/metrics")
+public class AdminMetricsServlet extends BaseServlet {
+    
+    /**
+     * Handles GET requests - writes the current metrics
+     */
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) 
+            throws ServletException, IOException {
+        if (!requireLogin(req, resp) || !requireRole(req, resp, User.ROLE_ADMIN)) {
+            return;
+        }
+        
+        StringBuilder json = new StringBuilder("{");
+        
+        // Notification audit writer
+        json.append("\"audit\":{");
+        json.append("\"queueDepth\":").append(AuditLogWriter.getQueueDepth()).append(",");
+        json.append("\"queueCapacity\":").append(AuditLogWriter.getQueueCapacity()).append(",");
+        json.append("\"enqueued\":").append(AuditLogWriter.getEnqueuedCount()).append(",");
+        json.append("\"written\":").append(AuditLogWriter.getWrittenCount()).append(",");
+        json.append("\"batches\":").append(AuditLogWriter.getBatchCount()).append(",");
+        json.append("\"dropped\":").append(AuditLogWriter.getDroppedCount()).append(",");
+        json.append("\"failed\":").append(AuditLogWriter.getFailedCount());
+        json.append("},");
+        
+        // Open Server-Sent Events streams
+        json.append("\"sse\":{");
+        json.append("\"customerStreams\":").append(OrderEventPublisher.CUSTOMER_STREAMS.getConnectionCount()).append(",");
+        json.append("\"riderStreams\":").append(OrderEventPublisher.RIDER_STREAMS.getConnectionCount()).append(",");
+        json.append("\"slowDropped\":").append(SseHub.getSlowDroppedCount());
+        json.append("},");
+        
+        // Worker pool of the async servlets
+        json.append("\"requests\":{");
+        json.append("\"threads\":").append(RequestExecutor.getThreadCount()).append(",");
+        json.append("\"active\":").append(RequestExecutor.getActiveCount()).append(",");
+        json.append("\"queueDepth\":").append(RequestExecutor.getQueueDepth()).append(",");
+        json.append("\"queueCapacity\":").append(RequestExecutor.getQueueCapacity()).append(",");
+        json.append("\"submitted\":").append(RequestExecutor.getSubmittedCount()).append(",");
+        json.append("\"rejected\":").append(RequestExecutor.getRejectedCount()).append(",");
+        json.append("\"timedOut\":").append(RequestExecutor.getTimedOutCount());
+        json.append("},");
+        
+        // Password hashing pool
+        json.append("\"passwords\":{");
+        json.append("\"algorithm\":\"").append(PasswordHasher.getAlgorithm()).append("\",");
+        json.append("\"threads\":").append(PasswordHasher.getThreadCount()).append(",");
+        json.append("\"active\":").append(PasswordHasher.getActiveCount()).append(",");
+        json.append("\"queueDepth\":").append(PasswordHasher.getQueueDepth()).append(",");
+        json.append("\"queueCapacity\":").append(PasswordHasher.getQueueCapacity()).append(",");
+        json.append("\"hashed\":").append(PasswordHasher.getHashedCount()).append(",");
+        json.append("\"verified\":").append(PasswordHasher.getVerifiedCount()).append(",");
+        json.append("\"rejected\":").append(PasswordHasher.getRejectedCount()).append(",");
+        json.append("\"timedOut\":").append(PasswordHasher.getTimedOutCount());
+        json.append("},");
+        
+        // Login rate limiting
+        json.append("\"loginThrottle\":{");
+        json.append("\"tracked\":").append(LoginThrottle.getTrackedCount()).append(",");
+        json.append("\"allowed\":").append(LoginThrottle.getAllowedCount()).append(",");
+        json.append("\"throttled\":").append(LoginThrottle.getThrottledCount()).append(",");
+        json.append("\"failures\":").append(LoginThrottle.getFailureCount()).append(",");
+        json.append("\"evicted\":").append(LoginThrottle.getEvictedCount());
+        json.append("},");
+        
+        // Automatic rider dispatch
+        json.append("\"dispatch\":{");
+        json.append("\"running\":").append(DispatchScheduler.isRunning()).append(",");
+        json.append("\"rounds\":").append(DispatchScheduler.getRoundCount()).append(",");
+        json.append("\"dispatched\":").append(DispatchScheduler.getDispatchedCount()).append(",");
+        json.append("\"conflicts\":").append(DispatchScheduler.getConflictCount()).append(",");
+        json.append("\"failures\":").append(DispatchScheduler.getFailureCount());
+        json.append("},");
+        
+        // Prepared statement cache
+        json.append("\"statements\":{");
+        json.append("\"cacheSize\":").append(DatabaseConnection.getStatementCacheSize()).append(",");
+        json.append("\"prepared\":").append(StatementRegistry.getPreparedCount()).append(",");
+        json.append("\"estimatedHits\":").append(StatementRegistry.getEstimatedHitCount()).append(",");
+        json.append("\"estimatedHitRate\":").append(String.format(Locale.ROOT, "%.4f", StatementRegistry.getEstimatedHitRate())).append(",");
+        json.append("\"uncacheable\":").append(StatementRegistry.getUncacheableCount()).append(",");
+        json.append("\"connections\":").append(StatementRegistry.getConnectionCount()).append(",");
+        json.append("\"pooledStatements\":").append(DatabaseConnection.getPooledStatementCount());
+        json.append("}");
+        
+        json.append("}");
+        
+        resp.setContentType("application/json");
+        resp.setHeader("Cache-Control", "no-store");
+        resp.getWriter().write(json.toString());
+    }
+}
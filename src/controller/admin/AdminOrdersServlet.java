@@ -1,6 +1,9 @@
 package controller.admin;
 
 import java.io.IOException;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.util.List;
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
@@ -8,7 +11,8 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import controller.BaseServlet;
-import model.Order;
+import model.OrderFilter;
+import model.OrderPage;
 import model.User;
 import service.OrderService;
 import service.ServiceException;
@@ -18,8 +22,10 @@ import service.ValidationException;
 /**
  * Servlet for managing orders in the admin area
  */
-@WebServlet("/admin/orders")
+@WebServlet(urlPatterns = "/admin/orders", asyncSupported = true)
 public class AdminOrdersServlet extends BaseServlet {
+    private static final int PAGE_SIZE = 25;
+    
     private OrderService orderService;
     private UserService userService;
     private boolean initialized = false;
@@ -57,25 +63,44 @@ public class AdminOrdersServlet extends BaseServlet {
             return;
         }
         
+        OrderFilter filter;
         try {
-            List<Order> orders = orderService.getAllOrders();
-            List<User> deliveryPersons = userService.getDeliveryPersons();
-            
-            req.setAttribute("orders", orders);
-            req.setAttribute("deliveryPersons", deliveryPersons);
-            
-            req.getRequestDispatcher("/WEB-INF/views/admin/orders.jsp").forward(req, resp);
-        } catch (ServiceException e) {
-            getServletContext().log("Error getting orders for admin", e);
-            req.setAttribute("error", "An error occurred while retrieving orders: " + e.getMessage());
-            req.setAttribute("errorDetail", e.toString());
-            req.getRequestDispatcher("/WEB-INF/views/error/error.jsp").forward(req, resp);
-        } catch (Exception e) {
-            getServletContext().log("Unexpected error in AdminOrdersServlet", e);
-            req.setAttribute("error", "An unexpected error occurred: " + e.getMessage());
-            req.setAttribute("errorDetail", e.toString());
-            req.getRequestDispatcher("/WEB-INF/views/error/error.jsp").forward(req, resp);
+            filter = buildFilter(req);
+        } catch (IllegalArgumentException e) {
+            setFlashMessage(req, "error", "Invalid filter: " + e.getMessage());
+            resp.sendRedirect(req.getContextPath() + "/admin/orders");
+            return;
         }
+        String after = req.getParameter("after");
+        String before = req.getParameter("before");
+        
+        // Load the page on the request executor so a slow database does not hold a container thread
+        processAsync(req, resp, () -> {
+            try {
+                OrderPage page = orderService.getOrdersPage(filter, after, before, PAGE_SIZE);
+                List<User> deliveryPersons = userService.getDeliveryPersons();
+                
+                return () -> {
+                    req.setAttribute("orders", page.getOrders());
+                    req.setAttribute("orderPage", page);
+                    req.setAttribute("deliveryPersons", deliveryPersons);
+                    return "/WEB-INF/views/admin/orders.jsp";
+                };
+            } catch (ValidationException | IllegalArgumentException e) {
+                return () -> {
+                    setFlashMessage(req, "error", "Invalid filter: " + e.getMessage());
+                    resp.sendRedirect(req.getContextPath() + "/admin/orders");
+                    return null;
+                };
+            } catch (ServiceException e) {
+                getServletContext().log("Error getting orders for admin", e);
+                return () -> {
+                    req.setAttribute("error", "An error occurred while retrieving orders: " + e.getMessage());
+                    req.setAttribute("errorDetail", e.toString());
+                    return "/WEB-INF/views/error/error.jsp";
+                };
+            }
+        });
     }    // Update the doPost method to handle order assignment    @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) 
             throws ServletException, IOException {
@@ -135,4 +160,32 @@ public class AdminOrdersServlet extends BaseServlet {
             resp.sendRedirect(req.getContextPath() + "/admin/orders");
         }
     }
+    
+    /**
+     * Builds the order filter from the status, from and to (yyyy-MM-dd) request parameters
+     * 
+     * @throws IllegalArgumentException If a date is malformed
+     */
+    private OrderFilter buildFilter(HttpServletRequest req) {
+        OrderFilter filter = new OrderFilter();
+        
+        String status = req.getParameter("status");
+        if (status != null && !status.trim().isEmpty()) {
+            filter.setStatus(status.trim());
+        }
+        
+        String from = req.getParameter("from");
+        if (from != null && !from.trim().isEmpty()) {
+            filter.setCreatedFrom(new Timestamp(Date.valueOf(from.trim()).getTime()));
+        }
+        
+        String to = req.getParameter("to");
+        if (to != null && !to.trim().isEmpty()) {
+            // The "to" date is inclusive, so stop at the start of the following day
+            LocalDate toDate = Date.valueOf(to.trim()).toLocalDate();
+            filter.setCreatedTo(new Timestamp(Date.valueOf(toDate.plusDays(1)).getTime()));
+        }
+        
+        return filter;
+    }
 }
\ No newline at end of file
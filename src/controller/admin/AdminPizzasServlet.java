@@ -105,7 +105,7 @@ public class AdminPizzasServlet extends BaseServlet {
             } else if ("edit".equals(action)) {
                 // Handle updating an existing pizza
                 int pizzaId = Integer.parseInt(req.getParameter("id"));
-                Pizza existingPizza = pizzaService.getPizzaById(pizzaId);
+                Pizza existingPizza = pizzaService.getPizzaForUpdate(pizzaId);
                 
                 if (existingPizza == null) {
                     setFlashMessage(req, "error", "Pizza not found.");
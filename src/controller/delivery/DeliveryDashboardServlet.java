@@ -1,7 +1,6 @@
 package controller.delivery;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
@@ -20,6 +19,9 @@ import service.ServiceException;
 @WebServlet("/delivery/dashboard")
 public class DeliveryDashboardServlet extends BaseServlet {
     
+    // Number of delivered or cancelled orders listed below the active ones
+    private static final int COMPLETED_ORDERS_SHOWN = 50;
+    
     private OrderService orderService;
     
     @Override
@@ -39,19 +41,12 @@ public class DeliveryDashboardServlet extends BaseServlet {
         
         try {
             User deliveryPerson = getLoggedInUser(req);
-            List<Order> assignedOrders = orderService.getOrdersByDeliveryPerson(deliveryPerson.getId());
-            
-            // Separate active and completed orders
-            List<Order> activeOrders = new ArrayList<>();
-            List<Order> completedOrders = new ArrayList<>();
             
-            for (Order order : assignedOrders) {
-                if ("DELIVERED".equals(order.getOrderStatus()) || "CANCELLED".equals(order.getOrderStatus())) {
-                    completedOrders.add(order);
-                } else {
-                    activeOrders.add(order);
-                }
-            }
+            // Active orders come from the in-memory assignment index; only the
+            // recent finished orders are read from the database
+            List<Order> activeOrders = orderService.getActiveOrdersByDeliveryPerson(deliveryPerson.getId());
+            List<Order> completedOrders = orderService.getFinishedOrdersByDeliveryPerson(
+                    deliveryPerson.getId(), COMPLETED_ORDERS_SHOWN);
             
             req.setAttribute("activeOrders", activeOrders);
             req.setAttribute("completedOrders", completedOrders);
@@ -0,0 +1,47 @@
+package controller.delivery;
+
+import java.io.IOException;
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import controller.BaseServlet;
+import model.User;
+import service.OrderEventPublisher;
+import util.AppConfig;
+
+/**
+ * Streams the logged-in delivery person's new assignments and order status
+ * changes as Server-Sent Events, so the dashboard does not have to poll
+ */
+@WebServlet(urlPatterns = "/delivery/events", asyncSupported = true)
+public class DeliveryEventsServlet extends BaseServlet {
+    
+    // Streams are closed after this long; the browser reconnects on its own
+    private static final long STREAM_TIMEOUT_MILLIS = AppConfig.getInt("sse.streamTimeoutMinutes", 30) * 60_000L;
+    
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) 
+            throws ServletException, IOException {
+        // EventSource cannot follow a login redirect, so answer with plain status codes
+        User user = getLoggedInUser(req);
+        if (user == null) {
+            resp.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+        if (!hasRole(req, User.ROLE_DELIVERY)) {
+            resp.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        
+        AsyncContext asyncContext = req.startAsync();
+        asyncContext.setTimeout(STREAM_TIMEOUT_MILLIS);
+        
+        if (!OrderEventPublisher.RIDER_STREAMS.subscribe(user.getId(), asyncContext)) {
+            resp.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many open event streams");
+            asyncContext.complete();
+        }
+    }
+}
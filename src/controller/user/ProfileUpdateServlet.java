@@ -67,7 +67,6 @@ public class ProfileUpdateServlet extends BaseServlet {
             user.setEmail(email);
             user.setContactNumber(contactNumber);
             user.setRole(currentUser.getRole());
-            user.setPassword(currentUser.getPassword()); // Keep the existing password
             
             // Update the profile
             User updatedUser = userService.updateProfile(user);
@@ -0,0 +1,45 @@
+package dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import database.DatabaseConnection;
+
+/**
+ * Data Access Object for the menu version shared by all application nodes
+ */
+public class CatalogVersionDAO {
+
+    /**
+     * Gets the current menu version
+     * 
+     * @return The version, or 0 if it was never bumped
+     * @throws SQLException If a database error occurs
+     */
+    public long getVersion() throws SQLException {
+        String sql = "SELECT version FROM catalog_version WHERE id = 1";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql);
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+    
+    /**
+     * Bumps the menu version after a change to pizzas, categories or toppings
+     * 
+     * @throws SQLException If a database error occurs
+     */
+    public void increment() throws SQLException {
+        String sql = "INSERT INTO catalog_version (id, version) VALUES (1, 1) " +
+                     "ON DUPLICATE KEY UPDATE version = version + 1";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
+            stmt.executeUpdate();
+        }
+    }
+}
@@ -27,7 +27,7 @@ public class CategoryDAO {
         String sql = "INSERT INTO categories (name, description) VALUES (?, ?)";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql, Statement.RETURN_GENERATED_KEYS)) {
             
             stmt.setString(1, category.getName());
             stmt.setString(2, category.getDescription());
@@ -61,7 +61,7 @@ public class CategoryDAO {
         String sql = "SELECT * FROM categories WHERE id = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             
             stmt.setInt(1, id);
             
@@ -108,7 +108,7 @@ public class CategoryDAO {
         String sql = "UPDATE categories SET name = ?, description = ? WHERE id = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             
             stmt.setString(1, category.getName());
             stmt.setString(2, category.getDescription());
@@ -130,7 +130,7 @@ public class CategoryDAO {
         String sql = "DELETE FROM categories WHERE id = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             
             stmt.setInt(1, id);
             
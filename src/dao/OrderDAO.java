@@ -6,16 +6,28 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
-// import java.sql.Timestamp;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import database.DatabaseConnection;
+import model.DashboardStats;
 import model.Order;
+import model.OrderFilter;
 import model.OrderItem;
+import model.OrderPage;
+import model.OrderStatus;
 
 public class OrderDAO {
 
+    // Statuses in which an order still occupies its delivery person
+    private static final String ACTIVE_DELIVERY_STATUSES = "('PLACED', 'PREPARING', 'READY', 'OUT_FOR_DELIVERY')";
+
     private OrderItemDAO orderItemDAO;
     
     public OrderDAO() {
@@ -40,7 +52,7 @@ public class OrderDAO {
             
             // Insert order
             String sql = "INSERT INTO orders (user_id, delivery_address, contact_number, total_amount, order_status) VALUES (?, ?, ?, ?, ?)";
-            stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            stmt = StatementRegistry.prepare(conn, sql, Statement.RETURN_GENERATED_KEYS);
             stmt.setInt(1, order.getUserId());
             stmt.setString(2, order.getDeliveryAddress());
             stmt.setString(3, order.getContactNumber());
@@ -60,11 +72,11 @@ public class OrderDAO {
                 throw new SQLException("Creating order failed, no ID obtained.");
             }
             
-            // Insert order items
+            // Insert order items and their toppings in two batches
             for (OrderItem item : order.getOrderItems()) {
                 item.setOrderId(order.getId());
-                orderItemDAO.createOrderItem(conn, item);
             }
+            orderItemDAO.createOrderItems(conn, order.getOrderItems());
             
             conn.commit(); // Commit transaction
             return order;
@@ -97,27 +109,38 @@ public class OrderDAO {
      * @throws SQLException If a database error occurs
      */
     public Order findById(int id) throws SQLException {
-        String sql = "SELECT * FROM orders WHERE id = ?";
+        return findById(id, OrderFetchPlan.WITH_ITEMS);
+    }
+    
+    /**
+     * Finds an order by its ID, loading as much of it as the fetch plan says
+     * 
+     * @param id The order ID to search for
+     * @param plan What to load; {@link OrderFetchPlan#HEADER} for status checks and changes
+     * @return The order if found, null otherwise
+     * @throws SQLException If a database error occurs
+     */
+    public Order findById(int id, OrderFetchPlan plan) throws SQLException {
+        String sql = "SELECT " + plan.getColumns() + " FROM orders WHERE id = ?";
+        Order order;
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             
             stmt.setInt(1, id);
             
             try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    Order order = mapResultSetToOrder(rs);
-                    
-                    // Load the order items
-                    List<OrderItem> items = orderItemDAO.findByOrderId(id);
-                    order.setOrderItems(items);
-                    
-                    return order;
-                } else {
+                if (!rs.next()) {
                     return null; // Order not found
                 }
+                order = mapResultSetToOrder(rs, plan);
             }
         }
+        
+        if (plan.includesItems()) {
+            attachOrderItems(Collections.singletonList(order));
+        }
+        return order;
     }
     
     /**
@@ -145,15 +168,14 @@ public class OrderDAO {
             }
         }
         
-        // For each order, load its items
-        for (Order order : orders) {
-            try {
-                List<OrderItem> items = orderItemDAO.findByOrderId(order.getId());
-                order.setOrderItems(items);
-            } catch (Exception e) {
-                System.err.println("Error loading items for order #" + order.getId() + ": " + e.getMessage());
-                e.printStackTrace();
-                // Continue with empty items list rather than failing
+        // Load the items of all orders in one batch
+        try {
+            attachOrderItems(orders);
+        } catch (Exception e) {
+            System.err.println("Error loading items for orders: " + e.getMessage());
+            e.printStackTrace();
+            // Continue with empty items lists rather than failing
+            for (Order order : orders) {
                 order.setOrderItems(new ArrayList<>());
             }
         }
@@ -161,6 +183,75 @@ public class OrderDAO {
         return orders;
     }
     
+    /**
+     * Gets one page of orders using keyset pagination on (created_at, id), newest first.
+     * Order items are not loaded.
+     * 
+     * @param filter Status and date filters, may be null
+     * @param cursor The page boundary, or null for the first page
+     * @param before true to fetch the newer orders preceding the cursor,
+     *               false to fetch the older orders following it
+     * @param limit Maximum number of orders to return
+     * @return The page of orders, always ordered newest first. One extra row beyond
+     *         the limit is returned when more orders exist in the requested direction.
+     * @throws SQLException If a database error occurs
+     */
+    public List<Order> findPage(OrderFilter filter, OrderPage.Cursor cursor, boolean before, int limit) 
+            throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT * FROM orders WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        
+        if (filter != null) {
+            if (filter.getStatus() != null) {
+                sql.append(" AND order_status = ?");
+                params.add(filter.getStatus());
+            }
+            if (filter.getCreatedFrom() != null) {
+                sql.append(" AND created_at >= ?");
+                params.add(filter.getCreatedFrom());
+            }
+            if (filter.getCreatedTo() != null) {
+                sql.append(" AND created_at < ?");
+                params.add(filter.getCreatedTo());
+            }
+        }
+        
+        if (cursor != null) {
+            String op = before ? ">" : "<";
+            sql.append(" AND (created_at ").append(op).append(" ? OR (created_at = ? AND id ").append(op).append(" ?))");
+            params.add(cursor.getCreatedAt());
+            params.add(cursor.getCreatedAt());
+            params.add(cursor.getId());
+        }
+        
+        sql.append(before ? " ORDER BY created_at ASC, id ASC" : " ORDER BY created_at DESC, id DESC");
+        sql.append(" LIMIT ?");
+        params.add(limit + 1);
+        
+        List<Order> orders = new ArrayList<>();
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql.toString())) {
+            
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setObject(i + 1, params.get(i));
+            }
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    orders.add(mapResultSetToOrder(rs));
+                }
+            }
+        }
+        
+        if (before) {
+            // Restore newest-first order; the look-ahead row ends up first
+            Collections.reverse(orders);
+        }
+        
+        return orders;
+    }
+    
     /**
      * Finds all orders for a specific user
      * 
@@ -173,7 +264,7 @@ public class OrderDAO {
         List<Order> orders = new ArrayList<>();
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             
             stmt.setInt(1, userId);
             
@@ -185,34 +276,80 @@ public class OrderDAO {
             }
         }
         
-        // For each order, load its items
-        for (Order order : orders) {
-            List<OrderItem> items = orderItemDAO.findByOrderId(order.getId());
-            order.setOrderItems(items);
-        }
+        // Load the items of all orders in one batch
+        attachOrderItems(orders);
         
         return orders;
     }
     
     /**
-     * Updates the status of an order
+     * Moves an order from one status to another, only if it still has the expected
+     * status. One statement, so two concurrent changes cannot both succeed and
+     * overwrite each other. Moving to DELIVERED also sets delivered_at.
      * 
-     * @param orderId The ID of the order to update
-     * @param status The new status value
-     * @return true if the update was successful, false otherwise
+     * @param orderId The ID of the order
+     * @param expected The status the order must have now
+     * @param next The new status
+     * @param deliveryPersonId If not null, the delivery person the order must be assigned to
+     * @return true if the status was changed, false if the order is gone, has
+     *         another status or is assigned to someone else
      * @throws SQLException If a database error occurs
      */
-    public boolean updateOrderStatus(int orderId, String status) throws SQLException {
-        String sql = "UPDATE orders SET order_status = ? WHERE id = ?";
+    public boolean compareAndSetStatus(int orderId, OrderStatus expected, OrderStatus next,
+            Integer deliveryPersonId) throws SQLException {
+        String sql = "UPDATE orders SET order_status = ?" +
+                     (next == OrderStatus.DELIVERED ? ", delivered_at = CURRENT_TIMESTAMP" : "") +
+                     " WHERE id = ? AND order_status = ?" +
+                     (deliveryPersonId != null ? " AND assigned_to_user_id = ?" : "");
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             
-            stmt.setString(1, status);
+            stmt.setString(1, next.name());
             stmt.setInt(2, orderId);
+            stmt.setString(3, expected.name());
+            if (deliveryPersonId != null) {
+                stmt.setInt(4, deliveryPersonId);
+            }
             
-            int affectedRows = stmt.executeUpdate();
-            return affectedRows > 0;
+            return stmt.executeUpdate() == 1;
+        }
+    }
+    
+    /**
+     * Assigns a delivery person to an order and sets its status, only if the order
+     * still has the expected status and the expected delivery person
+     * 
+     * @param orderId The ID of the order
+     * @param deliveryPersonId The ID of the delivery person
+     * @param expected The status the order must have now
+     * @param expectedDeliveryPersonId The delivery person the order must be assigned to now, or null if unassigned
+     * @param next The status to set, which may equal the expected one
+     * @return true if the order was assigned, false if its status or assignment changed meanwhile
+     * @throws SQLException If a database error occurs
+     */
+    public boolean assignDeliveryPerson(int orderId, int deliveryPersonId, OrderStatus expected,
+            Integer expectedDeliveryPersonId, OrderStatus next) throws SQLException {
+        // <=> also matches when both sides are NULL
+        String sql = "UPDATE orders SET assigned_to_user_id = ?, delivery_person_id = ?, " +
+                     "assigned_at = CURRENT_TIMESTAMP, order_status = ? " +
+                     "WHERE id = ? AND order_status = ? AND assigned_to_user_id <=> ?";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
+            
+            stmt.setInt(1, deliveryPersonId);
+            stmt.setInt(2, deliveryPersonId);
+            stmt.setString(3, next.name());
+            stmt.setInt(4, orderId);
+            stmt.setString(5, expected.name());
+            if (expectedDeliveryPersonId != null) {
+                stmt.setInt(6, expectedDeliveryPersonId);
+            } else {
+                stmt.setNull(6, Types.INTEGER);
+            }
+            
+            return stmt.executeUpdate() == 1;
         }
     }
     
@@ -230,90 +367,165 @@ public class OrderDAO {
         String sql = "DELETE FROM orders WHERE id = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             
             stmt.setInt(1, id);
             
             int affectedRows = stmt.executeUpdate();
             return affectedRows > 0;
         }
-    }    /**
-     * Assigns a delivery person to an order
+    }
+
+    /**
+     * Gets all orders assigned to a specific delivery person
      * 
-     * @param orderId The ID of the order
-     * @param deliveryPersonId The ID of the delivery person
-     * @return true if the assignment was successful, false otherwise
+     * @param deliveryPersonId The delivery person ID
+     * @return List of orders assigned to the delivery person
      * @throws SQLException If a database error occurs
      */
-    public boolean assignDeliveryPerson(int orderId, int deliveryPersonId) throws SQLException {
-        String sql = "UPDATE orders SET assigned_to_user_id = ?, delivery_person_id = ?, assigned_at = CURRENT_TIMESTAMP " +
-                    "WHERE id = ?";
+    public List<Order> findByDeliveryPersonId(int deliveryPersonId) throws SQLException {
+        String sql = "SELECT * FROM orders WHERE assigned_to_user_id = ? ORDER BY created_at DESC";
+        List<Order> orders = new ArrayList<>();
         
         try (Connection conn = DatabaseConnection.getConnection();
-            PreparedStatement stmt = conn.prepareStatement(sql)) {
+            PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             
             stmt.setInt(1, deliveryPersonId);
-            stmt.setInt(2, deliveryPersonId);
-            stmt.setInt(3, orderId);
             
-            int affectedRows = stmt.executeUpdate();
-            return affectedRows > 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Order order = mapResultSetToOrder(rs);
+                    orders.add(order);
+                }
+            }
         }
+        
+        // Load the items of all orders in one batch
+        attachOrderItems(orders);
+        
+        return orders;
     }
-
+    
     /**
-     * Marks an order as delivered
+     * Gets the most recent finished (delivered or cancelled) orders of a delivery person.
+     * Without items each order still carries its number of items.
      * 
-     * @param orderId The ID of the order
-     * @return true if the update was successful, false otherwise
+     * @param deliveryPersonId The delivery person ID
+     * @param limit The maximum number of orders to return
+     * @param plan What to load of each order
+     * @return List of finished orders, newest first
      * @throws SQLException If a database error occurs
      */
-    public boolean markOrderDelivered(int orderId) throws SQLException {
-        String sql = "UPDATE orders SET order_status = 'DELIVERED', delivered_at = CURRENT_TIMESTAMP " +
-                    "WHERE id = ?";
+    public List<Order> findFinishedByDeliveryPersonId(int deliveryPersonId, int limit, OrderFetchPlan plan) 
+            throws SQLException {
+        String itemCount = plan.includesItems() ? "" 
+                : ", (SELECT COUNT(*) FROM order_items oi WHERE oi.order_id = orders.id) AS item_count";
+        String sql = "SELECT " + plan.getColumns() + itemCount + " FROM orders WHERE assigned_to_user_id = ? " +
+                     "AND order_status IN ('DELIVERED', 'CANCELLED') ORDER BY created_at DESC LIMIT ?";
+        List<Order> orders = new ArrayList<>();
         
         try (Connection conn = DatabaseConnection.getConnection();
-            PreparedStatement stmt = conn.prepareStatement(sql)) {
+            PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             
-            stmt.setInt(1, orderId);
+            stmt.setInt(1, deliveryPersonId);
+            stmt.setInt(2, limit);
             
-            int affectedRows = stmt.executeUpdate();
-            return affectedRows > 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Order order = mapResultSetToOrder(rs, plan);
+                    if (!plan.includesItems()) {
+                        order.setItemCount(rs.getInt("item_count"));
+                    }
+                    orders.add(order);
+                }
+            }
+        }
+        
+        if (plan.includesItems()) {
+            attachOrderItems(orders);
         }
+        return orders;
     }
-
+    
     /**
-     * Gets all orders assigned to a specific delivery person
+     * Gets READY orders that no delivery person has been assigned to yet
      * 
-     * @param deliveryPersonId The delivery person ID
-     * @return List of orders assigned to the delivery person
+     * @param limit The maximum number of orders to return
+     * @return List of orders, oldest first
      * @throws SQLException If a database error occurs
      */
-    public List<Order> findByDeliveryPersonId(int deliveryPersonId) throws SQLException {
-        String sql = "SELECT * FROM orders WHERE assigned_to_user_id = ? ORDER BY created_at DESC";
+    public List<Order> findReadyUnassigned(int limit) throws SQLException {
+        String sql = "SELECT * FROM orders WHERE order_status = 'READY' " +
+                     "AND assigned_to_user_id IS NULL AND delivery_person_id IS NULL " +
+                     "ORDER BY created_at, id LIMIT ?";
         List<Order> orders = new ArrayList<>();
         
         try (Connection conn = DatabaseConnection.getConnection();
-            PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             
-            stmt.setInt(1, deliveryPersonId);
+            stmt.setInt(1, limit);
             
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    Order order = mapResultSetToOrder(rs);
-                    orders.add(order);
+                    orders.add(mapResultSetToOrder(rs));
                 }
             }
         }
+        return orders;
+    }
+    
+    /**
+     * Assigns a READY order to a delivery person and sends it out for delivery, in
+     * one conditional update. Nothing changes if the order has meanwhile been
+     * assigned, by an admin or another node, or has left the READY status.
+     * 
+     * @param orderId The ID of the order
+     * @param deliveryPersonId The ID of the delivery person
+     * @return true if this call made the assignment
+     * @throws SQLException If a database error occurs
+     */
+    public boolean assignReadyOrder(int orderId, int deliveryPersonId) throws SQLException {
+        String sql = "UPDATE orders SET assigned_to_user_id = ?, delivery_person_id = ?, " +
+                     "assigned_at = CURRENT_TIMESTAMP, order_status = 'OUT_FOR_DELIVERY' " +
+                     "WHERE id = ? AND order_status = 'READY' " +
+                     "AND assigned_to_user_id IS NULL AND delivery_person_id IS NULL";
         
-        // For each order, load its items
-        for (Order order : orders) {
-            List<OrderItem> items = orderItemDAO.findByOrderId(order.getId());
-            order.setOrderItems(items);
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
+            
+            stmt.setInt(1, deliveryPersonId);
+            stmt.setInt(2, deliveryPersonId);
+            stmt.setInt(3, orderId);
+            
+            return stmt.executeUpdate() == 1;
         }
+    }
+    
+    /**
+     * Gets every order that is assigned to a delivery person and not yet delivered or cancelled
+     * 
+     * @return List of active assigned orders, oldest first
+     * @throws SQLException If a database error occurs
+     */
+    public List<Order> findActiveAssignments() throws SQLException {
+        String sql = "SELECT * FROM orders WHERE assigned_to_user_id IS NOT NULL " +
+                     "AND order_status NOT IN ('DELIVERED', 'CANCELLED') ORDER BY created_at";
+        List<Order> orders = new ArrayList<>();
         
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            
+            while (rs.next()) {
+                orders.add(mapResultSetToOrder(rs));
+            }
+        }
+        
+        attachOrderItems(orders);
         return orders;
-    }    /**
+    }
+    
+    /**
      * Updates an order
      * 
      * @param order The order to update
@@ -326,7 +538,7 @@ public class OrderDAO {
                          "total_amount = ?, order_status = ?, delivery_person_id = ?, assigned_to_user_id = ? WHERE id = ?";
             
             try (Connection conn = DatabaseConnection.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                 PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
                 
                 stmt.setInt(1, order.getUserId());
                 stmt.setString(2, order.getDeliveryAddress());
@@ -362,7 +574,7 @@ public class OrderDAO {
                                "total_amount = ?, order_status = ?, assigned_to_user_id = ? WHERE id = ?";
             
             try (Connection conn = DatabaseConnection.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(fallbackSql)) {
+                 PreparedStatement stmt = StatementRegistry.prepare(conn, fallbackSql)) {
                 
                 stmt.setInt(1, order.getUserId());
                 stmt.setString(2, order.getDeliveryAddress());
@@ -396,7 +608,7 @@ public class OrderDAO {
         String sql = "SELECT * FROM orders WHERE user_id = ? ORDER BY created_at DESC LIMIT 1";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             
             stmt.setInt(1, userId);
             
@@ -422,7 +634,7 @@ public class OrderDAO {
         List<Order> orders = new ArrayList<>();
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             
             stmt.setInt(1, limit);
             
@@ -434,11 +646,8 @@ public class OrderDAO {
             }
         }
         
-        // For each order, load its items
-        for (Order order : orders) {
-            List<OrderItem> items = orderItemDAO.findByOrderId(order.getId());
-            order.setOrderItems(items);
-        }
+        // Load the items of all orders in one batch
+        attachOrderItems(orders);
         
         return orders;
     }
@@ -475,7 +684,7 @@ public class OrderDAO {
         String sql = "SELECT COUNT(*) FROM orders WHERE order_status = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             
             stmt.setString(1, status);
             
@@ -547,7 +756,7 @@ public class OrderDAO {
                        "AND order_status != 'CANCELLED'";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query);
+             PreparedStatement stmt = StatementRegistry.prepare(conn, query);
              ResultSet rs = stmt.executeQuery()) {
             
             if (rs.next()) {
@@ -555,7 +764,116 @@ public class OrderDAO {
             }
             return BigDecimal.ZERO;
         }
-    }    // Update mapResultSetToOrder to include new fields - FIXED VERSION with error handling
+    }
+    
+    /**
+     * Loads the order status histogram and the total, today's and this week's revenue
+     * in a single scan of the orders table
+     * 
+     * @param stats The statistics object to fill in
+     * @throws SQLException If a database error occurs
+     */
+    public void loadDashboardStats(DashboardStats stats) throws SQLException {
+        String weekStart = "DATE_SUB(CURDATE(), INTERVAL WEEKDAY(CURDATE()) DAY)";
+        String sql = "SELECT COUNT(*) AS total_orders, " +
+                     "COALESCE(SUM(CASE WHEN order_status = 'PLACED' THEN 1 ELSE 0 END), 0) AS placed, " +
+                     "COALESCE(SUM(CASE WHEN order_status = 'PREPARING' THEN 1 ELSE 0 END), 0) AS preparing, " +
+                     "COALESCE(SUM(CASE WHEN order_status = 'READY' THEN 1 ELSE 0 END), 0) AS ready, " +
+                     "COALESCE(SUM(CASE WHEN order_status = 'OUT_FOR_DELIVERY' THEN 1 ELSE 0 END), 0) AS out_for_delivery, " +
+                     "COALESCE(SUM(CASE WHEN order_status = 'DELIVERED' THEN 1 ELSE 0 END), 0) AS delivered, " +
+                     "COALESCE(SUM(CASE WHEN order_status = 'CANCELLED' THEN 1 ELSE 0 END), 0) AS cancelled, " +
+                     "COALESCE(SUM(CASE WHEN order_status != 'CANCELLED' THEN total_amount END), 0) AS total_revenue, " +
+                     "COALESCE(SUM(CASE WHEN order_status != 'CANCELLED' " +
+                     "AND created_at >= CURDATE() AND created_at < CURDATE() + INTERVAL 1 DAY " +
+                     "THEN total_amount END), 0) AS today_revenue, " +
+                     "COALESCE(SUM(CASE WHEN order_status != 'CANCELLED' " +
+                     "AND created_at >= " + weekStart + " AND created_at < " + weekStart + " + INTERVAL 7 DAY " +
+                     "THEN total_amount END), 0) AS weekly_revenue " +
+                     "FROM orders";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            
+            if (rs.next()) {
+                stats.setTotalOrders(rs.getInt("total_orders"));
+                stats.setPendingOrders(rs.getInt("placed"));
+                stats.setPreparingOrders(rs.getInt("preparing"));
+                stats.setReadyOrders(rs.getInt("ready"));
+                stats.setActiveDeliveries(rs.getInt("out_for_delivery"));
+                stats.setCompletedOrders(rs.getInt("delivered"));
+                stats.setCancelledOrders(rs.getInt("cancelled"));
+                stats.setTotalRevenue(rs.getBigDecimal("total_revenue"));
+                stats.setTodayRevenue(rs.getBigDecimal("today_revenue"));
+                stats.setWeeklyRevenue(rs.getBigDecimal("weekly_revenue"));
+            }
+        }
+    }
+    
+    /**
+     * Sums the revenue of non-cancelled orders per calendar day, for orders created
+     * at or after the given time. Days are taken from the application's clock so they
+     * line up with how the live dashboard counters bucket new orders.
+     * 
+     * @param from The earliest creation time to include
+     * @return Map of day to revenue; days without revenue are absent
+     * @throws SQLException If a database error occurs
+     */
+    public Map<LocalDate, BigDecimal> sumRevenueByDaySince(Timestamp from) throws SQLException {
+        String sql = "SELECT created_at, total_amount FROM orders " +
+                     "WHERE created_at >= ? AND order_status != 'CANCELLED'";
+        Map<LocalDate, BigDecimal> revenueByDay = new HashMap<>();
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
+            
+            stmt.setTimestamp(1, from);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Timestamp createdAt = rs.getTimestamp("created_at");
+                    BigDecimal amount = rs.getBigDecimal("total_amount");
+                    if (createdAt != null && amount != null) {
+                        revenueByDay.merge(createdAt.toLocalDateTime().toLocalDate(), amount, BigDecimal::add);
+                    }
+                }
+            }
+        }
+        return revenueByDay;
+    }
+    
+    /**
+     * Maps a row selected with the columns of the given fetch plan
+     */
+    private Order mapResultSetToOrder(ResultSet rs, OrderFetchPlan plan) throws SQLException {
+        return plan == OrderFetchPlan.HEADER ? mapResultSetToOrderHeader(rs) : mapResultSetToOrder(rs);
+    }
+    
+    /**
+     * Maps a row selected with the {@link OrderFetchPlan#HEADER} columns
+     */
+    private Order mapResultSetToOrderHeader(ResultSet rs) throws SQLException {
+        Order order = new Order();
+        order.setId(rs.getInt("id"));
+        order.setUserId(rs.getInt("user_id"));
+        order.setTotalAmount(rs.getBigDecimal("total_amount"));
+        order.setOrderStatus(rs.getString("order_status"));
+        order.setCreatedAt(rs.getTimestamp("created_at"));
+        order.setAssignedAt(rs.getTimestamp("assigned_at"));
+        order.setDeliveredAt(rs.getTimestamp("delivered_at"));
+        
+        int assignedToUserId = rs.getInt("assigned_to_user_id");
+        if (!rs.wasNull()) {
+            order.setAssignedToUserId(assignedToUserId);
+        }
+        int deliveryPersonId = rs.getInt("delivery_person_id");
+        if (!rs.wasNull()) {
+            order.setDeliveryPersonId(deliveryPersonId);
+        }
+        return order;
+    }
+    
+    // Update mapResultSetToOrder to include new fields - FIXED VERSION with error handling
     private Order mapResultSetToOrder(ResultSet rs) throws SQLException {
         Order order = new Order();
         order.setId(rs.getInt("id"));
@@ -603,6 +921,30 @@ public class OrderDAO {
         
         return order;
     }
+    /**
+     * Loads the items (with pizzas, categories and toppings) of the given orders
+     * using a fixed number of set-based queries
+     * 
+     * @param orders The orders to populate
+     * @throws SQLException If a database error occurs
+     */
+    private void attachOrderItems(List<Order> orders) throws SQLException {
+        if (orders.isEmpty()) {
+            return;
+        }
+        
+        List<Integer> orderIds = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            orderIds.add(order.getId());
+        }
+        
+        Map<Integer, List<OrderItem>> itemsByOrder = orderItemDAO.findByOrderIds(orderIds);
+        for (Order order : orders) {
+            List<OrderItem> items = itemsByOrder.get(order.getId());
+            order.setOrderItems(items != null ? items : new ArrayList<>());
+        }
+    }
+    
     /**
      * Closes database resources safely
      */
@@ -616,6 +958,36 @@ public class OrderDAO {
         }
     }
 
+    /**
+     * Counts the active deliveries of every delivery person in one query. An order
+     * counts once for each rider named in delivery_person_id or assigned_to_user_id,
+     * like {@link #countActiveDeliveriesByPerson}. Each half of the union is read
+     * from the (rider column, order_status) index alone.
+     * 
+     * @return Map of delivery person ID to active deliveries; riders without any are absent
+     * @throws SQLException If a database error occurs
+     */
+    public Map<Integer, Integer> countActiveDeliveriesByAllPersons() throws SQLException {
+        String sql = "SELECT rider_id, COUNT(*) AS active FROM (" +
+                     "SELECT id, delivery_person_id AS rider_id FROM orders " +
+                     "WHERE delivery_person_id IS NOT NULL AND order_status IN " + ACTIVE_DELIVERY_STATUSES +
+                     " UNION " +
+                     "SELECT id, assigned_to_user_id FROM orders " +
+                     "WHERE assigned_to_user_id IS NOT NULL AND order_status IN " + ACTIVE_DELIVERY_STATUSES +
+                     ") assigned GROUP BY rider_id";
+        Map<Integer, Integer> counts = new HashMap<>();
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            while (rs.next()) {
+                counts.put(rs.getInt("rider_id"), rs.getInt("active"));
+            }
+        }
+        return counts;
+    }
+
     /**
      * Count active deliveries assigned to a delivery person
      * 
@@ -626,10 +998,10 @@ public class OrderDAO {
     public int countActiveDeliveriesByPerson(int deliveryPersonId) throws SQLException {
         String sql = "SELECT COUNT(*) FROM orders WHERE " +
                      "(delivery_person_id = ? OR assigned_to_user_id = ?) AND " +
-                     "order_status IN ('PLACED', 'PREPARING', 'READY', 'OUT_FOR_DELIVERY')";
+                     "order_status IN " + ACTIVE_DELIVERY_STATUSES;
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             
             stmt.setInt(1, deliveryPersonId);
             stmt.setInt(2, deliveryPersonId); // Try both columns
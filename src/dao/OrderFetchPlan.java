@@ -0,0 +1,50 @@
+package dao;
+
+/**
+ * How much of an order {@link OrderDAO} loads. Callers that only check or change
+ * an order's status should use {@link #HEADER}, so no address text, items or
+ * toppings are read.
+ */
+public enum OrderFetchPlan {
+
+    /**
+     * ID, customer, status, delivery person, timestamps and total only. The
+     * delivery address and contact number stay null and the item list empty.
+     */
+    HEADER("id, user_id, order_status, assigned_to_user_id, delivery_person_id, "
+            + "created_at, assigned_at, delivered_at, total_amount"),
+
+    /**
+     * The whole order row, without the items
+     */
+    ROW("*"),
+
+    /**
+     * The whole order row with its items, pizzas and toppings
+     */
+    WITH_ITEMS("*");
+
+    private final String columns;
+
+    OrderFetchPlan(String columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * Gets the select list of the orders table for this plan
+     *
+     * @return The columns, comma separated
+     */
+    String getColumns() {
+        return columns;
+    }
+
+    /**
+     * Checks whether the order items are loaded
+     *
+     * @return true for {@link #WITH_ITEMS}
+     */
+    public boolean includesItems() {
+        return this == WITH_ITEMS;
+    }
+}
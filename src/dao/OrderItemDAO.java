@@ -7,7 +7,11 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import database.DatabaseConnection;
 import model.OrderItem;
@@ -40,51 +44,72 @@ public class OrderItemDAO {
         }
         
         try {
-            // First, insert the order item
-            String sql = "INSERT INTO order_items (order_id, pizza_id, quantity, price) " +
-                         "VALUES (?, ?, ?, ?)";
-            
-            PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-            stmt.setInt(1, item.getOrderId());
-            stmt.setInt(2, item.getPizzaId());
-            stmt.setInt(3, item.getQuantity());
-            stmt.setBigDecimal(4, item.getPrice());
-            
-            int affectedRows = stmt.executeUpdate();
-            
-            if (affectedRows == 0) {
-                throw new SQLException("Creating order item failed, no rows affected.");
+            createOrderItems(conn, Collections.singletonList(item));
+            return item;
+        } finally {
+            // Only close the connection if we created it
+            if (closeConnection && conn != null) {
+                conn.close();
             }
+        }
+    }
+    
+    /**
+     * Creates order items and their toppings using one batched insert for the items
+     * and one for all of their toppings. With rewriteBatchedStatements enabled on the
+     * driver each batch is sent as a single multi-row INSERT.
+     * 
+     * @param conn The database connection, owned by the caller (for transaction support)
+     * @param items The order items to create; their IDs are populated
+     * @throws SQLException If a database error occurs
+     */
+    public void createOrderItems(Connection conn, List<OrderItem> items) throws SQLException {
+        if (items.isEmpty()) {
+            return;
+        }
+        
+        String sql = "INSERT INTO order_items (order_id, pizza_id, quantity, price) " +
+                     "VALUES (?, ?, ?, ?)";
+        
+        try (PreparedStatement stmt = StatementRegistry.prepare(conn, sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (OrderItem item : items) {
+                stmt.setInt(1, item.getOrderId());
+                stmt.setInt(2, item.getPizzaId());
+                stmt.setInt(3, item.getQuantity());
+                stmt.setBigDecimal(4, item.getPrice());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
             
-            // Get the generated item ID
+            // Generated keys come back in the order the rows were added
             try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    int itemId = generatedKeys.getInt(1);
-                    item.setId(itemId);
-                    
-                    // If there are toppings, insert them
-                    if (item.getToppings() != null && !item.getToppings().isEmpty()) {
-                        for (Topping topping : item.getToppings()) {
-                            String toppingSql = "INSERT INTO order_item_toppings (order_item_id, topping_id) " +
-                                               "VALUES (?, ?)";
-                            
-                            try (PreparedStatement toppingStmt = conn.prepareStatement(toppingSql)) {
-                                toppingStmt.setInt(1, itemId);
-                                toppingStmt.setInt(2, topping.getId());
-                                toppingStmt.executeUpdate();
-                            }
-                        }
+                for (OrderItem item : items) {
+                    if (!generatedKeys.next()) {
+                        throw new SQLException("Creating order item failed, no ID obtained.");
                     }
-                    
-                    return item;
-                } else {
-                    throw new SQLException("Creating order item failed, no ID obtained.");
+                    item.setId(generatedKeys.getInt(1));
                 }
             }
-        } finally {
-            // Only close the connection if we created it
-            if (closeConnection && conn != null) {
-                conn.close();
+        }
+        
+        String toppingSql = "INSERT INTO order_item_toppings (order_item_id, topping_id) " +
+                            "VALUES (?, ?)";
+        
+        try (PreparedStatement toppingStmt = StatementRegistry.prepare(conn, toppingSql)) {
+            int toppingRows = 0;
+            for (OrderItem item : items) {
+                if (item.getToppings() == null) {
+                    continue;
+                }
+                for (Topping topping : item.getToppings()) {
+                    toppingStmt.setInt(1, item.getId());
+                    toppingStmt.setInt(2, topping.getId());
+                    toppingStmt.addBatch();
+                    toppingRows++;
+                }
+            }
+            if (toppingRows > 0) {
+                toppingStmt.executeBatch();
             }
         }
     }
@@ -111,7 +136,7 @@ public class OrderItemDAO {
         String sql = "SELECT * FROM order_items WHERE id = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             
             stmt.setInt(1, id);
             
@@ -146,7 +171,7 @@ public class OrderItemDAO {
         List<OrderItem> items = new ArrayList<>();
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             
             stmt.setInt(1, orderId);
             
@@ -168,6 +193,80 @@ public class OrderItemDAO {
         return items;
     }
     
+    /**
+     * Gets the items of several orders at once. Items, pizzas (with categories) and
+     * toppings are each loaded with one set-based query per chunk of IDs instead of
+     * one query per order and item.
+     * 
+     * @param orderIds The order IDs to find items for
+     * @return Map of order ID to its items; orders without items are absent
+     * @throws SQLException If a database error occurs
+     */
+    public Map<Integer, List<OrderItem>> findByOrderIds(Collection<Integer> orderIds) throws SQLException {
+        Map<Integer, List<OrderItem>> itemsByOrder = new HashMap<>();
+        Map<Integer, OrderItem> itemsById = new HashMap<>();
+        List<Integer> pizzaIds = new ArrayList<>();
+        
+        for (List<Integer> chunk : SqlUtils.partition(orderIds)) {
+            String sql = "SELECT * FROM order_items WHERE order_id IN (" + 
+                         SqlUtils.placeholders(chunk.size()) + ") ORDER BY order_id, id";
+            
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
+                
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setInt(i + 1, chunk.get(i));
+                }
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        OrderItem item = mapResultSetToOrderItem(rs);
+                        itemsByOrder.computeIfAbsent(item.getOrderId(), k -> new ArrayList<>()).add(item);
+                        itemsById.put(item.getId(), item);
+                        pizzaIds.add(item.getPizzaId());
+                    }
+                }
+            }
+        }
+        
+        if (itemsById.isEmpty()) {
+            return itemsByOrder;
+        }
+        
+        // Attach pizzas
+        Map<Integer, Pizza> pizzas = pizzaDAO.findByIds(pizzaIds);
+        for (OrderItem item : itemsById.values()) {
+            item.setPizza(pizzas.get(item.getPizzaId()));
+        }
+        
+        // Attach toppings
+        for (List<Integer> chunk : SqlUtils.partition(itemsById.keySet())) {
+            String sql = "SELECT oit.order_item_id, t.* FROM order_item_toppings oit " +
+                         "JOIN toppings t ON t.id = oit.topping_id " +
+                         "WHERE oit.order_item_id IN (" + SqlUtils.placeholders(chunk.size()) + ") " +
+                         "ORDER BY oit.id";
+            
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
+                
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setInt(i + 1, chunk.get(i));
+                }
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        OrderItem item = itemsById.get(rs.getInt("order_item_id"));
+                        if (item != null) {
+                            item.addTopping(mapResultSetToTopping(rs));
+                        }
+                    }
+                }
+            }
+        }
+        
+        return itemsByOrder;
+    }
+    
     /**
      * Updates an existing order item in the database
      * 
@@ -182,7 +281,7 @@ public class OrderItemDAO {
         String sql = "UPDATE order_items SET quantity = ?, price = ? WHERE id = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             
             stmt.setInt(1, item.getQuantity());
             stmt.setBigDecimal(2, item.getPrice());
@@ -210,14 +309,14 @@ public class OrderItemDAO {
             
             try {
                 // Delete toppings
-                try (PreparedStatement stmt = conn.prepareStatement(deleteToppingsSql)) {
+                try (PreparedStatement stmt = StatementRegistry.prepare(conn, deleteToppingsSql)) {
                     stmt.setInt(1, id);
                     stmt.executeUpdate();
                 }
                 
                 // Delete the order item
                 String deleteItemSql = "DELETE FROM order_items WHERE id = ?";
-                try (PreparedStatement stmt = conn.prepareStatement(deleteItemSql)) {
+                try (PreparedStatement stmt = StatementRegistry.prepare(conn, deleteItemSql)) {
                     stmt.setInt(1, id);
                     int affectedRows = stmt.executeUpdate();
                     
@@ -248,19 +347,14 @@ public class OrderItemDAO {
                      "WHERE oit.order_item_id = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             
             stmt.setInt(1, item.getId());
             
             try (ResultSet rs = stmt.executeQuery()) {
                 List<Topping> toppings = new ArrayList<>();
                 while (rs.next()) {
-                    Topping topping = new Topping();
-                    topping.setId(rs.getInt("id"));
-                    topping.setName(rs.getString("name"));
-                    topping.setPrice(rs.getBigDecimal("price"));
-                    topping.setVegetarian(rs.getBoolean("is_vegetarian"));
-                    toppings.add(topping);
+                    toppings.add(mapResultSetToTopping(rs));
                 }
                 item.setToppings(toppings);
             }
@@ -282,6 +376,21 @@ public class OrderItemDAO {
         item.setQuantity(rs.getInt("quantity"));
         item.setPrice(rs.getBigDecimal("price"));
         return item;
+    }
+    /**
+     * Helper method to map a ResultSet row to a Topping object
+     * 
+     * @param rs The ResultSet positioned at the row to map
+     * @return The mapped Topping object
+     * @throws SQLException If a database error occurs
+     */
+    private Topping mapResultSetToTopping(ResultSet rs) throws SQLException {
+        Topping topping = new Topping();
+        topping.setId(rs.getInt("id"));
+        topping.setName(rs.getString("name"));
+        topping.setPrice(rs.getBigDecimal("price"));
+        topping.setVegetarian(rs.getBoolean("is_vegetarian"));
+        return topping;
     }
         // Add this to a BaseDAO class or every DAO class
     /**
@@ -297,63 +406,15 @@ public class OrderItemDAO {
         }
     }
 
-    // Fix this method signature in OrderItemDAO.java
+    /**
+     * Creates a new order item using an existing connection
+     * 
+     * @param conn An existing database connection, or null to open one
+     * @param item The order item to create
+     * @return The created order item with ID populated
+     * @throws SQLException If a database error occurs
+     */
     public OrderItem createOrderItem(Connection conn, OrderItem item) throws SQLException {
-        boolean closeConnection = false;
-        
-        // If no connection was provided, create one
-        if (conn == null) {
-            conn = DatabaseConnection.getConnection();
-            closeConnection = true;
-        }
-        
-        try {
-            // First, insert the order item
-            String sql = "INSERT INTO order_items (order_id, pizza_id, quantity, price) " +
-                         "VALUES (?, ?, ?, ?)";
-            
-            PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-            stmt.setInt(1, item.getOrderId());
-            stmt.setInt(2, item.getPizzaId());
-            stmt.setInt(3, item.getQuantity());
-            stmt.setBigDecimal(4, item.getPrice());
-            
-            int affectedRows = stmt.executeUpdate();
-            
-            if (affectedRows == 0) {
-                throw new SQLException("Creating order item failed, no rows affected.");
-            }
-            
-            // Get the generated item ID
-            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    int itemId = generatedKeys.getInt(1);
-                    item.setId(itemId);
-                    
-                    // If there are toppings, insert them
-                    if (item.getToppings() != null && !item.getToppings().isEmpty()) {
-                        for (Topping topping : item.getToppings()) {
-                            String toppingSql = "INSERT INTO order_item_toppings (order_item_id, topping_id) " +
-                                               "VALUES (?, ?)";
-                            
-                            try (PreparedStatement toppingStmt = conn.prepareStatement(toppingSql)) {
-                                toppingStmt.setInt(1, itemId);
-                                toppingStmt.setInt(2, topping.getId());
-                                toppingStmt.executeUpdate();
-                            }
-                        }
-                    }
-                    
-                    return item;
-                } else {
-                    throw new SQLException("Creating order item failed, no ID obtained.");
-                }
-            }
-        } finally {
-            // Only close the connection if we created it
-            if (closeConnection && conn != null) {
-                conn.close();
-            }
-        }
+        return createOrderItem(item, conn);
     }
 }
\ No newline at end of file
@@ -7,7 +7,10 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import database.DatabaseConnection;
 import model.Pizza;
@@ -33,7 +36,7 @@ public class PizzaDAO {
                      "is_vegetarian, is_available) VALUES (?, ?, ?, ?, ?, ?, ?)";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql, Statement.RETURN_GENERATED_KEYS)) {
             
             // Set parameters in the prepared statement
             stmt.setString(1, pizza.getName());
@@ -74,7 +77,7 @@ public class PizzaDAO {
         String sql = "SELECT * FROM pizzas WHERE id = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             
             stmt.setInt(1, id);
             
@@ -94,6 +97,44 @@ public class PizzaDAO {
         }
     }
     
+    /**
+     * Finds several pizzas at once, including their categories
+     * 
+     * @param ids The pizza IDs to load
+     * @return Map of pizza ID to pizza; IDs that don't exist are absent
+     * @throws SQLException If a database error occurs
+     */
+    public Map<Integer, Pizza> findByIds(Collection<Integer> ids) throws SQLException {
+        Map<Integer, Pizza> pizzas = new HashMap<>();
+        
+        for (List<Integer> chunk : SqlUtils.partition(ids)) {
+            String sql = "SELECT p.*, c.name AS category_name, c.description AS category_description " +
+                         "FROM pizzas p LEFT JOIN categories c ON c.id = p.category_id " +
+                         "WHERE p.id IN (" + SqlUtils.placeholders(chunk.size()) + ")";
+            
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
+                
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setInt(i + 1, chunk.get(i));
+                }
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Pizza pizza = mapResultSetToPizza(rs);
+                        if (rs.getString("category_name") != null) {
+                            pizza.setCategory(new Category(pizza.getCategoryId(),
+                                    rs.getString("category_name"), rs.getString("category_description")));
+                        }
+                        pizzas.put(pizza.getId(), pizza);
+                    }
+                }
+            }
+        }
+        
+        return pizzas;
+    }
+    
     /**
      * Gets all pizzas from the database
      * 
@@ -115,9 +156,7 @@ public class PizzaDAO {
         }
         
         // Load categories for all pizzas
-        for (Pizza pizza : pizzas) {
-            pizza.setCategory(categoryDAO.findById(pizza.getCategoryId()));
-        }
+        attachCategories(pizzas);
         
         return pizzas;
     }
@@ -134,7 +173,7 @@ public class PizzaDAO {
         List<Pizza> pizzas = new ArrayList<>();
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             
             stmt.setInt(1, categoryId);
             
@@ -176,9 +215,7 @@ public class PizzaDAO {
         }
         
         // Load categories for all pizzas
-        for (Pizza pizza : pizzas) {
-            pizza.setCategory(categoryDAO.findById(pizza.getCategoryId()));
-        }
+        attachCategories(pizzas);
         
         return pizzas;
     }
@@ -196,7 +233,7 @@ public class PizzaDAO {
                      "WHERE id = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             
             stmt.setString(1, pizza.getName());
             stmt.setString(2, pizza.getDescription());
@@ -223,7 +260,7 @@ public class PizzaDAO {
         String sql = "DELETE FROM pizzas WHERE id = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             
             stmt.setInt(1, id);
             
@@ -239,10 +276,10 @@ public class PizzaDAO {
      * @return The count of pizzas with the specified availability
      */
     public int countByAvailability(boolean available) throws SQLException {
-        String sql = "SELECT COUNT(*) FROM pizzas WHERE available = ?";
+        String sql = "SELECT COUNT(*) FROM pizzas WHERE is_available = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             
             stmt.setBoolean(1, available);
             
@@ -276,6 +313,27 @@ public class PizzaDAO {
         }
     }
     
+    /**
+     * Sets the category of each pizza, loading all categories with a single query
+     * 
+     * @param pizzas The pizzas to populate
+     * @throws SQLException If a database error occurs
+     */
+    private void attachCategories(List<Pizza> pizzas) throws SQLException {
+        if (pizzas.isEmpty()) {
+            return;
+        }
+        
+        Map<Integer, Category> categories = new HashMap<>();
+        for (Category category : categoryDAO.findAll()) {
+            categories.put(category.getId(), category);
+        }
+        
+        for (Pizza pizza : pizzas) {
+            pizza.setCategory(categories.get(pizza.getCategoryId()));
+        }
+    }
+    
     /**
      * Helper method to map a ResultSet row to a Pizza object
      * 
@@ -0,0 +1,77 @@
+package dao;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Helpers for building set-based (IN list) queries
+ */
+final class SqlUtils {
+
+    /**
+     * Maximum number of ids bound into a single IN list
+     */
+    static final int MAX_IN_LIST_SIZE = 1000;
+
+    /**
+     * The only IN list sizes ever used, ascending and ending with MAX_IN_LIST_SIZE.
+     * Every size is a different statement to the statement cache, so chunks are
+     * padded up to one of these instead of using their exact size.
+     */
+    private static final int[] IN_LIST_SIZES = { 8, 32, 128, MAX_IN_LIST_SIZE };
+
+    private SqlUtils() {
+    }
+
+    /**
+     * Builds a comma separated list of JDBC placeholders
+     *
+     * @param count The number of placeholders
+     * @return A string such as "?, ?, ?"
+     */
+    static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 3);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append('?');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Removes duplicate ids and splits them into chunks no larger than MAX_IN_LIST_SIZE.
+     * Each chunk is padded to the next of a few fixed sizes by repeating its last id,
+     * which does not change the result of an IN list, so only a handful of
+     * statements per query are ever prepared.
+     *
+     * @param ids The ids to split
+     * @return The chunks, in encounter order
+     */
+    static List<List<Integer>> partition(Collection<Integer> ids) {
+        List<Integer> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (int i = 0; i < distinct.size(); i += MAX_IN_LIST_SIZE) {
+            List<Integer> chunk = new ArrayList<>(distinct.subList(i, Math.min(i + MAX_IN_LIST_SIZE, distinct.size())));
+            Integer last = chunk.get(chunk.size() - 1);
+            int size = paddedSize(chunk.size());
+            while (chunk.size() < size) {
+                chunk.add(last);
+            }
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    private static int paddedSize(int count) {
+        for (int size : IN_LIST_SIZES) {
+            if (count <= size) {
+                return size;
+            }
+        }
+        return MAX_IN_LIST_SIZE;
+    }
+}
@@ -0,0 +1,151 @@
+package dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import database.DatabaseConnection;
+
+/**
+ * Prepares the statements of the DAOs and estimates how often the statement
+ * cache can serve them.
+ *
+ * The statements themselves are cached per physical connection by the driver
+ * (cachePrepStmts, with server-side prepared statements) or by the pool
+ * (db.pool.maxStatementsPerConnection), so a statement prepared again on the same
+ * connection is neither parsed by the driver nor sent to the server for another
+ * PREPARE. Neither reports its hits, so this class keeps a least recently used
+ * list of the SQL prepared on each physical connection, sized like that cache, and
+ * counts an estimated hit when the SQL is still in it. The estimate is only as
+ * good as the view of what was prepared: statements prepared without this class
+ * also take cache slots but are not seen, so every statement that can share a
+ * connection with the DAOs should be prepared here. Connections dropped by the
+ * pool are forgotten with them.
+ */
+public final class StatementRegistry {
+
+    private static final ReentrantLock lock = new ReentrantLock();
+
+    // Physical connection -> SQL prepared on it, least recently used first; guarded by lock
+    private static final Map<Connection, Map<String, Boolean>> preparedByConnection = new WeakHashMap<>();
+
+    // Metrics
+    private static final AtomicLong prepared = new AtomicLong();
+    private static final AtomicLong estimatedHits = new AtomicLong();
+    private static final AtomicLong uncacheable = new AtomicLong();
+
+    private StatementRegistry() {
+    }
+
+    /**
+     * Prepares a statement through the statement cache of the connection
+     *
+     * @param conn The connection, usually a pooled one
+     * @param sql The SQL statement
+     * @return The prepared statement, to be closed by the caller as usual
+     * @throws SQLException If a database error occurs
+     */
+    public static PreparedStatement prepare(Connection conn, String sql) throws SQLException {
+        record(conn, sql);
+        return conn.prepareStatement(sql);
+    }
+
+    /**
+     * Prepares a statement through the statement cache of the connection
+     *
+     * @param conn The connection, usually a pooled one
+     * @param sql The SQL statement
+     * @param autoGeneratedKeys Whether generated keys are returned, e.g. Statement.RETURN_GENERATED_KEYS
+     * @return The prepared statement, to be closed by the caller as usual
+     * @throws SQLException If a database error occurs
+     */
+    public static PreparedStatement prepare(Connection conn, String sql, int autoGeneratedKeys) throws SQLException {
+        // The driver caches statements by SQL alone, so count them the same way
+        record(conn, sql);
+        return conn.prepareStatement(sql, autoGeneratedKeys);
+    }
+
+    public static long getPreparedCount() {
+        return prepared.get();
+    }
+
+    /**
+     * Gets the number of prepares the statement cache most likely served
+     *
+     * @return The estimated number of cache hits
+     */
+    public static long getEstimatedHitCount() {
+        return estimatedHits.get();
+    }
+
+    /**
+     * Gets the number of statements too long for the driver's cache
+     *
+     * @return The number of uncached prepares
+     */
+    public static long getUncacheableCount() {
+        return uncacheable.get();
+    }
+
+    /**
+     * Gets the estimated share of prepares served from the statement cache
+     *
+     * @return The estimated hit rate between 0 and 1, or 0 before the first prepare
+     */
+    public static double getEstimatedHitRate() {
+        long total = prepared.get();
+        return total == 0 ? 0 : (double) estimatedHits.get() / total;
+    }
+
+    /**
+     * Gets the number of physical connections statements were prepared on
+     *
+     * @return The number of connections
+     */
+    public static int getConnectionCount() {
+        lock.lock();
+        try {
+            return preparedByConnection.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void record(Connection conn, String sql) throws SQLException {
+        prepared.incrementAndGet();
+        int cacheSize = DatabaseConnection.getStatementCacheSize();
+        if (cacheSize <= 0) {
+            return;
+        }
+        if (sql.length() > DatabaseConnection.getStatementCacheSqlLimit()) {
+            uncacheable.incrementAndGet();
+            return;
+        }
+
+        // The pool's proxy unwraps to the physical connection the cache belongs to
+        Connection physical = conn.isWrapperFor(Connection.class) ? conn.unwrap(Connection.class) : conn;
+        lock.lock();
+        try {
+            Map<String, Boolean> statements = preparedByConnection.get(physical);
+            if (statements == null) {
+                statements = new LinkedHashMap<String, Boolean>(64, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                        return size() > cacheSize;
+                    }
+                };
+                preparedByConnection.put(physical, statements);
+            }
+            if (statements.put(sql, Boolean.TRUE) != null) {
+                estimatedHits.incrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -25,7 +25,7 @@ public class ToppingDAO {
         String sql = "INSERT INTO toppings (name, price, is_vegetarian) VALUES (?, ?, ?)";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql, Statement.RETURN_GENERATED_KEYS)) {
             
             stmt.setString(1, topping.getName());
             stmt.setBigDecimal(2, topping.getPrice());
@@ -60,7 +60,7 @@ public class ToppingDAO {
         String sql = "SELECT * FROM toppings WHERE id = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             
             stmt.setInt(1, id);
             
@@ -129,7 +129,7 @@ public class ToppingDAO {
         String sql = "UPDATE toppings SET name = ?, price = ?, is_vegetarian = ? WHERE id = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             
             stmt.setString(1, topping.getName());
             stmt.setBigDecimal(2, topping.getPrice());
@@ -152,7 +152,7 @@ public class ToppingDAO {
         String sql = "DELETE FROM toppings WHERE id = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             
             stmt.setInt(1, id);
             
@@ -7,7 +7,10 @@ import java.sql.SQLException;
 import java.sql.Statement;
 // import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import database.DatabaseConnection;
 import model.User;
@@ -31,7 +34,7 @@ public class UserDAO {
         
         // Use try-with-resources to ensure connection and statement are closed
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql, Statement.RETURN_GENERATED_KEYS)) {
             
             // Set parameters in the prepared statement
             stmt.setString(1, user.getUsername());
@@ -72,7 +75,7 @@ public class UserDAO {
         String sql = "SELECT * FROM users WHERE id = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             
             stmt.setInt(1, id);
             
@@ -86,6 +89,38 @@ public class UserDAO {
         }
     }
     
+    /**
+     * Finds several users at once
+     * 
+     * @param ids The user IDs to load
+     * @return Map of user ID to user; IDs that don't exist are absent
+     * @throws SQLException If a database error occurs
+     */
+    public Map<Integer, User> findByIds(Collection<Integer> ids) throws SQLException {
+        Map<Integer, User> users = new HashMap<>();
+        
+        for (List<Integer> chunk : SqlUtils.partition(ids)) {
+            String sql = "SELECT * FROM users WHERE id IN (" + SqlUtils.placeholders(chunk.size()) + ")";
+            
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
+                
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setInt(i + 1, chunk.get(i));
+                }
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        User user = mapResultSetToUser(rs);
+                        users.put(user.getId(), user);
+                    }
+                }
+            }
+        }
+        
+        return users;
+    }
+    
     /**
      * Finds a user by their username
      * 
@@ -97,7 +132,7 @@ public class UserDAO {
         String sql = "SELECT * FROM users WHERE username = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             stmt.setString(1, username);
             
             try (ResultSet rs = stmt.executeQuery()) {
@@ -121,7 +156,7 @@ public class UserDAO {
         String sql = "SELECT * FROM users WHERE email = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             stmt.setString(1, email);
             
             try (ResultSet rs = stmt.executeQuery()) {
@@ -168,7 +203,7 @@ public class UserDAO {
                      "email = ?, phone = ?, role = ? WHERE id = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             
             stmt.setString(1, user.getUsername());
             stmt.setString(2, user.getPassword());
@@ -183,6 +218,30 @@ public class UserDAO {
         }
     }
 
+    /**
+     * Updates the profile fields of a user (full name, email and phone),
+     * leaving the username, password and role unchanged
+     * 
+     * @param user The user with the new profile
+     * @return true if the update was successful, false otherwise
+     * @throws SQLException If a database error occurs
+     */
+    public boolean updateProfile(User user) throws SQLException {
+        String sql = "UPDATE users SET full_name = ?, email = ?, phone = ? WHERE id = ?";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
+            
+            stmt.setString(1, user.getFullName());
+            stmt.setString(2, user.getEmail());
+            stmt.setString(3, user.getPhone());
+            stmt.setInt(4, user.getId());
+            
+            int affectedRows = stmt.executeUpdate();
+            return affectedRows > 0;
+        }
+    }
+
     /**
      * Deletes a user from the database
      * 
@@ -193,7 +252,7 @@ public class UserDAO {
     public boolean deleteUser(int userId) throws SQLException {
         String sql = "DELETE FROM users WHERE id = ?";
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             
             stmt.setInt(1, userId);
             
@@ -212,7 +271,7 @@ public class UserDAO {
     public int countByRole(String role) throws SQLException {
         String sql = "SELECT COUNT(*) FROM users WHERE role = ?";
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             
             stmt.setString(1, role);
             
@@ -225,6 +284,26 @@ public class UserDAO {
         }
     }
     
+    /**
+     * Counts users per role with a single grouped query
+     * 
+     * @return Map of role to number of users; roles without users are absent
+     * @throws SQLException If a database error occurs
+     */
+    public Map<String, Integer> countGroupedByRole() throws SQLException {
+        String sql = "SELECT role, COUNT(*) FROM users GROUP BY role";
+        Map<String, Integer> counts = new HashMap<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            
+            while (rs.next()) {
+                counts.put(rs.getString(1), rs.getInt(2));
+            }
+        }
+        return counts;
+    }
+    
     /**
      * Counts all users
      * 
@@ -234,7 +313,7 @@ public class UserDAO {
     public int countAll() throws SQLException {
         String sql = "SELECT COUNT(*) FROM users";
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql);
              ResultSet rs = stmt.executeQuery()) {
             
             if (rs.next()) {
@@ -255,7 +334,7 @@ public class UserDAO {
         List<User> users = new ArrayList<>();
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             
             System.out.println("DEBUG: Finding users with role: " + role);
             stmt.setString(1, role);
@@ -288,7 +367,7 @@ public class UserDAO {
         String sql = "UPDATE users SET password = ? WHERE id = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
             
             stmt.setString(1, hashedPassword);
             stmt.setInt(2, userId);
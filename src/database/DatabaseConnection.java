@@ -1,185 +1,185 @@
 package database;
 
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.io.InputStream;
+import java.beans.PropertyVetoException;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.Properties;
+
+import javax.sql.DataSource;
+
+import com.mchange.v2.c3p0.ComboPooledDataSource;
+
+import util.AppConfig;
 
 /**
- * Handles database connections
+ * Handles database connections through a c3p0 connection pool
  */
 public class DatabaseConnection {
     
-    private static String URL;
-    private static String USER;
-    private static String PASSWORD;
-    private static boolean initialized = false;
-      private static boolean schemaVerified = false;
+    // Prepared statement caching in the driver (client parse info and server-side statements)
+    private static final boolean CACHE_PREP_STMTS = AppConfig.getBoolean("db.cachePrepStmts", true);
+    private static final boolean USE_SERVER_PREP_STMTS = AppConfig.getBoolean("db.useServerPrepStmts", true);
+    private static final int PREP_STMT_CACHE_SIZE = AppConfig.getInt("db.prepStmtCacheSize", 250);
+    private static final int PREP_STMT_CACHE_SQL_LIMIT = AppConfig.getInt("db.prepStmtCacheSqlLimit", 2048);
+    
+    // Statement objects cached by the pool itself; 0 leaves caching to the driver
+    private static final int MAX_STATEMENTS_PER_CONNECTION = AppConfig.getInt("db.pool.maxStatementsPerConnection", 0);
+    
+    private static volatile ComboPooledDataSource dataSource;
+    private static volatile boolean initialized = false;
+    
+    // Set for good by shutdown(), so a late caller cannot build a pool nobody closes
+    private static volatile boolean closed = false;
     
     static {
         initializeConnection();
     }
     
-    private static void initializeConnection() {
+    private static synchronized void initializeConnection() {
+        if (initialized || closed) {
+            return;
+        }
+        
         try {
-            // Load configuration properties
-            Properties props = new Properties();
-            boolean configLoaded = false;
+            System.out.println("DEBUG: Initializing database connection pool");
             
-            System.out.println("DEBUG: Initializing database connection");
+            // Load JDBC driver explicitly
+            String driver = AppConfig.getString("db.driver", "com.mysql.cj.jdbc.Driver");
+            Class.forName(driver);
+            System.out.println("MySQL JDBC driver loaded successfully");
             
-            // Try to load from classpath first
-            try (InputStream is = Thread.currentThread().getContextClassLoader().getResourceAsStream("config.properties")) {
-                if (is != null) {
-                    props.load(is);
-                    configLoaded = true;
-                    System.out.println("Loaded database config from classpath");
-                }
-            } catch (IOException e) {
-                System.out.println("Could not load config from classpath: " + e.getMessage());
-            }
+            ComboPooledDataSource pool = new ComboPooledDataSource();
+            pool.setDriverClass(driver);
+            pool.setJdbcUrl(AppConfig.getString("db.url", "jdbc:mysql://localhost:3306/pizza_delivery") + 
+                  "?useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC" +
+                  "&rewriteBatchedStatements=" + AppConfig.getBoolean("db.rewriteBatchedStatements", true) +
+                  "&cachePrepStmts=" + CACHE_PREP_STMTS +
+                  "&useServerPrepStmts=" + USE_SERVER_PREP_STMTS +
+                  "&prepStmtCacheSize=" + PREP_STMT_CACHE_SIZE +
+                  "&prepStmtCacheSqlLimit=" + PREP_STMT_CACHE_SQL_LIMIT);
+            pool.setUser(AppConfig.getString("db.user", null));
+            pool.setPassword(AppConfig.getString("db.password", null));
             
-            // Try from WEB-INF/classes
-            if (!configLoaded) {
-                String catalinaBase = System.getProperty("catalina.base");
-                if (catalinaBase != null) {
-                    String configPath = catalinaBase + "/webapps/PizzaDeliverySystem/WEB-INF/classes/config.properties";
-                    try (FileInputStream fis = new FileInputStream(configPath)) {
-                        props.load(fis);
-                        configLoaded = true;
-                        System.out.println("Loaded database config from: " + configPath);
-                    } catch (IOException e) {
-                        System.out.println("Could not load config from Tomcat: " + e.getMessage());
-                    }
-                }
-            }
+            // Pool sizing
+            pool.setMinPoolSize(AppConfig.getInt("db.pool.minSize", 5));
+            pool.setInitialPoolSize(AppConfig.getInt("db.pool.minSize", 5));
+            pool.setMaxPoolSize(AppConfig.getInt("db.pool.maxSize", 20));
+            pool.setAcquireIncrement(AppConfig.getInt("db.pool.acquireIncrement", 2));
             
-            // Last resort: try from config directory
-            if (!configLoaded) {
-                try (FileInputStream fis = new FileInputStream("config/config.properties")) {
-                    props.load(fis);
-                    configLoaded = true;
-                    System.out.println("Loaded database config from config directory");
-                } catch (IOException e) {
-                    System.out.println("Could not load config from config directory: " + e.getMessage());
-                }
-            }
+            // Idle eviction: shrink back to minSize once connections sit unused
+            pool.setMaxIdleTimeExcessConnections(AppConfig.getInt("db.pool.maxIdleSeconds", 300));
+            pool.setMaxConnectionAge(AppConfig.getInt("db.pool.maxAgeSeconds", 1800));
+            pool.setIdleConnectionTestPeriod(AppConfig.getInt("db.pool.idleTestSeconds", 60));
             
-            if (!configLoaded) {
-                throw new RuntimeException("Could not load database configuration from any location");
-            }
+            // Validation on borrow
+            pool.setPreferredTestQuery("SELECT 1");
+            pool.setTestConnectionOnCheckout(AppConfig.getBoolean("db.pool.testOnBorrow", true));
             
-            // Load JDBC driver explicitly
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            System.out.println("MySQL JDBC driver loaded successfully");
+            // Fail fast instead of blocking forever when the pool is exhausted
+            pool.setCheckoutTimeout(AppConfig.getInt("db.pool.acquireTimeoutMillis", 5000));
+            pool.setAcquireRetryAttempts(AppConfig.getInt("db.pool.acquireRetryAttempts", 3));
             
-            // Set connection properties
-            URL = props.getProperty("db.url") + 
-                  "?useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC";
-            USER = props.getProperty("db.user");
-            PASSWORD = props.getProperty("db.password");
+            // Statement cache of the pool, per physical connection
+            pool.setMaxStatementsPerConnection(MAX_STATEMENTS_PER_CONNECTION);
             
+            dataSource = pool;
             initialized = true;
             
             // Test connection
-            try (Connection testConn = getConnection()) {
+            try (Connection testConn = dataSource.getConnection()) {
                 System.out.println("Database connection test successful");
             }
-        } catch (Exception e) {
+        } catch (ClassNotFoundException | PropertyVetoException | SQLException | RuntimeException e) {
             System.err.println("Database initialization error: " + e.getMessage());
             e.printStackTrace();
         }
     }
-      /**
+    
+    /**
+     * Gets the pooled data source backing all connections
+     * 
+     * @return The data source, or null if initialization failed or the pool was shut down
+     */
+    public static DataSource getDataSource() {
+        if (!initialized && !closed) {
+            initializeConnection();
+        }
+        return dataSource;
+    }
+    /**
+     * Gets the number of prepared statements each connection keeps cached, by the
+     * pool if db.pool.maxStatementsPerConnection is set, otherwise by the driver
+     * 
+     * @return The cache size, or 0 if statements are not cached
+     */
+    public static int getStatementCacheSize() {
+        if (MAX_STATEMENTS_PER_CONNECTION > 0) {
+            return MAX_STATEMENTS_PER_CONNECTION;
+        }
+        return CACHE_PREP_STMTS ? PREP_STMT_CACHE_SIZE : 0;
+    }
+    
+    /**
+     * Gets the length of the longest SQL statement that is cached
+     * 
+     * @return The length in characters, or Integer.MAX_VALUE if the pool caches
+     *         statements of any length
+     */
+    public static int getStatementCacheSqlLimit() {
+        return MAX_STATEMENTS_PER_CONNECTION > 0 ? Integer.MAX_VALUE : PREP_STMT_CACHE_SQL_LIMIT;
+    }
+    
+    /**
+     * Gets the number of statements held in the pool's statement cache
+     * 
+     * @return The number of cached statements, or 0 if the pool does not cache them
+     */
+    public static int getPooledStatementCount() {
+        ComboPooledDataSource pool = dataSource;
+        if (pool == null || MAX_STATEMENTS_PER_CONNECTION <= 0) {
+            return 0;
+        }
+        try {
+            return pool.getStatementCacheNumStatementsAllUsers();
+        } catch (SQLException e) {
+            return 0;
+        }
+    }
+    
+    /**
      * Gets a database connection
      * 
      * @return A database connection
-     * @throws SQLException If a database error occurs
+     * @throws SQLException If a database error occurs or the pool was shut down
      */
     public static Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Database connection pool has been shut down");
+        }
         if (!initialized) {
             initializeConnection();
         }
         
-        // If schema has not been verified yet, verify it
-        if (!schemaVerified) {
-            try {
-                verifyDatabaseSchema();
-                schemaVerified = true;
-            } catch (Exception e) {
-                System.err.println("Warning: Could not verify database schema: " + e.getMessage());
-                e.printStackTrace();
-                // Continue without failing - we'll let the application try to run
-            }
+        ComboPooledDataSource pool = dataSource;
+        if (pool == null) {
+            throw new SQLException(closed ? "Database connection pool has been shut down"
+                    : "Database connection pool is not initialized");
         }
         
-        return DriverManager.getConnection(URL, USER, PASSWORD);
+        return pool.getConnection();
     }
     
     /**
-     * Verifies and fixes the database schema if needed
+     * Shuts down the database connections. Later calls to {@link #getConnection()}
+     * fail instead of creating a new pool.
      */
-    private static void verifyDatabaseSchema() {
-        try (Connection conn = DriverManager.getConnection(URL, USER, PASSWORD)) {
-            // Check if the orders table has the delivery_person_id column
-            boolean needsSchemaFix = false;
-            
-            try (java.sql.PreparedStatement stmt = conn.prepareStatement(
-                     "SELECT COUNT(*) FROM information_schema.columns " +
-                     "WHERE table_schema = 'pizza_delivery' AND " +
-                     "table_name = 'orders' AND column_name = 'delivery_person_id'")) {
-                
-                try (java.sql.ResultSet rs = stmt.executeQuery()) {
-                    if (rs.next() && rs.getInt(1) == 0) {
-                        needsSchemaFix = true;
-                    }
-                }
-            }
-            
-            if (needsSchemaFix) {
-                System.out.println("Database schema needs to be fixed. Applying schema updates...");
-                
-                // Execute the add column statement
-                try (java.sql.Statement stmt = conn.createStatement()) {
-                    stmt.execute("ALTER TABLE orders ADD COLUMN IF NOT EXISTS delivery_person_id INT NULL");
-                    stmt.execute("ALTER TABLE orders ADD COLUMN IF NOT EXISTS assigned_to_user_id INT NULL");
-                    stmt.execute("ALTER TABLE orders ADD COLUMN IF NOT EXISTS assigned_at TIMESTAMP NULL");
-                    stmt.execute("ALTER TABLE orders ADD COLUMN IF NOT EXISTS delivered_at TIMESTAMP NULL");
-                    
-                    // Add the foreign key constraints if possible
-                    try {
-                        stmt.execute("ALTER TABLE orders ADD CONSTRAINT fk_orders_delivery_person " +
-                                    "FOREIGN KEY (delivery_person_id) REFERENCES users(id)");
-                    } catch (SQLException e) {
-                        System.out.println("Note: Could not add foreign key for delivery_person_id: " + e.getMessage());
-                    }
-                    
-                    try {
-                        stmt.execute("ALTER TABLE orders ADD CONSTRAINT fk_orders_assigned_user " +
-                                    "FOREIGN KEY (assigned_to_user_id) REFERENCES users(id)");
-                    } catch (SQLException e) {
-                        System.out.println("Note: Could not add foreign key for assigned_to_user_id: " + e.getMessage());
-                    }
-                    
-                    System.out.println("Database schema updated successfully");
-                }
-            } else {
-                System.out.println("Database schema is up to date");
-            }
-        } catch (SQLException e) {
-            System.err.println("Error verifying database schema: " + e.getMessage());
-            e.printStackTrace();
+    public static synchronized void shutdown() {
+        closed = true;
+        if (dataSource != null) {
+            dataSource.close();
+            dataSource = null;
+            initialized = false;
         }
-    }
-    
-    /**
-     * Shuts down the database connections
-     */
-    public static void shutdown() {
-        // Code to close any connection pools or lingering connections
+        
         try {
             com.mysql.cj.jdbc.AbandonedConnectionCleanupThread.checkedShutdown();
         } catch (Exception e) {
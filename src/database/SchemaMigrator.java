@@ -0,0 +1,188 @@
+package database;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Applies the versioned SQL migrations in database/migrations at application startup.
+ *
+ * Applied versions are recorded in the schema_migrations table, so each migration
+ * runs once per database. A MySQL named lock keeps several application instances
+ * from migrating the same database at the same time.
+ */
+public class SchemaMigrator {
+
+    // Where the pom copies database/migrations on the classpath
+    private static final String MIGRATIONS_PATH = "db/migrations/";
+
+    // Migration files in the order they are applied. Append new files here.
+    private static final String[] MIGRATIONS = {
+        "V1__baseline.sql",
+        "V2__order_delivery_columns.sql",
+        "V3__order_list_indexes.sql",
+        "V4__notifications.sql",
+        "V5__session_state.sql",
+        "V6__rider_active_indexes.sql",
+        "V7__catalog_version.sql"
+    };
+
+    private static final String LOCK_NAME = "pizza_delivery.schema_migrations";
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+    // MySQL errors meaning a statement's change is already in place: table exists,
+    // duplicate column, duplicate key name, duplicate key, duplicate foreign key name
+    private static final Set<Integer> ALREADY_APPLIED_ERRORS =
+            new HashSet<>(Arrays.asList(1050, 1060, 1061, 1022, 1826));
+
+    private SchemaMigrator() {
+    }
+
+    /**
+     * Applies all pending migrations
+     *
+     * @throws SQLException If a migration fails or the migration lock cannot be obtained
+     */
+    public static void migrate() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            acquireLock(conn);
+            try {
+                createHistoryTable(conn);
+                Set<Integer> applied = findAppliedVersions(conn);
+
+                int count = 0;
+                for (String file : MIGRATIONS) {
+                    int version = parseVersion(file);
+                    if (!applied.contains(version)) {
+                        apply(conn, version, file);
+                        count++;
+                    }
+                }
+                System.out.println(count == 0
+                        ? "Database schema is up to date"
+                        : "Applied " + count + " database migration(s)");
+            } finally {
+                releaseLock(conn);
+            }
+        }
+    }
+
+    private static void apply(Connection conn, int version, String file) throws SQLException {
+        System.out.println("Applying database migration " + file);
+
+        // MySQL commits DDL implicitly, so each statement must be safe to re-run
+        // if a migration is interrupted part way
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : readStatements(file)) {
+                try {
+                    stmt.execute(sql);
+                } catch (SQLException e) {
+                    if (!ALREADY_APPLIED_ERRORS.contains(e.getErrorCode())) {
+                        throw new SQLException("Migration " + file + " failed on: " + sql, e);
+                    }
+                    System.out.println("Note: " + e.getMessage() + " (already applied)");
+                }
+            }
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO schema_migrations (version, script) VALUES (?, ?)")) {
+            stmt.setInt(1, version);
+            stmt.setString(2, file);
+            stmt.executeUpdate();
+        }
+    }
+
+    private static void createHistoryTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_migrations (" +
+                         "version INT PRIMARY KEY, " +
+                         "script VARCHAR(200) NOT NULL, " +
+                         "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        }
+    }
+
+    private static Set<Integer> findAppliedVersions(Connection conn) throws SQLException {
+        Set<Integer> versions = new HashSet<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version FROM schema_migrations")) {
+            while (rs.next()) {
+                versions.add(rs.getInt(1));
+            }
+        }
+        return versions;
+    }
+
+    private static void acquireLock(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Timed out waiting for the schema migration lock");
+                }
+            }
+        }
+    }
+
+    private static void releaseLock(Connection conn) {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.executeQuery().close();
+        } catch (SQLException e) {
+            System.err.println("Could not release schema migration lock: " + e.getMessage());
+        }
+    }
+
+    private static int parseVersion(String file) {
+        return Integer.parseInt(file.substring(1, file.indexOf("__")));
+    }
+
+    /**
+     * Reads a migration file and splits it into statements. Statements end with a
+     * semicolon at the end of a line; lines starting with -- are comments.
+     */
+    private static List<String> readStatements(String file) throws SQLException {
+        InputStream is = Thread.currentThread().getContextClassLoader()
+                .getResourceAsStream(MIGRATIONS_PATH + file);
+        if (is == null) {
+            throw new SQLException("Migration script not found on classpath: " + MIGRATIONS_PATH + file);
+        }
+
+        List<String> statements = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
+            StringBuilder current = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                    continue;
+                }
+                current.append(line).append('\n');
+                if (trimmed.endsWith(";")) {
+                    String sql = current.toString().trim();
+                    statements.add(sql.substring(0, sql.length() - 1));
+                    current.setLength(0);
+                }
+            }
+            if (current.toString().trim().length() > 0) {
+                statements.add(current.toString().trim());
+            }
+        } catch (IOException e) {
+            throw new SQLException("Could not read migration script " + file, e);
+        }
+        return statements;
+    }
+}
@@ -1,21 +1,69 @@
 package listeners;
 
+import java.sql.SQLException;
+
 import javax.servlet.ServletContextEvent;
 import javax.servlet.ServletContextListener;
 import javax.servlet.annotation.WebListener;
 
 import database.DatabaseConnection;
+import database.SchemaMigrator;
+import service.ActiveAssignmentIndex;
+import service.DispatchScheduler;
+import service.MenuCatalog;
+import service.OrderStatsCounter;
+import util.AppConfig;
+import util.AuditLogWriter;
+import util.PasswordHasher;
+import util.RequestExecutor;
+import util.SseHub;
 
 @WebListener
 public class AppContextListener implements ServletContextListener {
     
     @Override
     public void contextDestroyed(ServletContextEvent sce) {
+        DispatchScheduler.shutdown();
+        OrderStatsCounter.shutdown();
+        ActiveAssignmentIndex.shutdown();
+        MenuCatalog.shutdown();
+        SseHub.shutdown();
+        RequestExecutor.shutdown();
+        PasswordHasher.shutdown();
+        
+        // Flush queued audit records while the pool is still open
+        AuditLogWriter.shutdown();
         DatabaseConnection.shutdown();
     }
     
     @Override
     public void contextInitialized(ServletContextEvent sce) {
-        // Initialization code if needed
+        // Bring the schema up to date once, before any request is served
+        if (AppConfig.getBoolean("db.migrate", true)) {
+            try {
+                SchemaMigrator.migrate();
+            } catch (SQLException e) {
+                // Continue without failing - we'll let the application try to run
+                sce.getServletContext().log("Database migration failed", e);
+            }
+        }
+        
+        AuditLogWriter.start();
+        
+        // Seed the dashboard counters and keep correcting them against the database
+        OrderStatsCounter.startReconciliation(
+                AppConfig.getInt("dashboard.counters.reconcileSeconds", 300));
+        
+        // Load the riders' active assignments and pick up changes made outside the app
+        ActiveAssignmentIndex.startRefresh(
+                AppConfig.getInt("delivery.assignments.refreshSeconds", 300));
+        
+        // Reload the menu when another node changes it
+        MenuCatalog.startRefresh(AppConfig.getInt("menu.catalog.checkSeconds", 10));
+        
+        // Assign READY orders to the least loaded riders without waiting for an admin
+        if (AppConfig.getBoolean("dispatch.enabled", false)) {
+            DispatchScheduler.start(AppConfig.getInt("dispatch.intervalSeconds", 10));
+        }
     }
 }
\ No newline at end of file
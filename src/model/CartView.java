@@ -0,0 +1,145 @@
+package model;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A shopping cart resolved against the menu catalog for display and checkout.
+ *
+ * Built from the IDs in a {@link ShoppingCart}; items whose pizza is no longer
+ * on the menu are left out, as are toppings that no longer exist. Prices are
+ * worked out once when the view is built, and the cart caches the view until it
+ * or the menu changes.
+ */
+public class CartView {
+
+    private final long catalogVersion;
+    private final List<Line> items;
+    private final BigDecimal total;
+    private final int itemCount;
+
+    /**
+     * Resolves a cart against a catalog snapshot
+     *
+     * @param cart The cart
+     * @param catalog The menu catalog
+     */
+    public CartView(ShoppingCart cart, CatalogSnapshot catalog) {
+        List<Line> lines = new ArrayList<>();
+        BigDecimal sum = BigDecimal.ZERO;
+        int count = 0;
+
+        for (ShoppingCart.CartItem item : cart.getItems()) {
+            Pizza pizza = catalog.getPizza(item.getPizzaId());
+            if (pizza == null) {
+                continue;
+            }
+
+            List<Topping> toppings = new ArrayList<>();
+            for (int toppingId : item.getToppingIds()) {
+                Topping topping = catalog.getTopping(toppingId);
+                if (topping != null) {
+                    toppings.add(topping);
+                }
+            }
+
+            Line line = new Line(item.getKey().toString(), pizza, item.getQuantity(), toppings);
+            lines.add(line);
+            sum = sum.add(line.getSubtotal());
+            count += item.getQuantity();
+        }
+
+        this.catalogVersion = catalog.getVersion();
+        this.items = Collections.unmodifiableList(lines);
+        this.total = sum;
+        this.itemCount = count;
+    }
+
+    public long getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    public List<Line> getItems() {
+        return items;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    /**
+     * One cart item with its pizza and toppings
+     */
+    public static class Line {
+        private final String key;
+        private final Pizza pizza;
+        private final int quantity;
+        private final List<Topping> toppings;
+        private final BigDecimal toppingsCost;
+        private final BigDecimal unitPrice;
+        private final BigDecimal subtotal;
+
+        Line(String key, Pizza pizza, int quantity, List<Topping> toppings) {
+            this.key = key;
+            this.pizza = pizza;
+            this.quantity = quantity;
+            this.toppings = Collections.unmodifiableList(toppings);
+
+            BigDecimal cost = BigDecimal.ZERO;
+            for (Topping topping : toppings) {
+                cost = cost.add(topping.getPrice());
+            }
+            this.toppingsCost = cost;
+            this.unitPrice = pizza.getPrice().add(cost);
+            this.subtotal = unitPrice.multiply(BigDecimal.valueOf(quantity));
+        }
+
+        /**
+         * Gets the key of the item in the cart, used to update or remove it
+         *
+         * @return The text form of the item's {@link ShoppingCart.LineKey}
+         */
+        public String getKey() {
+            return key;
+        }
+
+        public Pizza getPizza() {
+            return pizza;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public List<Topping> getToppings() {
+            return toppings;
+        }
+
+        public BigDecimal getToppingsCost() {
+            return toppingsCost;
+        }
+
+        /**
+         * Gets the unit price (base price plus toppings)
+         *
+         * @return The unit price of this item
+         */
+        public BigDecimal getUnitPrice() {
+            return unitPrice;
+        }
+
+        public BigDecimal getSubtotal() {
+            return subtotal;
+        }
+    }
+}
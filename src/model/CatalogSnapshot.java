@@ -0,0 +1,142 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, versioned view of the menu: pizzas, categories and toppings,
+ * indexed for the lookups the storefront performs.
+ *
+ * The contained model objects are shared between all readers and must be
+ * treated as read-only.
+ */
+public final class CatalogSnapshot {
+    private final long version;
+    private final long loadedAt;
+    private final List<Pizza> pizzas;
+    private final List<Category> categories;
+    private final List<Topping> toppings;
+    private final List<Pizza> vegetarianPizzas;
+    private final List<Topping> vegetarianToppings;
+    private final Map<Integer, Pizza> pizzasById;
+    private final Map<Integer, Category> categoriesById;
+    private final Map<Integer, Topping> toppingsById;
+    private final Map<Integer, List<Pizza>> pizzasByCategory;
+
+    /**
+     * Builds a snapshot and its indexes
+     *
+     * @param version The snapshot version, increasing with every rebuild
+     * @param pizzas All pizzas; their category references are resolved from the categories list
+     * @param categories All categories
+     * @param toppings All toppings
+     */
+    public CatalogSnapshot(long version, List<Pizza> pizzas, List<Category> categories, List<Topping> toppings) {
+        this.version = version;
+        this.loadedAt = System.currentTimeMillis();
+
+        Map<Integer, Category> categoryIndex = new LinkedHashMap<>();
+        for (Category category : categories) {
+            categoryIndex.put(category.getId(), category);
+        }
+
+        Map<Integer, Pizza> pizzaIndex = new LinkedHashMap<>();
+        Map<Integer, List<Pizza>> byCategory = new HashMap<>();
+        List<Pizza> vegetarian = new ArrayList<>();
+        for (Pizza pizza : pizzas) {
+            pizza.setCategory(categoryIndex.get(pizza.getCategoryId()));
+            pizzaIndex.put(pizza.getId(), pizza);
+            byCategory.computeIfAbsent(pizza.getCategoryId(), k -> new ArrayList<>()).add(pizza);
+            if (pizza.isVegetarian()) {
+                vegetarian.add(pizza);
+            }
+        }
+        for (Map.Entry<Integer, List<Pizza>> entry : byCategory.entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+
+        Map<Integer, Topping> toppingIndex = new LinkedHashMap<>();
+        List<Topping> vegetarianToppingList = new ArrayList<>();
+        for (Topping topping : toppings) {
+            toppingIndex.put(topping.getId(), topping);
+            if (topping.isVegetarian()) {
+                vegetarianToppingList.add(topping);
+            }
+        }
+
+        this.pizzas = Collections.unmodifiableList(new ArrayList<>(pizzas));
+        this.categories = Collections.unmodifiableList(new ArrayList<>(categories));
+        this.toppings = Collections.unmodifiableList(new ArrayList<>(toppings));
+        this.vegetarianPizzas = Collections.unmodifiableList(vegetarian);
+        this.vegetarianToppings = Collections.unmodifiableList(vegetarianToppingList);
+        this.pizzasById = Collections.unmodifiableMap(pizzaIndex);
+        this.categoriesById = Collections.unmodifiableMap(categoryIndex);
+        this.toppingsById = Collections.unmodifiableMap(toppingIndex);
+        this.pizzasByCategory = Collections.unmodifiableMap(byCategory);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+
+    public List<Pizza> getPizzas() {
+        return pizzas;
+    }
+
+    public List<Category> getCategories() {
+        return categories;
+    }
+
+    public List<Topping> getToppings() {
+        return toppings;
+    }
+
+    public List<Pizza> getVegetarianPizzas() {
+        return vegetarianPizzas;
+    }
+
+    public List<Topping> getVegetarianToppings() {
+        return vegetarianToppings;
+    }
+
+    public Pizza getPizza(int id) {
+        return pizzasById.get(id);
+    }
+
+    public Category getCategory(int id) {
+        return categoriesById.get(id);
+    }
+
+    public Topping getTopping(int id) {
+        return toppingsById.get(id);
+    }
+
+    /**
+     * Gets the pizzas of a category
+     *
+     * @param categoryId The category ID
+     * @return The pizzas in the category, empty if there are none
+     */
+    public List<Pizza> getPizzasByCategory(int categoryId) {
+        List<Pizza> result = pizzasByCategory.get(categoryId);
+        return result != null ? result : Collections.<Pizza>emptyList();
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogSnapshot{" +
+                "version=" + version +
+                ", pizzas=" + pizzas.size() +
+                ", categories=" + categories.size() +
+                ", toppings=" + toppings.size() +
+                '}';
+    }
+}
@@ -0,0 +1,189 @@
+package model;
+
+import java.math.BigDecimal;
+
+/**
+ * Statistics shown on the admin dashboard
+ */
+public class DashboardStats {
+    // Order statistics
+    private int totalOrders;
+    private int pendingOrders;
+    private int preparingOrders;
+    private int readyOrders;
+    private int activeDeliveries;
+    private int completedOrders;
+    private int cancelledOrders;
+
+    // Revenue statistics (cancelled orders excluded)
+    private BigDecimal totalRevenue = BigDecimal.ZERO;
+    private BigDecimal todayRevenue = BigDecimal.ZERO;
+    private BigDecimal weeklyRevenue = BigDecimal.ZERO;
+
+    // Menu statistics
+    private int availablePizzas;
+    private int outOfStockPizzas;
+    private int totalMenuItems;
+
+    // User statistics
+    private int totalCustomers;
+    private int totalDeliveryPersons;
+    private int totalUsers;
+
+    // Set when a section could not be loaded
+    private boolean orderStatsError;
+    private boolean menuStatsError;
+    private boolean userStatsError;
+
+    public int getTotalOrders() {
+        return totalOrders;
+    }
+
+    public void setTotalOrders(int totalOrders) {
+        this.totalOrders = totalOrders;
+    }
+
+    public int getPendingOrders() {
+        return pendingOrders;
+    }
+
+    public void setPendingOrders(int pendingOrders) {
+        this.pendingOrders = pendingOrders;
+    }
+
+    public int getPreparingOrders() {
+        return preparingOrders;
+    }
+
+    public void setPreparingOrders(int preparingOrders) {
+        this.preparingOrders = preparingOrders;
+    }
+
+    public int getReadyOrders() {
+        return readyOrders;
+    }
+
+    public void setReadyOrders(int readyOrders) {
+        this.readyOrders = readyOrders;
+    }
+
+    public int getActiveDeliveries() {
+        return activeDeliveries;
+    }
+
+    public void setActiveDeliveries(int activeDeliveries) {
+        this.activeDeliveries = activeDeliveries;
+    }
+
+    public int getCompletedOrders() {
+        return completedOrders;
+    }
+
+    public void setCompletedOrders(int completedOrders) {
+        this.completedOrders = completedOrders;
+    }
+
+    public int getCancelledOrders() {
+        return cancelledOrders;
+    }
+
+    public void setCancelledOrders(int cancelledOrders) {
+        this.cancelledOrders = cancelledOrders;
+    }
+
+    public BigDecimal getTotalRevenue() {
+        return totalRevenue;
+    }
+
+    public void setTotalRevenue(BigDecimal totalRevenue) {
+        this.totalRevenue = totalRevenue != null ? totalRevenue : BigDecimal.ZERO;
+    }
+
+    public BigDecimal getTodayRevenue() {
+        return todayRevenue;
+    }
+
+    public void setTodayRevenue(BigDecimal todayRevenue) {
+        this.todayRevenue = todayRevenue != null ? todayRevenue : BigDecimal.ZERO;
+    }
+
+    public BigDecimal getWeeklyRevenue() {
+        return weeklyRevenue;
+    }
+
+    public void setWeeklyRevenue(BigDecimal weeklyRevenue) {
+        this.weeklyRevenue = weeklyRevenue != null ? weeklyRevenue : BigDecimal.ZERO;
+    }
+
+    public int getAvailablePizzas() {
+        return availablePizzas;
+    }
+
+    public void setAvailablePizzas(int availablePizzas) {
+        this.availablePizzas = availablePizzas;
+    }
+
+    public int getOutOfStockPizzas() {
+        return outOfStockPizzas;
+    }
+
+    public void setOutOfStockPizzas(int outOfStockPizzas) {
+        this.outOfStockPizzas = outOfStockPizzas;
+    }
+
+    public int getTotalMenuItems() {
+        return totalMenuItems;
+    }
+
+    public void setTotalMenuItems(int totalMenuItems) {
+        this.totalMenuItems = totalMenuItems;
+    }
+
+    public int getTotalCustomers() {
+        return totalCustomers;
+    }
+
+    public void setTotalCustomers(int totalCustomers) {
+        this.totalCustomers = totalCustomers;
+    }
+
+    public int getTotalDeliveryPersons() {
+        return totalDeliveryPersons;
+    }
+
+    public void setTotalDeliveryPersons(int totalDeliveryPersons) {
+        this.totalDeliveryPersons = totalDeliveryPersons;
+    }
+
+    public int getTotalUsers() {
+        return totalUsers;
+    }
+
+    public void setTotalUsers(int totalUsers) {
+        this.totalUsers = totalUsers;
+    }
+
+    public boolean isOrderStatsError() {
+        return orderStatsError;
+    }
+
+    public void setOrderStatsError(boolean orderStatsError) {
+        this.orderStatsError = orderStatsError;
+    }
+
+    public boolean isMenuStatsError() {
+        return menuStatsError;
+    }
+
+    public void setMenuStatsError(boolean menuStatsError) {
+        this.menuStatsError = menuStatsError;
+    }
+
+    public boolean isUserStatsError() {
+        return userStatsError;
+    }
+
+    public void setUserStatsError(boolean userStatsError) {
+        this.userStatsError = userStatsError;
+    }
+}
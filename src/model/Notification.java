@@ -0,0 +1,65 @@
+package model;
+
+/**
+ * Represents a notification shown to a user, e.g. an order status update
+ */
+public class Notification {
+    public static final String TYPE_SUCCESS = "success";
+    public static final String TYPE_WARNING = "warning";
+    public static final String TYPE_INFO = "info";
+
+    private final long id;
+    private final int userId;
+    private final String type;
+    private final String message;
+    private final long timestamp;
+    private volatile boolean read;
+
+    public Notification(long id, int userId, String type, String message, long timestamp) {
+        this.id = id;
+        this.userId = userId;
+        this.type = type;
+        this.message = message;
+        this.timestamp = timestamp;
+    }
+
+    // Getters
+    public long getId() {
+        return id;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public boolean isRead() {
+        return read;
+    }
+
+    public void markRead() {
+        this.read = true;
+    }
+
+    @Override
+    public String toString() {
+        return "Notification{" +
+                "id=" + id +
+                ", userId=" + userId +
+                ", type='" + type + '\'' +
+                ", message='" + message + '\'' +
+                ", read=" + read +
+                '}';
+    }
+}
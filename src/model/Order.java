@@ -23,6 +23,7 @@ public class Order {
     private Timestamp deliveredAt;
     private Integer deliveryPersonId; // New field for delivery person ID
     private String deliveryPersonName; // Name of the delivery person
+    private Integer itemCount; // Set when the items themselves are not loaded
     
     // Default constructor
     public Order() {
@@ -107,6 +108,20 @@ public class Order {
         this.orderItems = orderItems;
     }
     
+    /**
+     * Gets the number of items, also for orders loaded without their items
+     */
+    public int getItemCount() {
+        if (itemCount != null && orderItems.isEmpty()) {
+            return itemCount;
+        }
+        return orderItems.size();
+    }
+    
+    public void setItemCount(Integer itemCount) {
+        this.itemCount = itemCount;
+    }
+    
     // Add a single order item to the list
     public void addOrderItem(OrderItem item) {
         this.orderItems.add(item);
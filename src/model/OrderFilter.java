@@ -0,0 +1,50 @@
+package model;
+
+import java.sql.Timestamp;
+
+/**
+ * Criteria for filtering order lists
+ */
+public class OrderFilter {
+    private String status;
+    private Timestamp createdFrom; // Inclusive
+    private Timestamp createdTo;   // Exclusive
+    
+    // Default constructor
+    public OrderFilter() {
+    }
+    
+    // Getters and Setters
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public Timestamp getCreatedFrom() {
+        return createdFrom;
+    }
+    
+    public void setCreatedFrom(Timestamp createdFrom) {
+        this.createdFrom = createdFrom;
+    }
+    
+    public Timestamp getCreatedTo() {
+        return createdTo;
+    }
+    
+    public void setCreatedTo(Timestamp createdTo) {
+        this.createdTo = createdTo;
+    }
+    
+    @Override
+    public String toString() {
+        return "OrderFilter{" +
+                "status='" + status + '\'' +
+                ", createdFrom=" + createdFrom +
+                ", createdTo=" + createdTo +
+                '}';
+    }
+}
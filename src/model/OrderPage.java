@@ -0,0 +1,125 @@
+package model;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of orders, ordered newest first, with keyset cursors
+ * pointing at the neighbouring pages
+ */
+public class OrderPage {
+    private List<Order> orders;
+    private String nextCursor;     // Older orders
+    private String previousCursor; // Newer orders
+    
+    // Default constructor
+    public OrderPage() {
+        this.orders = new ArrayList<>();
+    }
+    
+    // Constructor with all fields
+    public OrderPage(List<Order> orders, String nextCursor, String previousCursor) {
+        this.orders = orders;
+        this.nextCursor = nextCursor;
+        this.previousCursor = previousCursor;
+    }
+    
+    // Getters and Setters
+    public List<Order> getOrders() {
+        return orders;
+    }
+    
+    public void setOrders(List<Order> orders) {
+        this.orders = orders;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    
+    public String getPreviousCursor() {
+        return previousCursor;
+    }
+    
+    public void setPreviousCursor(String previousCursor) {
+        this.previousCursor = previousCursor;
+    }
+    
+    public boolean isHasNext() {
+        return nextCursor != null;
+    }
+    
+    public boolean isHasPrevious() {
+        return previousCursor != null;
+    }
+    
+    /**
+     * Position of an order in the (created_at, id) ordering
+     */
+    public static class Cursor {
+        private final Timestamp createdAt;
+        private final int id;
+        
+        public Cursor(Timestamp createdAt, int id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+        
+        /**
+         * Creates a cursor positioned at the given order
+         * 
+         * @param order The order
+         * @return The cursor
+         */
+        public static Cursor of(Order order) {
+            return new Cursor(order.getCreatedAt(), order.getId());
+        }
+        
+        /**
+         * Parses a cursor produced by {@link #encode()}
+         * 
+         * @param value The encoded cursor
+         * @return The cursor, or null if the value is missing or malformed
+         */
+        public static Cursor decode(String value) {
+            if (value == null || value.isEmpty()) {
+                return null;
+            }
+            
+            int separator = value.indexOf('_');
+            if (separator <= 0) {
+                return null;
+            }
+            
+            try {
+                long millis = Long.parseLong(value.substring(0, separator));
+                int id = Integer.parseInt(value.substring(separator + 1));
+                return new Cursor(new Timestamp(millis), id);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        
+        /**
+         * Encodes the cursor as an opaque, URL-safe string
+         * 
+         * @return The encoded cursor
+         */
+        public String encode() {
+            return createdAt.getTime() + "_" + id;
+        }
+        
+        public Timestamp getCreatedAt() {
+            return createdAt;
+        }
+        
+        public int getId() {
+            return id;
+        }
+    }
+}
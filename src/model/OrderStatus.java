@@ -0,0 +1,76 @@
+package model;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The statuses an order goes through, and which status may follow which.
+ * Stored in orders.order_status by name.
+ */
+public enum OrderStatus {
+    PLACED,
+    PREPARING,
+    READY,
+    OUT_FOR_DELIVERY,
+    DELIVERED,
+    CANCELLED;
+
+    private static final Map<OrderStatus, Set<OrderStatus>> TRANSITIONS = new EnumMap<>(OrderStatus.class);
+
+    static {
+        TRANSITIONS.put(PLACED, EnumSet.of(PREPARING, CANCELLED));
+        TRANSITIONS.put(PREPARING, EnumSet.of(READY, CANCELLED));
+        TRANSITIONS.put(READY, EnumSet.of(OUT_FOR_DELIVERY, CANCELLED));
+        TRANSITIONS.put(OUT_FOR_DELIVERY, EnumSet.of(DELIVERED, CANCELLED));
+        TRANSITIONS.put(DELIVERED, EnumSet.noneOf(OrderStatus.class));
+        TRANSITIONS.put(CANCELLED, EnumSet.noneOf(OrderStatus.class));
+    }
+
+    /**
+     * Checks whether an order in this status may move to another status
+     *
+     * @param next The new status
+     * @return true if the transition is allowed
+     */
+    public boolean canTransitionTo(OrderStatus next) {
+        return TRANSITIONS.get(this).contains(next);
+    }
+
+    /**
+     * Gets the statuses an order in this status may move to
+     *
+     * @return The statuses, in declaration order
+     */
+    public Set<OrderStatus> getNextStatuses() {
+        return Collections.unmodifiableSet(TRANSITIONS.get(this));
+    }
+
+    /**
+     * Checks whether the order is finished and can no longer change status
+     *
+     * @return true for DELIVERED and CANCELLED
+     */
+    public boolean isTerminal() {
+        return TRANSITIONS.get(this).isEmpty();
+    }
+
+    /**
+     * Parses a stored or submitted status
+     *
+     * @param value The status name
+     * @return The status, or null if the value is not a known status
+     */
+    public static OrderStatus parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return valueOf(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
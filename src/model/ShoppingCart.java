@@ -1,238 +1,319 @@
 package model;
 
 import java.io.Serializable;
-import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 
 /**
- * Represents a shopping cart
+ * Represents a shopping cart.
+ *
+ * The cart lives in the session, so it only keeps IDs and quantities: each item
+ * is a pizza ID, a quantity and the sorted IDs of its extra toppings. Names,
+ * images and prices are looked up from the menu catalog when the cart is shown,
+ * see {@link CartView}.
+ *
+ * Items are indexed by their {@link LineKey}, so adding the same pizza with the
+ * same toppings again, updating and removing are single hash lookups.
  */
 public class ShoppingCart implements Serializable {
-    
-    private static final long serialVersionUID = 1L;
-    private List<CartItem> items;
-    private BigDecimal total;
-    
+
+    /**
+     * Largest quantity of a single cart line; larger quantities are capped
+     */
+    public static final int MAX_QUANTITY = 99;
+
+    private static final long serialVersionUID = 3L;
+    private static final int[] NO_TOPPINGS = new int[0];
+
+    // In the order the items were added
+    private final Map<LineKey, CartItem> items;
+    private int itemCount;
+
+    // Bumped on every change, so a view built before a change is never cached after it
+    private transient volatile int changeCount;
+
+    // The last resolved view and the change count it was built at; dropped on every
+    // change and rebuilt when the menu changes
+    private transient volatile CachedView view;
+
     public ShoppingCart() {
-        this.items = new ArrayList<>();
-        this.total = BigDecimal.ZERO;
+        this.items = new LinkedHashMap<>();
     }
-    
+
     /**
-     * Adds a pizza to the cart
-     * 
-     * @param pizza The pizza to add
+     * Adds a pizza to the cart. If the same pizza with the same toppings is
+     * already in the cart its quantity is increased instead, up to {@link #MAX_QUANTITY}.
+     *
+     * @param pizzaId The pizza ID
      * @param quantity The quantity to add
-     * @param selectedToppingIds IDs of selected toppings
-     * @param toppings List of all available toppings (to look up by ID)
+     * @param toppingIds IDs of the selected toppings, in any order, or null
      */
-    public void addItem(Pizza pizza, int quantity, List<Integer> selectedToppingIds, List<Topping> toppings) {
-        // Create a list of selected toppings
-        List<Topping> selectedToppings = new ArrayList<>();
-        if (selectedToppingIds != null) {
-            for (Integer toppingId : selectedToppingIds) {
-                for (Topping topping : toppings) {
-                    if (topping.getId() == toppingId) {
-                        selectedToppings.add(topping);
-                        break;
-                    }
-                }
-            }
-        }
-        
-        // Check if the same pizza with the same toppings already exists in the cart
-        for (CartItem item : items) {
-            if (item.getPizza().getId() == pizza.getId() && hasSameToppings(item.getToppings(), selectedToppings)) {
-                // If it exists, just increase the quantity
-                item.setQuantity(item.getQuantity() + quantity);
-                calculateTotal();
-                return;
-            }
+    public void addItem(int pizzaId, int quantity, int[] toppingIds) {
+        LineKey key = new LineKey(pizzaId, normalizeToppingIds(toppingIds));
+        CartItem item = items.get(key);
+        if (item != null) {
+            int added = Math.min(quantity, MAX_QUANTITY - item.quantity);
+            item.quantity += added;
+            itemCount += added;
+        } else {
+            int added = Math.min(quantity, MAX_QUANTITY);
+            items.put(key, new CartItem(key, added));
+            itemCount += added;
         }
-        
-        // Otherwise, add a new cart item
-        CartItem newItem = new CartItem(pizza, quantity, selectedToppings);
-        items.add(newItem);
-        calculateTotal();
+        changed();
     }
-    
+
     /**
      * Updates the quantity of an item in the cart
-     * 
-     * @param itemIndex The index of the item to update
-     * @param quantity The new quantity
+     *
+     * @param key The key of the item to update
+     * @param quantity The new quantity, capped at {@link #MAX_QUANTITY}; zero or less removes the item
      */
-    public void updateQuantity(int itemIndex, int quantity) {
-        if (itemIndex >= 0 && itemIndex < items.size()) {
-            if (quantity <= 0) {
-                items.remove(itemIndex);
-            } else {
-                items.get(itemIndex).setQuantity(quantity);
-            }
-            calculateTotal();
+    public void updateQuantity(LineKey key, int quantity) {
+        if (quantity <= 0) {
+            removeItem(key);
+            return;
+        }
+        quantity = Math.min(quantity, MAX_QUANTITY);
+        CartItem item = items.get(key);
+        if (item != null) {
+            itemCount += quantity - item.quantity;
+            item.quantity = quantity;
+            changed();
         }
     }
-    
+
     /**
      * Removes an item from the cart
-     * 
-     * @param itemIndex The index of the item to remove
+     *
+     * @param key The key of the item to remove
      */
-    public void removeItem(int itemIndex) {
-        if (itemIndex >= 0 && itemIndex < items.size()) {
-            items.remove(itemIndex);
-            calculateTotal();
+    public void removeItem(LineKey key) {
+        CartItem item = items.remove(key);
+        if (item != null) {
+            itemCount -= item.quantity;
+            changed();
         }
     }
-    
+
     /**
      * Clears all items from the cart
      */
     public void clear() {
         items.clear();
-        total = BigDecimal.ZERO;
+        itemCount = 0;
+        changed();
     }
-    
+
     /**
      * Gets the total number of items in the cart
      * This counts the total of all quantities, not just unique items
-     * 
+     *
      * @return Total number of items
      */
     public int getItemCount() {
-        int count = 0;
-        for (CartItem item : items) {
-            count += item.getQuantity();
-        }
-        return count;
+        return itemCount;
     }
-    
+
     /**
      * Gets the total quantity of all items in the cart
-     * 
+     *
      * @return The total quantity
      */
     public int getTotalQuantity() {
-        int totalQty = 0;
-        for (CartItem item : items) {
-            totalQty += item.getQuantity();
-        }
-        return totalQty;
+        return itemCount;
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
     }
-    
+
     /**
      * Gets the items in the cart
-     * 
-     * @return The cart items
+     *
+     * @return The cart items in the order they were added
      */
     public List<CartItem> getItems() {
-        return items;
+        return Collections.unmodifiableList(new ArrayList<>(items.values()));
     }
-    
+
     /**
-     * Gets the total price of all items in the cart
-     * 
-     * @return The total price
+     * Gets the number of changes made to the cart so far. Read it before building
+     * a view and pass it to {@link #setView(CartView, int)}.
+     *
+     * @return The change count
      */
-    public BigDecimal getTotal() {
-        return total;
+    public int getChangeCount() {
+        return changeCount;
     }
-    
+
     /**
-     * Recalculates the total price of all items in the cart
+     * Gets the resolved view cached by the last call to {@link #setView(CartView, int)}
+     *
+     * @param catalogVersion The current menu catalog version
+     * @return The view, or null if the cart or the menu changed since it was built
      */
-    private void calculateTotal() {
-        total = BigDecimal.ZERO;
-        for (CartItem item : items) {
-            total = total.add(item.getSubtotal());
+    public CartView getView(long catalogVersion) {
+        CachedView current = view;
+        if (current == null || current.changeCount != changeCount
+                || current.view.getCatalogVersion() != catalogVersion) {
+            return null;
+        }
+        return current.view;
+    }
+
+    /**
+     * Caches the resolved view of this cart until the cart changes. The view is not
+     * cached if the cart changed since it was built.
+     *
+     * @param view The view built from the items
+     * @param changeCount The change count read before the view was built
+     */
+    public void setView(CartView view, int changeCount) {
+        if (changeCount == this.changeCount) {
+            this.view = new CachedView(view, changeCount);
+        }
+    }
+
+    private void changed() {
+        changeCount++;
+        view = null;
+    }
+
+    private static int[] normalizeToppingIds(int[] toppingIds) {
+        if (toppingIds == null || toppingIds.length == 0) {
+            return NO_TOPPINGS;
+        }
+        // Sorted and without duplicates, so equal selections compare equal
+        return Arrays.stream(toppingIds).distinct().sorted().toArray();
+    }
+
+    private static final class CachedView {
+        final CartView view;
+        final int changeCount;
+
+        CachedView(CartView view, int changeCount) {
+            this.view = view;
+            this.changeCount = changeCount;
         }
     }
-    
+
     /**
-     * Checks if two lists of toppings are the same
-     * 
-     * @param list1 First list of toppings
-     * @param list2 Second list of toppings
-     * @return true if the lists contain the same toppings, false otherwise
+     * Identifies a cart line: a pizza and its set of extra toppings.
+     *
+     * The text form, e.g. "12" or "12:3,7", is used in the cart forms.
      */
-    private boolean hasSameToppings(List<Topping> list1, List<Topping> list2) {
-        if (list1.size() != list2.size()) {
-            return false;
-        }
-        
-        for (Topping topping : list1) {
-            boolean found = false;
-            for (Topping other : list2) {
-                if (topping.getId() == other.getId()) {
-                    found = true;
-                    break;
+    public static final class LineKey implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final int pizzaId;
+        private final int[] toppingIds;
+        private final int hash;
+
+        LineKey(int pizzaId, int[] sortedToppingIds) {
+            this.pizzaId = pizzaId;
+            this.toppingIds = sortedToppingIds;
+            this.hash = 31 * pizzaId + Arrays.hashCode(sortedToppingIds);
+        }
+
+        /**
+         * Parses the text form of a key
+         *
+         * @param value The text form
+         * @return The key
+         * @throws IllegalArgumentException If the value is not a valid key
+         */
+        public static LineKey parse(String value) {
+            if (value == null || value.isEmpty()) {
+                throw new IllegalArgumentException("Cart line key is required");
+            }
+            try {
+                int separator = value.indexOf(':');
+                if (separator < 0) {
+                    return new LineKey(Integer.parseInt(value), NO_TOPPINGS);
                 }
+                int pizzaId = Integer.parseInt(value.substring(0, separator));
+                int[] toppingIds = Arrays.stream(value.substring(separator + 1).split(","))
+                        .mapToInt(Integer::parseInt)
+                        .toArray();
+                return new LineKey(pizzaId, normalizeToppingIds(toppingIds));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cart line key: " + value);
             }
-            if (!found) {
+        }
+
+        public int getPizzaId() {
+            return pizzaId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof LineKey)) {
                 return false;
             }
+            LineKey other = (LineKey) o;
+            return pizzaId == other.pizzaId && Arrays.equals(toppingIds, other.toppingIds);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            if (toppingIds.length == 0) {
+                return Integer.toString(pizzaId);
+            }
+            StringBuilder sb = new StringBuilder().append(pizzaId).append(':');
+            for (int i = 0; i < toppingIds.length; i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append(toppingIds[i]);
+            }
+            return sb.toString();
         }
-        
-        return true;
     }
-    
+
     /**
      * Represents an item in the shopping cart
      */
     public static class CartItem implements Serializable {
-        private static final long serialVersionUID = 1L;
-        private Pizza pizza;
+        private static final long serialVersionUID = 3L;
+        private final LineKey key;
         private int quantity;
-        private List<Topping> toppings;
-        
-        public CartItem(Pizza pizza, int quantity, List<Topping> toppings) {
-            this.pizza = pizza;
+
+        CartItem(LineKey key, int quantity) {
+            this.key = key;
             this.quantity = quantity;
-            this.toppings = toppings != null ? toppings : new ArrayList<>();
         }
-        
-        public Pizza getPizza() {
-            return pizza;
+
+        public LineKey getKey() {
+            return key;
+        }
+
+        public int getPizzaId() {
+            return key.pizzaId;
         }
-        
+
         public int getQuantity() {
             return quantity;
         }
-        
-        public void setQuantity(int quantity) {
-            this.quantity = quantity;
-        }
-        
-        public List<Topping> getToppings() {
-            return toppings;
-        }
-        
-        public BigDecimal getToppingsCost() {
-            BigDecimal cost = BigDecimal.ZERO;
-            for (Topping topping : toppings) {
-                cost = cost.add(topping.getPrice());
-            }
-            return cost;
-        }
-        
-        public BigDecimal getItemPrice() {
-            return pizza.getPrice().add(getToppingsCost());
-        }
-        
+
         /**
-         * Gets the unit price (base price plus toppings)
-         * This is a convenience method that returns the same as getItemPrice()
-         * 
-         * @return The unit price of this item
+         * Gets the IDs of the extra toppings
+         *
+         * @return The topping IDs in ascending order
          */
-        public BigDecimal getUnitPrice() {
-            return getItemPrice(); // Returns pizza price + toppings cost
-        }
-        
-        public BigDecimal getSubtotal() {
-            return getItemPrice().multiply(new BigDecimal(quantity));
+        public int[] getToppingIds() {
+            return key.toppingIds.clone();
         }
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,7 @@
 package model;
 
 import java.sql.Timestamp;
-import util.PasswordUtils;
+import util.PasswordHasher;
 
 /**
  * Represents a user (customer or staff) in the system
@@ -62,9 +62,9 @@ public class User {
         return password;
     }
 
-    // Hash the password before storing it
+    // Plain text password from a form; UserService hashes it before the user is saved
     public void setPassword(String plainTextPassword) {
-        this.password = PasswordUtils.hashPassword(plainTextPassword);
+        this.password = plainTextPassword;
     }
 
     // Direct setter for already-hashed password (e.g., when loading from database)
@@ -74,7 +74,7 @@ public class User {
 
     // Verify if a password matches
     public boolean verifyPassword(String plainTextPassword) {
-        return PasswordUtils.verifyPassword(plainTextPassword, this.password);
+        return PasswordHasher.verify(plainTextPassword, this.password);
     }
 
     public String getFullName() {
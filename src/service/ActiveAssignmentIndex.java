@@ -0,0 +1,204 @@
+package service;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import dao.OrderDAO;
+import model.Order;
+
+/**
+ * In-memory index of the orders each delivery person currently has to deliver.
+ *
+ * Loaded once from the database, then kept current by {@link OrderService} as
+ * orders are assigned and change status. Reads never touch the database. A
+ * periodic reload picks up changes made outside the service.
+ */
+public final class ActiveAssignmentIndex {
+
+    // Rider ID -> order ID -> order; the orders are shared and read-only.
+    // Replaced as a whole on reload so readers never see a half-built index.
+    private static volatile Map<Integer, Map<Integer, Order>> byRider = new ConcurrentHashMap<>();
+
+    // Order ID -> rider ID, to move an order when it is reassigned; guarded by lock
+    private static Map<Integer, Integer> riderByOrder = new ConcurrentHashMap<>();
+
+    private static final ReentrantLock lock = new ReentrantLock();
+    private static volatile boolean loaded;
+    private static long modifications;
+
+    private static ScheduledExecutorService refresher;
+
+    private ActiveAssignmentIndex() {
+    }
+
+    /**
+     * Gets the active orders of a delivery person
+     *
+     * @param riderId The delivery person's user ID
+     * @return The orders, newest first
+     * @throws SQLException If the index has to be loaded and a database error occurs
+     */
+    public static List<Order> getActiveOrders(int riderId) throws SQLException {
+        if (!loaded) {
+            reload();
+            if (!loaded) {
+                throw new SQLException("Active assignment index could not be loaded");
+            }
+        }
+
+        Map<Integer, Order> orders = byRider.get(riderId);
+        if (orders == null) {
+            return Collections.emptyList();
+        }
+        List<Order> result = new ArrayList<>(orders.values());
+        result.sort(Comparator.comparing(Order::getCreatedAt,
+                Comparator.nullsLast(Comparator.<Timestamp>reverseOrder())));
+        return result;
+    }
+
+    /**
+     * Gets one active order of a delivery person, without loading the index
+     *
+     * @param riderId The delivery person's user ID
+     * @param orderId The order ID
+     * @return The indexed order, to be treated as read-only, or null if not indexed
+     */
+    public static Order getActiveOrder(int riderId, int orderId) {
+        Map<Integer, Order> orders = byRider.get(riderId);
+        return orders != null ? orders.get(orderId) : null;
+    }
+
+    /**
+     * Records the current state of an order after it was assigned or changed status
+     *
+     * @param order The order as it is now stored
+     */
+    public static void update(Order order) {
+        lock.lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            // Status changes load only the order header; keep the indexed details
+            if (order.getOrderItems() == null || order.getOrderItems().isEmpty()) {
+                Integer rider = riderByOrder.get(order.getId());
+                Map<Integer, Order> orders = rider != null ? byRider.get(rider) : null;
+                Order indexed = orders != null ? orders.get(order.getId()) : null;
+                if (indexed != null) {
+                    order.setOrderItems(indexed.getOrderItems());
+                    if (order.getDeliveryAddress() == null) {
+                        order.setDeliveryAddress(indexed.getDeliveryAddress());
+                        order.setContactNumber(indexed.getContactNumber());
+                    }
+                }
+            }
+            put(byRider, riderByOrder, order);
+            modifications++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reloads the index from the database. If an order changed while the reload was
+     * running the reload is discarded and left to the next run.
+     */
+    public static void reload() {
+        long before;
+        lock.lock();
+        try {
+            before = modifications;
+        } finally {
+            lock.unlock();
+        }
+
+        List<Order> active;
+        try {
+            active = new OrderDAO().findActiveAssignments();
+        } catch (SQLException e) {
+            System.err.println("Error loading active delivery assignments: " + e.getMessage());
+            return;
+        }
+
+        lock.lock();
+        try {
+            if (loaded && modifications != before) {
+                return;
+            }
+            Map<Integer, Map<Integer, Order>> riders = new ConcurrentHashMap<>();
+            Map<Integer, Integer> orders = new ConcurrentHashMap<>();
+            for (Order order : active) {
+                put(riders, orders, order);
+            }
+            riderByOrder = orders;
+            byRider = riders;
+            loaded = true;
+            modifications++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Starts the periodic reload
+     *
+     * @param intervalSeconds Seconds between reloads
+     */
+    public static synchronized void startRefresh(long intervalSeconds) {
+        if (refresher != null) {
+            return;
+        }
+        refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "assignment-index-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(ActiveAssignmentIndex::reload,
+                0, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the periodic reload
+     */
+    public static synchronized void shutdown() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+            refresher = null;
+        }
+    }
+
+    // Must hold the lock
+    private static void put(Map<Integer, Map<Integer, Order>> byRider, Map<Integer, Integer> riderByOrder,
+            Order order) {
+        Integer previousRider = riderByOrder.remove(order.getId());
+        if (previousRider != null) {
+            Map<Integer, Order> orders = byRider.get(previousRider);
+            if (orders != null) {
+                orders.remove(order.getId());
+                if (orders.isEmpty()) {
+                    byRider.remove(previousRider);
+                }
+            }
+        }
+
+        Integer rider = order.getAssignedToUserId();
+        if (rider != null && isActive(order.getOrderStatus())) {
+            byRider.computeIfAbsent(rider, k -> new ConcurrentHashMap<>()).put(order.getId(), order);
+            riderByOrder.put(order.getId(), rider);
+        }
+    }
+
+    private static boolean isActive(String status) {
+        return !"DELIVERED".equals(status) && !"CANCELLED".equals(status);
+    }
+}
@@ -0,0 +1,70 @@
+package service;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import model.CartView;
+import model.CatalogSnapshot;
+import model.Pizza;
+import model.ShoppingCart;
+
+/**
+ * Service for the shopping cart. The cart itself only holds IDs; this service
+ * checks them against the menu catalog and resolves them for display.
+ */
+public class CartService {
+
+    /**
+     * Adds a pizza to a cart. Topping IDs that are not on the menu are ignored.
+     *
+     * @param cart The cart
+     * @param pizzaId The pizza ID
+     * @param quantity The quantity to add
+     * @param toppingIds IDs of the selected toppings, or null
+     * @return The pizza that was added, or null if it is not on the menu
+     * @throws ServiceException If the catalog cannot be loaded
+     */
+    public Pizza addItem(ShoppingCart cart, int pizzaId, int quantity, int[] toppingIds) throws ServiceException {
+        CatalogSnapshot catalog = getCatalog();
+        Pizza pizza = catalog.getPizza(pizzaId);
+        if (pizza == null) {
+            return null;
+        }
+
+        int[] known = toppingIds;
+        if (toppingIds != null) {
+            known = Arrays.stream(toppingIds)
+                    .filter(id -> catalog.getTopping(id) != null)
+                    .toArray();
+        }
+        cart.addItem(pizzaId, quantity, known);
+        return pizza;
+    }
+
+    /**
+     * Resolves a cart against the current menu catalog. The result is cached on
+     * the cart until the cart or the menu changes.
+     *
+     * @param cart The cart
+     * @return The cart with its pizzas, toppings and prices
+     * @throws ServiceException If the catalog cannot be loaded
+     */
+    public CartView getCartView(ShoppingCart cart) throws ServiceException {
+        CatalogSnapshot catalog = getCatalog();
+        CartView view = cart.getView(catalog.getVersion());
+        if (view == null) {
+            int changeCount = cart.getChangeCount();
+            view = new CartView(cart, catalog);
+            cart.setView(view, changeCount);
+        }
+        return view;
+    }
+
+    private CatalogSnapshot getCatalog() throws ServiceException {
+        try {
+            return MenuCatalog.get();
+        } catch (SQLException e) {
+            throw new ServiceException("Error loading the menu catalog", e);
+        }
+    }
+}
@@ -32,7 +32,9 @@ public class CategoryService {
             validateCategory(category);
             
             // Create the category in the database
-            return categoryDAO.createCategory(category);
+            Category created = categoryDAO.createCategory(category);
+            MenuCatalog.refresh();
+            return created;
         } catch (SQLException e) {
             throw new ServiceException("Error creating category", e);
         }
@@ -47,7 +49,7 @@ public class CategoryService {
      */
     public Category getCategoryById(int id) throws ServiceException {
         try {
-            return categoryDAO.findById(id);
+            return MenuCatalog.get().getCategory(id);
         } catch (SQLException e) {
             throw new ServiceException("Error getting category by ID", e);
         }
@@ -61,7 +63,7 @@ public class CategoryService {
      */
     public List<Category> getAllCategories() throws ServiceException {
         try {
-            return categoryDAO.findAll();
+            return MenuCatalog.get().getCategories();
         } catch (SQLException e) {
             throw new ServiceException("Error getting all categories", e);
         }
@@ -86,7 +88,9 @@ public class CategoryService {
             }
             
             // Update the category
-            return categoryDAO.updateCategory(category);
+            boolean updated = categoryDAO.updateCategory(category);
+            MenuCatalog.refresh();
+            return updated;
         } catch (SQLException e) {
             throw new ServiceException("Error updating category", e);
         }
@@ -101,7 +105,9 @@ public class CategoryService {
      */
     public boolean deleteCategory(int id) throws ServiceException {
         try {
-            return categoryDAO.deleteCategory(id);
+            boolean deleted = categoryDAO.deleteCategory(id);
+            MenuCatalog.refresh();
+            return deleted;
         } catch (SQLException e) {
             throw new ServiceException("Error deleting category", e);
         }
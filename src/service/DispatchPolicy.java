@@ -0,0 +1,29 @@
+package service;
+
+import java.util.Comparator;
+
+import model.Order;
+
+/**
+ * Decides which delivery person {@link DispatchScheduler} gives the next READY
+ * order to. Set with dispatch.policy, as the name of a class with a public
+ * no-argument constructor.
+ */
+public interface DispatchPolicy {
+
+    /**
+     * Orders riders by preference; the first rider gets the next order
+     *
+     * @return The comparator, applied to the riders' current loads
+     */
+    Comparator<RiderLoad> priority();
+
+    /**
+     * Checks whether a rider may take another order
+     *
+     * @param rider The rider, the most preferred one still available
+     * @param order The order to assign
+     * @return false to leave the order for a later round
+     */
+    boolean canTake(RiderLoad rider, Order order);
+}
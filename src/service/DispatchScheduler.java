@@ -0,0 +1,169 @@
+package service;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import dao.OrderDAO;
+import model.Order;
+import model.User;
+import util.AppConfig;
+
+/**
+ * Assigns READY orders to delivery persons automatically, when dispatch.enabled=true.
+ *
+ * Every dispatch.intervalSeconds the oldest unassigned READY orders are loaded,
+ * together with every rider's current number of active deliveries. The riders go
+ * into a priority queue ordered by the {@link DispatchPolicy}; each order goes to
+ * the rider at the head, whose load is then raised and who is put back in the
+ * queue. Each assignment is a conditional update, so an order an admin assigned
+ * by hand in the meantime, or another node dispatched, is skipped rather than
+ * taken over.
+ */
+public final class DispatchScheduler {
+
+    private static final int BATCH_SIZE = AppConfig.getInt("dispatch.batchSize", 50);
+    private static final String POLICY_CLASS = AppConfig.getString("dispatch.policy",
+            LeastLoadedDispatchPolicy.class.getName());
+
+    private static ScheduledExecutorService scheduler;
+    private static volatile DispatchPolicy policy;
+
+    // Rider ID -> when the dispatcher last gave them an order, for tie-breaking
+    private static final Map<Integer, Long> lastAssignedAt = new ConcurrentHashMap<>();
+
+    // Metrics
+    private static final AtomicLong rounds = new AtomicLong();
+    private static final AtomicLong dispatched = new AtomicLong();
+    private static final AtomicLong conflicts = new AtomicLong();
+    private static final AtomicLong failures = new AtomicLong();
+
+    private DispatchScheduler() {
+    }
+
+    /**
+     * Starts dispatching in the background
+     *
+     * @param intervalSeconds Seconds between dispatch rounds
+     */
+    public static synchronized void start(long intervalSeconds) {
+        if (scheduler != null) {
+            return;
+        }
+        policy = loadPolicy();
+        OrderDAO orderDAO = new OrderDAO();
+        OrderService orderService = new OrderService();
+        UserService userService = new UserService();
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "order-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> dispatchRound(orderDAO, orderService, userService),
+                intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        System.out.println("Dispatching READY orders every " + intervalSeconds + "s with "
+                + policy.getClass().getSimpleName());
+    }
+
+    /**
+     * Stops dispatching
+     */
+    public static synchronized void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    public static boolean isRunning() {
+        return scheduler != null;
+    }
+
+    public static long getRoundCount() {
+        return rounds.get();
+    }
+
+    public static long getDispatchedCount() {
+        return dispatched.get();
+    }
+
+    /**
+     * Gets the number of orders that were assigned by someone else between being
+     * loaded and being dispatched
+     *
+     * @return The number of lost races
+     */
+    public static long getConflictCount() {
+        return conflicts.get();
+    }
+
+    public static long getFailureCount() {
+        return failures.get();
+    }
+
+    private static void dispatchRound(OrderDAO orderDAO, OrderService orderService, UserService userService) {
+        rounds.incrementAndGet();
+        try {
+            List<Order> ready = orderDAO.findReadyUnassigned(BATCH_SIZE);
+            if (ready.isEmpty()) {
+                return;
+            }
+
+            List<User> riders = userService.getDeliveryPersons();
+            PriorityQueue<RiderLoad> queue = new PriorityQueue<>(Math.max(1, riders.size()), policy.priority());
+            for (User rider : riders) {
+                queue.add(new RiderLoad(rider, rider.getActiveDeliveries(),
+                        lastAssignedAt.getOrDefault(rider.getId(), 0L)));
+            }
+
+            for (Order order : ready) {
+                RiderLoad rider = queue.poll();
+                if (rider == null) {
+                    return;
+                }
+                try {
+                    if (!policy.canTake(rider, order)) {
+                        // Left for a later round
+                        continue;
+                    }
+                    if (orderService.dispatchReadyOrder(order.getId(), rider.getRider())) {
+                        long now = System.currentTimeMillis();
+                        rider.assigned(now);
+                        lastAssignedAt.put(rider.getRiderId(), now);
+                        dispatched.incrementAndGet();
+                    } else {
+                        conflicts.incrementAndGet();
+                    }
+                } finally {
+                    // Back in the queue at its new position
+                    queue.add(rider);
+                }
+            }
+        } catch (SQLException | ServiceException e) {
+            failures.incrementAndGet();
+            System.err.println("Error dispatching orders: " + e.getMessage());
+        } catch (RuntimeException e) {
+            // Keep the scheduler alive; an exception would cancel further rounds
+            failures.incrementAndGet();
+            System.err.println("Error dispatching orders: " + e);
+        }
+    }
+
+    private static DispatchPolicy loadPolicy() {
+        try {
+            return Class.forName(POLICY_CLASS).asSubclass(DispatchPolicy.class)
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            System.err.println("Cannot use dispatch.policy " + POLICY_CLASS + " (" + e
+                    + "); using least-loaded dispatch");
+            return new LeastLoadedDispatchPolicy();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package service;
+
+import java.util.Comparator;
+
+import model.Order;
+import util.AppConfig;
+
+/**
+ * Gives each order to the rider with the fewest active deliveries, and among
+ * equally loaded riders to the one who waited longest since their last order.
+ * Riders at dispatch.maxActivePerRider get no more orders.
+ */
+public class LeastLoadedDispatchPolicy implements DispatchPolicy {
+
+    private static final Comparator<RiderLoad> PRIORITY = Comparator
+            .comparingInt(RiderLoad::getActiveDeliveries)
+            .thenComparingLong(RiderLoad::getLastAssignedAt)
+            .thenComparingInt(RiderLoad::getRiderId);
+
+    private final int maxActivePerRider = AppConfig.getInt("dispatch.maxActivePerRider", 3);
+
+    @Override
+    public Comparator<RiderLoad> priority() {
+        return PRIORITY;
+    }
+
+    @Override
+    public boolean canTake(RiderLoad rider, Order order) {
+        return rider.getActiveDeliveries() < maxActivePerRider;
+    }
+}
@@ -0,0 +1,192 @@
+package service;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import dao.CatalogVersionDAO;
+import dao.CategoryDAO;
+import dao.PizzaDAO;
+import dao.ToppingDAO;
+import model.CatalogSnapshot;
+import model.Category;
+import model.Pizza;
+import model.Topping;
+import util.AppConfig;
+
+/**
+ * Holds the current in-memory menu snapshot.
+ *
+ * Reads are a single volatile load and never block. Writers in the menu services
+ * call {@link #refresh()} after committing, which bumps the menu version in the
+ * database, rebuilds the snapshot and swaps it in atomically. Other nodes check
+ * the version every menu.catalog.checkSeconds and reload when it changed; a
+ * snapshot older than menu.catalog.maxAgeSeconds is reloaded regardless, to pick
+ * up menu changes made directly in the database.
+ */
+public final class MenuCatalog {
+
+    private static final long MAX_AGE_MILLIS = AppConfig.getInt("menu.catalog.maxAgeSeconds", 300) * 1000L;
+
+    private static final AtomicReference<CatalogSnapshot> current = new AtomicReference<>();
+    private static final AtomicLong versions = new AtomicLong();
+    private static final CatalogVersionDAO versionDAO = new CatalogVersionDAO();
+
+    // Serializes rebuilds so a slow rebuild can never overwrite a newer one
+    private static final ReentrantLock refreshLock = new ReentrantLock();
+
+    // Database menu version the current snapshot was loaded at, or -1 if unknown; guarded by refreshLock
+    private static long loadedDatabaseVersion = -1;
+
+    private static ScheduledExecutorService checker;
+
+    private MenuCatalog() {
+    }
+
+    /**
+     * Gets the current snapshot, loading it on first use
+     *
+     * @return The current snapshot
+     * @throws SQLException If the snapshot has to be loaded and a database error occurs
+     */
+    public static CatalogSnapshot get() throws SQLException {
+        CatalogSnapshot snapshot = current.get();
+        if (snapshot != null) {
+            return snapshot;
+        }
+
+        refreshLock.lock();
+        try {
+            snapshot = current.get();
+            if (snapshot == null) {
+                snapshot = load();
+                current.set(snapshot);
+            }
+            return snapshot;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Records a committed menu change: bumps the shared menu version so other nodes
+     * reload, then rebuilds the snapshot from the database and publishes it. If the
+     * rebuild fails the snapshot is dropped so that the next read reloads it.
+     */
+    public static void refresh() {
+        try {
+            versionDAO.increment();
+        } catch (SQLException e) {
+            System.err.println("Error bumping the menu version, other nodes pick the change up within "
+                    + MAX_AGE_MILLIS / 1000 + "s: " + e.getMessage());
+        }
+        reload();
+    }
+
+    /**
+     * Reloads the snapshot if the shared menu version changed since it was loaded,
+     * or if it is older than menu.catalog.maxAgeSeconds
+     */
+    public static void checkForChanges() {
+        CatalogSnapshot snapshot = current.get();
+        if (snapshot == null) {
+            // Loaded on the next read
+            return;
+        }
+        boolean stale = System.currentTimeMillis() - snapshot.getLoadedAt() > MAX_AGE_MILLIS;
+        if (!stale) {
+            try {
+                long version = versionDAO.getVersion();
+                refreshLock.lock();
+                try {
+                    stale = version != loadedDatabaseVersion;
+                } finally {
+                    refreshLock.unlock();
+                }
+            } catch (SQLException e) {
+                System.err.println("Error checking the menu version: " + e.getMessage());
+                return;
+            }
+        }
+        if (stale) {
+            reload();
+        }
+    }
+
+    /**
+     * Starts checking for menu changes made on other nodes
+     *
+     * @param intervalSeconds Seconds between checks
+     */
+    public static synchronized void startRefresh(long intervalSeconds) {
+        if (checker != null) {
+            return;
+        }
+        checker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "menu-catalog-checker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checker.scheduleWithFixedDelay(MenuCatalog::checkForChanges,
+                intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops checking for menu changes
+     */
+    public static synchronized void shutdown() {
+        if (checker != null) {
+            checker.shutdownNow();
+            checker = null;
+        }
+    }
+
+    /**
+     * Gets the version of the published snapshot
+     *
+     * @return The version, or 0 if no snapshot has been loaded yet
+     */
+    public static long getVersion() {
+        CatalogSnapshot snapshot = current.get();
+        return snapshot != null ? snapshot.getVersion() : 0;
+    }
+
+    private static void reload() {
+        refreshLock.lock();
+        try {
+            CatalogSnapshot snapshot = load();
+            current.set(snapshot);
+            System.out.println("Menu catalog refreshed: " + snapshot);
+        } catch (SQLException e) {
+            System.err.println("Error refreshing menu catalog, will reload on next read: " + e.getMessage());
+            current.set(null);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    // Must hold refreshLock
+    private static CatalogSnapshot load() throws SQLException {
+        // Read the version first: a change committed during the load shows up as a
+        // newer version at the next check, so it is never missed
+        long databaseVersion;
+        try {
+            databaseVersion = versionDAO.getVersion();
+        } catch (SQLException e) {
+            System.err.println("Error reading the menu version: " + e.getMessage());
+            databaseVersion = -1;
+        }
+
+        List<Category> categories = new CategoryDAO().findAll();
+        List<Pizza> pizzas = new PizzaDAO().findAll();
+        List<Topping> toppings = new ToppingDAO().findAll();
+        CatalogSnapshot snapshot = new CatalogSnapshot(versions.incrementAndGet(), pizzas, categories, toppings);
+        loadedDatabaseVersion = databaseVersion;
+        return snapshot;
+    }
+}
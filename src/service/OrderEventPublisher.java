@@ -0,0 +1,82 @@
+package service;
+
+import model.Order;
+import util.SseHub;
+
+/**
+ * Pushes order changes to the browsers watching them over Server-Sent Events
+ */
+public final class OrderEventPublisher {
+
+    /**
+     * Streams of customers, keyed by user ID
+     */
+    public static final SseHub CUSTOMER_STREAMS = new SseHub("customers");
+
+    /**
+     * Streams of delivery persons, keyed by user ID
+     */
+    public static final SseHub RIDER_STREAMS = new SseHub("riders");
+
+    private OrderEventPublisher() {
+    }
+
+    /**
+     * Publishes a change of an order to its customer and to the delivery persons
+     * it is, or was, assigned to
+     *
+     * @param order The order, with its new status and delivery person set
+     * @param previousStatus The status before the change
+     * @param previousRiderId The delivery person assigned before the change, or null
+     */
+    public static void orderChanged(Order order, String previousStatus, Integer previousRiderId) {
+        String json = toJson(order, previousStatus);
+        if (CUSTOMER_STREAMS.hasSubscribers(order.getUserId())) {
+            CUSTOMER_STREAMS.publish(order.getUserId(), "order-status", json);
+        }
+
+        Integer riderId = order.getAssignedToUserId();
+        if (riderId != null && RIDER_STREAMS.hasSubscribers(riderId)) {
+            boolean newlyAssigned = !riderId.equals(previousRiderId);
+            RIDER_STREAMS.publish(riderId, newlyAssigned ? "order-assigned" : "order-status", json);
+        }
+        if (previousRiderId != null && !previousRiderId.equals(riderId)
+                && RIDER_STREAMS.hasSubscribers(previousRiderId)) {
+            RIDER_STREAMS.publish(previousRiderId, "order-unassigned", json);
+        }
+    }
+
+    static String toJson(Order order, String previousStatus) {
+        StringBuilder json = new StringBuilder("{");
+        json.append("\"orderId\":").append(order.getId()).append(",");
+        json.append("\"status\":").append(quote(order.getOrderStatus())).append(",");
+        json.append("\"previousStatus\":").append(quote(previousStatus)).append(",");
+        json.append("\"deliveryPersonName\":").append(quote(order.getDeliveryPersonName())).append(",");
+        json.append("\"timestamp\":").append(System.currentTimeMillis());
+        json.append("}");
+        return json.toString();
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
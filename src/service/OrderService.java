@@ -2,13 +2,22 @@ package service;
 
 import java.math.BigDecimal;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import dao.OrderDAO;
+import dao.OrderFetchPlan;
 import dao.PizzaDAO;
 import dao.UserDAO;
+import model.DashboardStats;
 import model.Order;
+import model.OrderFilter;
 import model.OrderItem;
+import model.OrderPage;
+import model.OrderStatus;
 import model.Pizza;
 import model.User;
 import util.NotificationUtil;
@@ -16,6 +25,9 @@ import util.NotificationUtil;
  * Service for handling order-related business logic
  */
 public class OrderService {    
+    private static final String CONCURRENT_CHANGE_MESSAGE = 
+            "The order was changed by someone else in the meantime. Please reload it and try again.";
+    
     private final OrderDAO orderDAO;
     private final PizzaDAO pizzaDAO;
     private final UserDAO userDAO;
@@ -74,7 +86,9 @@ public class OrderService {
             order.setOrderStatus("PLACED");
             
             // Create the order (this will also create order items)
-            return orderDAO.createOrder(order);
+            Order created = orderDAO.createOrder(order);
+            OrderStatsCounter.orderPlaced(created);
+            return created;
         } catch (SQLException e) {
             throw new ServiceException("Error placing order", e);
         }
@@ -120,30 +134,8 @@ public class OrderService {
         try {
             List<Order> orders = orderDAO.findAll();
             
-            // Loop through orders to add delivery person names
-            for (Order order : orders) {
-                // Skip null order records (shouldn't happen, but just in case)
-                if (order == null) {
-                    continue;
-                }
-                
-                Integer deliveryPersonId = order.getDeliveryPersonId();
-                if (deliveryPersonId != null) {
-                    try {
-                        User deliveryPerson = userDAO.findById(deliveryPersonId);
-                        if (deliveryPerson != null) {
-                            order.setDeliveryPersonName(deliveryPerson.getFullName());
-                        } else {
-                            order.setDeliveryPersonName("Unknown Delivery Person");
-                        }
-                    } catch (SQLException ex) {
-                        order.setDeliveryPersonName("Delivery Person");
-                    }
-                } else {
-                    // Ensure not null for JSP display
-                    order.setDeliveryPersonName(null);
-                }
-            }
+            // Add delivery person names
+            populateDeliveryPersonNames(orders);
             
             return orders;
         } catch (SQLException e) {
@@ -152,6 +144,63 @@ public class OrderService {
             throw new ServiceException("Unexpected error getting all orders", e);
         }
     }
+    /**
+     * Gets one bounded page of orders, newest first
+     * 
+     * @param filter Status and date filters, may be null
+     * @param afterCursor Cursor of the last order on the previous page, to page towards older orders
+     * @param beforeCursor Cursor of the first order on the current page, to page back towards newer orders
+     * @param pageSize Maximum number of orders on the page
+     * @return The page with cursors for the neighbouring pages
+     * @throws ValidationException If the status filter is invalid
+     * @throws ServiceException If a service error occurs
+     */
+    public OrderPage getOrdersPage(OrderFilter filter, String afterCursor, String beforeCursor, int pageSize) 
+            throws ValidationException, ServiceException {
+        if (filter != null && filter.getStatus() != null) {
+            validateOrderStatus(filter.getStatus());
+        }
+        
+        int limit = Math.max(1, Math.min(pageSize, 100));
+        OrderPage.Cursor before = OrderPage.Cursor.decode(beforeCursor);
+        OrderPage.Cursor after = before == null ? OrderPage.Cursor.decode(afterCursor) : null;
+        
+        try {
+            List<Order> orders = orderDAO.findPage(filter, before != null ? before : after, before != null, limit);
+            
+            if (before != null && orders.isEmpty()) {
+                // Nothing newer left (e.g. orders were deleted), start over from the first page
+                return getOrdersPage(filter, null, null, limit);
+            }
+            
+            boolean more = orders.size() > limit;
+            if (more) {
+                // Drop the look-ahead row
+                orders.remove(before != null ? 0 : orders.size() - 1);
+            }
+            
+            String nextCursor = null;
+            String previousCursor = null;
+            if (!orders.isEmpty()) {
+                Order first = orders.get(0);
+                Order last = orders.get(orders.size() - 1);
+                if (before != null) {
+                    nextCursor = OrderPage.Cursor.of(last).encode();
+                    previousCursor = more ? OrderPage.Cursor.of(first).encode() : null;
+                } else {
+                    nextCursor = more ? OrderPage.Cursor.of(last).encode() : null;
+                    previousCursor = after != null ? OrderPage.Cursor.of(first).encode() : null;
+                }
+            }
+            
+            populateDeliveryPersonNames(orders);
+            
+            return new OrderPage(orders, nextCursor, previousCursor);
+        } catch (SQLException e) {
+            throw new ServiceException("Error getting page of orders", e);
+        }
+    }
+    
       /**
      * Gets all orders for a specific user
      * 
@@ -162,23 +211,8 @@ public class OrderService {
         try {
             List<Order> orders = orderDAO.findByUserId(userId);
             
-            // Loop through orders to add delivery person names
-            for (Order order : orders) {
-                if (order.getDeliveryPersonId() != null) {
-                    try {
-                        User deliveryPerson = userDAO.findById(order.getDeliveryPersonId());
-                        if (deliveryPerson != null) {
-                            order.setDeliveryPersonName(deliveryPerson.getFullName());
-                        } else {
-                            order.setDeliveryPersonName("Unknown Delivery Person");
-                        }
-                    } catch (SQLException ex) {
-                        order.setDeliveryPersonName("Delivery Person");
-                    }
-                } else {
-                    order.setDeliveryPersonName(null);
-                }
-            }
+            // Add delivery person names
+            populateDeliveryPersonNames(orders);
             
             return orders;
         } catch (SQLException e) {
@@ -200,23 +234,88 @@ public class OrderService {
         try {
             // Validate the status
             validateOrderStatus(status);
+            OrderStatus next = OrderStatus.valueOf(status);
             
-            // Check if the order exists
-            Order order = orderDAO.findById(orderId);
+            // Read the header first: CANCELLED can follow several statuses, and the
+            // counters and event streams need the previous one as well as the
+            // customer and total, which this path has no other source for
+            Order order = orderDAO.findById(orderId, OrderFetchPlan.HEADER);
             if (order == null) {
                 throw new ValidationException("Order not found");
             }
             
             // Check if the status transition is valid
-            validateStatusTransition(order.getOrderStatus(), status);
+            OrderStatus current = validateStatusTransition(order.getOrderStatus(), next);
             
-            // Update the order status
-            return orderDAO.updateOrderStatus(orderId, status);
+            // Update the order status, unless someone else changed it since it was read
+            if (!orderDAO.compareAndSetStatus(orderId, current, next, null)) {
+                throw new ValidationException(CONCURRENT_CHANGE_MESSAGE);
+            }
+            order.setOrderStatus(next.name());
+            orderChanged(order, current.name(), order.getAssignedToUserId());
+            return true;
         } catch (SQLException e) {
             throw new ServiceException("Error updating order status", e);
         }
     }
     
+    /**
+     * Propagates a stored change of an order to the dashboard counters, the
+     * active assignment index and the live event streams
+     * 
+     * @param order The order as it is now stored
+     * @param previousStatus The status before the change
+     * @param previousRiderId The delivery person assigned before the change, or null
+     */
+    private void orderChanged(Order order, String previousStatus, Integer previousRiderId) {
+        OrderStatsCounter.statusChanged(order, previousStatus, order.getOrderStatus());
+        ActiveAssignmentIndex.update(order);
+        OrderEventPublisher.orderChanged(order, previousStatus, previousRiderId);
+    }
+    
+    /**
+     * Sets the delivery person name on each order, loading all referenced
+     * delivery persons with a single query
+     * 
+     * @param orders The orders to populate
+     */
+    private void populateDeliveryPersonNames(List<Order> orders) {
+        Set<Integer> deliveryPersonIds = new HashSet<>();
+        for (Order order : orders) {
+            if (order != null && order.getDeliveryPersonId() != null) {
+                deliveryPersonIds.add(order.getDeliveryPersonId());
+            }
+        }
+        
+        Map<Integer, User> deliveryPersons = null;
+        if (!deliveryPersonIds.isEmpty()) {
+            try {
+                deliveryPersons = userDAO.findByIds(deliveryPersonIds);
+            } catch (SQLException ex) {
+                System.err.println("Error loading delivery persons: " + ex.getMessage());
+            }
+        }
+        
+        for (Order order : orders) {
+            // Skip null order records (shouldn't happen, but just in case)
+            if (order == null) {
+                continue;
+            }
+            
+            Integer deliveryPersonId = order.getDeliveryPersonId();
+            if (deliveryPersonId == null) {
+                // Ensure not null for JSP display
+                order.setDeliveryPersonName(null);
+            } else if (deliveryPersons == null) {
+                order.setDeliveryPersonName("Delivery Person");
+            } else {
+                User deliveryPerson = deliveryPersons.get(deliveryPersonId);
+                order.setDeliveryPersonName(deliveryPerson != null ? 
+                    deliveryPerson.getFullName() : "Unknown Delivery Person");
+            }
+        }
+    }
+    
     /**
      * Validates an order
      * 
@@ -262,17 +361,7 @@ public class OrderService {
      */
     private void validateOrderStatus(String status) throws ValidationException {
         // Check that the status is one of the allowed values
-        String[] allowedStatuses = {"PLACED", "PREPARING", "READY", "OUT_FOR_DELIVERY", "DELIVERED", "CANCELLED"};
-        boolean valid = false;
-        
-        for (String allowedStatus : allowedStatuses) {
-            if (allowedStatus.equals(status)) {
-                valid = true;
-                break;
-            }
-        }
-        
-        if (!valid) {
+        if (OrderStatus.parse(status) == null) {
             throw new ValidationException("Invalid order status");
         }
     }
@@ -280,40 +369,31 @@ public class OrderService {
     /**
      * Validates that a status transition is allowed
      * 
-     * @param currentStatus The current status
+     * @param currentStatus The current status, as stored
      * @param newStatus The new status
+     * @return The current status
      * @throws ValidationException If the transition is not allowed
      */
-    private void validateStatusTransition(String currentStatus, String newStatus) throws ValidationException {
-        // Define allowed transitions
-        // This is a simplified version; a real implementation might use a state machine or a transition matrix
-        
-        if (currentStatus.equals("CANCELLED") || currentStatus.equals("DELIVERED")) {
-            // Terminal states
-            throw new ValidationException("Cannot change status of a " + currentStatus + " order");
+    private OrderStatus validateStatusTransition(String currentStatus, OrderStatus newStatus) 
+            throws ValidationException {
+        OrderStatus current = OrderStatus.parse(currentStatus);
+        if (current == null) {
+            throw new ValidationException("Order has an unknown status: " + currentStatus);
         }
-        
-        if (currentStatus.equals("PLACED")) {
-            // From PLACED, can go to PREPARING or CANCELLED
-            if (!newStatus.equals("PREPARING") && !newStatus.equals("CANCELLED")) {
-                throw new ValidationException("From PLACED status, order can only move to PREPARING or CANCELLED");
-            }
-        } else if (currentStatus.equals("PREPARING")) {
-            // From PREPARING, can go to READY or CANCELLED
-            if (!newStatus.equals("READY") && !newStatus.equals("CANCELLED")) {
-                throw new ValidationException("From PREPARING status, order can only move to READY or CANCELLED");
-            }
-        } else if (currentStatus.equals("READY")) {
-            // From READY, can go to OUT_FOR_DELIVERY or CANCELLED
-            if (!newStatus.equals("OUT_FOR_DELIVERY") && !newStatus.equals("CANCELLED")) {
-                throw new ValidationException("From READY status, order can only move to OUT_FOR_DELIVERY or CANCELLED");
-            }
-        } else if (currentStatus.equals("OUT_FOR_DELIVERY")) {
-            // From OUT_FOR_DELIVERY, can go to DELIVERED or CANCELLED
-            if (!newStatus.equals("DELIVERED") && !newStatus.equals("CANCELLED")) {
-                throw new ValidationException("From OUT_FOR_DELIVERY status, order can only move to DELIVERED or CANCELLED");
+        if (current.isTerminal()) {
+            throw new ValidationException("Cannot change status of a " + current + " order");
+        }
+        if (!current.canTransitionTo(newStatus)) {
+            StringBuilder allowed = new StringBuilder();
+            for (OrderStatus next : current.getNextStatuses()) {
+                if (allowed.length() > 0) {
+                    allowed.append(" or ");
+                }
+                allowed.append(next);
             }
+            throw new ValidationException("From " + current + " status, order can only move to " + allowed);
         }
+        return current;
     }
 
     /**
@@ -328,38 +408,54 @@ public class OrderService {
     public boolean assignOrderToDeliveryPerson(int orderId, int deliveryPersonId) 
             throws ValidationException, ServiceException {
         try {
-            // Get the order
-            Order order = orderDAO.findById(orderId);
+            // Get the order; only its header is needed
+            Order order = orderDAO.findById(orderId, OrderFetchPlan.HEADER);
             if (order == null) {
                 throw new ValidationException("Order not found");
             }
+            OrderStatus previousStatus = OrderStatus.parse(order.getOrderStatus());
+            if (previousStatus == null || previousStatus.isTerminal()) {
+                throw new ValidationException("Cannot assign a " + order.getOrderStatus() + " order");
+            }
             
             // Get the delivery person
             User deliveryPerson = userDAO.findById(deliveryPersonId);
             if (deliveryPerson == null) {
                 throw new ValidationException("Delivery person not found");
             }
-              // Validate delivery person role
+            
+            // Validate delivery person role
             String role = deliveryPerson.getRole();
             if (!User.ROLE_DELIVERY.equals(role) && !User.ROLE_DELIVERY_PERSON.equals(role)) {
-                System.err.println("DEBUG: Invalid delivery person role: " + role);
                 throw new ValidationException("Selected user is not a delivery person");
-            } else {
-                System.out.println("DEBUG: Valid delivery person role: " + role);
-            }// Update the order with the delivery person
-            order.setDeliveryPersonId(deliveryPersonId);
-            order.setAssignedToUserId(deliveryPersonId);
-            
-            // Set the delivery person name
-            order.setDeliveryPersonName(deliveryPerson.getFullName());
+            }
             
             // If order is ready and not yet dispatched, update status to out for delivery
-            if ("READY".equals(order.getOrderStatus())) {
-                order.setOrderStatus("OUT_FOR_DELIVERY");
+            OrderStatus newStatus = previousStatus == OrderStatus.READY 
+                    ? OrderStatus.OUT_FOR_DELIVERY : previousStatus;
+            
+            // Assign in one statement, unless the status or the assignment changed since
+            // they were read; otherwise the displaced rider would never be told
+            Integer previousRiderId = order.getAssignedToUserId();
+            if (!orderDAO.assignDeliveryPerson(orderId, deliveryPersonId, previousStatus,
+                    previousRiderId, newStatus)) {
+                throw new ValidationException(CONCURRENT_CHANGE_MESSAGE);
             }
             
-            // Update the order
-            return orderDAO.updateOrder(order);
+            if (previousRiderId == null) {
+                // Not in the assignment index yet, so the new rider's dashboard needs
+                // the address and items; reassignments carry over the indexed copy
+                Order details = orderDAO.findById(orderId, OrderFetchPlan.WITH_ITEMS);
+                if (details != null) {
+                    order = details;
+                }
+            }
+            order.setDeliveryPersonId(deliveryPersonId);
+            order.setAssignedToUserId(deliveryPersonId);
+            order.setDeliveryPersonName(deliveryPerson.getFullName());
+            order.setOrderStatus(newStatus.name());
+            orderChanged(order, previousStatus.name(), previousRiderId);
+            return true;
             
         } catch (SQLException e) {
             throw new ServiceException("Error assigning order to delivery person", e);
@@ -367,7 +463,37 @@ public class OrderService {
     }
     
     /**
-     * Marks an order as out for delivery
+     * Assigns a READY order to a delivery person and sends it out for delivery, unless
+     * someone else assigned it first. Used by {@link DispatchScheduler}; unlike
+     * {@link #assignOrderToDeliveryPerson} it never overwrites an existing assignment.
+     * 
+     * @param orderId The ID of the order
+     * @param deliveryPerson The delivery person
+     * @return true if the order was assigned by this call
+     * @throws ServiceException If a service error occurs
+     */
+    public boolean dispatchReadyOrder(int orderId, User deliveryPerson) throws ServiceException {
+        try {
+            if (!orderDAO.assignReadyOrder(orderId, deliveryPerson.getId())) {
+                return false;
+            }
+            
+            // Reload for the listeners, which need the items and the assignment time
+            Order order = orderDAO.findById(orderId);
+            if (order != null) {
+                order.setDeliveryPersonName(deliveryPerson.getFullName());
+                orderChanged(order, "READY", null);
+            }
+            return true;
+        } catch (SQLException e) {
+            throw new ServiceException("Error dispatching order", e);
+        }
+    }
+    
+    /**
+     * Marks an order as out for delivery. On success this is a single UPDATE: its
+     * conditions check the status and the assignment, and the rest of the order
+     * comes from the active assignment index.
      * 
      * @param orderId The ID of the order
      * @param deliveryPersonId The ID of the delivery person (for validation)
@@ -378,79 +504,174 @@ public class OrderService {
     public boolean markOrderOutForDelivery(int orderId, int deliveryPersonId) 
             throws ValidationException, ServiceException {
         try {
-            // Check if the order exists and is assigned to this delivery person
-            Order order = orderDAO.findById(orderId);
-            if (order == null) {
-                throw new ValidationException("Order not found");
-            }
-            
-            if (order.getAssignedToUserId() == null || order.getAssignedToUserId() != deliveryPersonId) {
-                throw new ValidationException("This order is not assigned to you");
-            }
-            
-            if (!"READY".equals(order.getOrderStatus())) {
-                throw new ValidationException("Order is not ready for delivery");
+            // Update the order status only if it is READY and assigned to this delivery person
+            if (!orderDAO.compareAndSetStatus(orderId, OrderStatus.READY, OrderStatus.OUT_FOR_DELIVERY, 
+                    deliveryPersonId)) {
+                throw new ValidationException(explainRejectedRiderChange(orderId, deliveryPersonId, 
+                        OrderStatus.READY, "Order is not ready for delivery"));
             }
-            
-            // Update the order status
-            return orderDAO.updateOrderStatus(orderId, "OUT_FOR_DELIVERY");
+            Order order = changedAssignedOrder(orderId, deliveryPersonId, OrderStatus.OUT_FOR_DELIVERY);
+            orderChanged(order, "READY", deliveryPersonId);
+            return true;
         } catch (SQLException e) {
             throw new ServiceException("Error marking order as out for delivery", e);
         }
     }
 
     /**
-     * Marks an order as delivered
+     * Marks an order as delivered. Like {@link #markOrderOutForDelivery}, a single
+     * UPDATE on success.
      * 
      * @param orderId The ID of the order
      * @param deliveryPersonId The ID of the delivery person (for validation)
      * @return true if update was successful, false otherwise
      * @throws ValidationException If validation fails
      * @throws ServiceException If a service error occurs
-     */    public boolean markOrderDelivered(int orderId, int deliveryPersonId) 
+     */
+    public boolean markOrderDelivered(int orderId, int deliveryPersonId) 
             throws ValidationException, ServiceException {
         try {
-            // Check if the order exists and is assigned to this delivery person
-            Order order = orderDAO.findById(orderId);
-            if (order == null) {
-                throw new ValidationException("Order not found");
+            // Update the order status and set delivered_at, only if it is out for
+            // delivery with this delivery person
+            if (!orderDAO.compareAndSetStatus(orderId, OrderStatus.OUT_FOR_DELIVERY, 
+                    OrderStatus.DELIVERED, deliveryPersonId)) {
+                throw new ValidationException(explainRejectedRiderChange(orderId, deliveryPersonId, 
+                        OrderStatus.OUT_FOR_DELIVERY, "Order is not out for delivery"));
             }
+            Order order = changedAssignedOrder(orderId, deliveryPersonId, OrderStatus.DELIVERED);
+            orderChanged(order, "OUT_FOR_DELIVERY", deliveryPersonId);
             
-            if (order.getAssignedToUserId() == null || order.getAssignedToUserId() != deliveryPersonId) {
-                throw new ValidationException("This order is not assigned to you");
+            // Get the delivery person name for the notification
+            String deliveryPersonName = order.getDeliveryPersonName();
+            if (deliveryPersonName == null) {
+                User deliveryPerson = userDAO.findById(deliveryPersonId);
+                deliveryPersonName = deliveryPerson != null ? 
+                    deliveryPerson.getFullName() : "Delivery Person";
             }
             
-            if (!"OUT_FOR_DELIVERY".equals(order.getOrderStatus())) {
-                throw new ValidationException("Order is not out for delivery");
-            }
+            // Send notification about the order delivery
+            util.NotificationUtil.sendOrderNotification(
+                order,
+                "success",
+                "Your order has been delivered by " + deliveryPersonName
+            );
             
-            // Get the delivery person name for the notification
-            User deliveryPerson = userDAO.findById(deliveryPersonId);
-            String deliveryPersonName = deliveryPerson != null ? 
-                deliveryPerson.getFullName() : "Delivery Person";
-
-            // Update the order status and set delivered_at timestamp
-            boolean success = orderDAO.markOrderDelivered(orderId);
-            
-            if (success) {
-                // Send notification about the order delivery
-                order.setOrderStatus("DELIVERED"); // Update the local object to reflect the new status
-                util.NotificationUtil.sendOrderNotification(
-                    order,
-                    "success",
-                    "Your order has been delivered by " + deliveryPersonName
-                );
-                
-                System.out.println("DEBUG: Order #" + orderId + " marked as delivered by " 
-                    + deliveryPersonName);
-            }
+            System.out.println("DEBUG: Order #" + orderId + " marked as delivered by " 
+                + deliveryPersonName);
             
-            return success;
+            return true;
         } catch (SQLException e) {
             throw new ServiceException("Error marking order as delivered", e);
         }
     }
+    
+    /**
+     * Builds the order as it is after a delivery person changed its status. The
+     * customer, total and address never change, so they are taken from the active
+     * assignment index; the order is only read if this node has not indexed it.
+     * 
+     * @param orderId The ID of the order
+     * @param deliveryPersonId The delivery person the order is assigned to
+     * @param status The status just stored
+     * @return The order
+     * @throws SQLException If a database error occurs
+     */
+    private Order changedAssignedOrder(int orderId, int deliveryPersonId, OrderStatus status) 
+            throws SQLException {
+        Order indexed = ActiveAssignmentIndex.getActiveOrder(deliveryPersonId, orderId);
+        if (indexed == null) {
+            Order order = orderDAO.findById(orderId, OrderFetchPlan.HEADER);
+            if (order != null) {
+                return order;
+            }
+            // Deleted right after the update; report what is known
+            order = new Order();
+            order.setId(orderId);
+            order.setAssignedToUserId(deliveryPersonId);
+            order.setDeliveryPersonId(deliveryPersonId);
+            order.setOrderStatus(status.name());
+            return order;
+        }
+        
+        // A new object, the indexed orders are shared and read-only
+        Order order = new Order();
+        order.setId(indexed.getId());
+        order.setUserId(indexed.getUserId());
+        order.setTotalAmount(indexed.getTotalAmount());
+        order.setDeliveryAddress(indexed.getDeliveryAddress());
+        order.setContactNumber(indexed.getContactNumber());
+        order.setCreatedAt(indexed.getCreatedAt());
+        order.setAssignedAt(indexed.getAssignedAt());
+        order.setAssignedToUserId(deliveryPersonId);
+        order.setDeliveryPersonId(deliveryPersonId);
+        order.setDeliveryPersonName(indexed.getDeliveryPersonName());
+        order.setOrderItems(indexed.getOrderItems());
+        order.setOrderStatus(status.name());
+        if (status == OrderStatus.DELIVERED) {
+            order.setDeliveredAt(new Timestamp(System.currentTimeMillis()));
+        }
+        return order;
+    }
+    
+    /**
+     * Reads an order after a delivery person's status change was refused, to tell
+     * them why
+     * 
+     * @param orderId The ID of the order
+     * @param deliveryPersonId The delivery person who tried the change
+     * @param expected The status the order needed to have
+     * @param wrongStatusMessage The message if the order has another status
+     * @return The message to show
+     * @throws SQLException If a database error occurs
+     */
+    private String explainRejectedRiderChange(int orderId, int deliveryPersonId, OrderStatus expected,
+            String wrongStatusMessage) throws SQLException {
+        Order order = orderDAO.findById(orderId, OrderFetchPlan.HEADER);
+        if (order == null) {
+            return "Order not found";
+        }
+        if (order.getAssignedToUserId() == null || order.getAssignedToUserId() != deliveryPersonId) {
+            return "This order is not assigned to you";
+        }
+        if (!expected.name().equals(order.getOrderStatus())) {
+            return wrongStatusMessage;
+        }
+        // Changed back between the update and this read
+        return CONCURRENT_CHANGE_MESSAGE;
+    }
 
+    /**
+     * Gets the orders a delivery person still has to deliver, from the in-memory index
+     * 
+     * @param deliveryPersonId The delivery person ID
+     * @return List of active orders, newest first
+     * @throws ServiceException If a service error occurs
+     */
+    public List<Order> getActiveOrdersByDeliveryPerson(int deliveryPersonId) throws ServiceException {
+        try {
+            return ActiveAssignmentIndex.getActiveOrders(deliveryPersonId);
+        } catch (SQLException e) {
+            throw new ServiceException("Error getting active orders for delivery person", e);
+        }
+    }
+    
+    /**
+     * Gets the most recent delivered or cancelled orders of a delivery person
+     * 
+     * @param deliveryPersonId The delivery person ID
+     * @param limit The maximum number of orders to return
+     * @return List of finished orders, newest first
+     * @throws ServiceException If a service error occurs
+     */
+    public List<Order> getFinishedOrdersByDeliveryPerson(int deliveryPersonId, int limit) throws ServiceException {
+        try {
+            // The dashboard shows the address and item count, not the items
+            return orderDAO.findFinishedByDeliveryPersonId(deliveryPersonId, limit, OrderFetchPlan.ROW);
+        } catch (SQLException e) {
+            throw new ServiceException("Error getting finished orders for delivery person", e);
+        }
+    }
+    
     /**
      * Gets all orders assigned to a specific delivery person
      * 
@@ -509,6 +730,20 @@ public class OrderService {
         }
     }
     
+    /**
+     * Gets the order and revenue statistics for the admin dashboard from the live counters
+     * 
+     * @return Statistics with the order and revenue fields filled in
+     * @throws ServiceException If a service error occurs
+     */
+    public DashboardStats getDashboardStats() throws ServiceException {
+        try {
+            return OrderStatsCounter.getStats();
+        } catch (SQLException e) {
+            throw new ServiceException("Error loading dashboard statistics", e);
+        }
+    }
+    
     /**
      * Calculates the total revenue from all orders
      * 
@@ -0,0 +1,330 @@
+package service;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import dao.OrderDAO;
+import model.DashboardStats;
+import model.Order;
+
+/**
+ * Live order counters for the admin dashboard.
+ *
+ * The counters are seeded once from the database and then kept up to date by
+ * {@link OrderService} as orders are placed and change status, so reading them
+ * never touches the database. A periodic reconciliation reloads the counters
+ * from SQL and corrects any drift, e.g. from changes made outside the service.
+ */
+public final class OrderStatsCounter {
+
+    private static final String[] STATUSES = {
+        "PLACED", "PREPARING", "READY", "OUT_FOR_DELIVERY", "DELIVERED", "CANCELLED"
+    };
+
+    private static final ReentrantLock lock = new ReentrantLock();
+
+    // Guarded by lock; null until seeded
+    private static Counts counts;
+
+    // Bumped on every change so reconciliation can tell if it raced with one
+    private static long modifications;
+
+    private static ScheduledExecutorService reconciler;
+
+    private OrderStatsCounter() {
+    }
+
+    /**
+     * Gets the current order and revenue statistics, seeding the counters on first use
+     *
+     * @return A new statistics object with the order and revenue fields filled in
+     * @throws SQLException If the counters have to be seeded and a database error occurs
+     */
+    public static DashboardStats getStats() throws SQLException {
+        lock.lock();
+        try {
+            if (counts == null) {
+                counts = load();
+                modifications++;
+            }
+            return counts.toStats(LocalDate.now());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records a newly placed order
+     *
+     * @param order The created order
+     */
+    public static void orderPlaced(Order order) {
+        lock.lock();
+        try {
+            if (counts == null) {
+                return;
+            }
+            counts.totalOrders++;
+            counts.adjustStatus(order.getOrderStatus(), 1);
+            if (!"CANCELLED".equals(order.getOrderStatus())) {
+                counts.adjustRevenue(creationDay(order), order.getTotalAmount());
+            }
+            modifications++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records a status change of an existing order
+     *
+     * @param order The order; its amount and creation time are used for revenue
+     * @param oldStatus The status before the change
+     * @param newStatus The status after the change
+     */
+    public static void statusChanged(Order order, String oldStatus, String newStatus) {
+        if (Objects.equals(oldStatus, newStatus)) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (counts == null) {
+                return;
+            }
+            counts.adjustStatus(oldStatus, -1);
+            counts.adjustStatus(newStatus, 1);
+
+            boolean wasCancelled = "CANCELLED".equals(oldStatus);
+            boolean isCancelled = "CANCELLED".equals(newStatus);
+            if (isCancelled && !wasCancelled) {
+                counts.adjustRevenue(creationDay(order), negate(order.getTotalAmount()));
+            } else if (wasCancelled && !isCancelled) {
+                counts.adjustRevenue(creationDay(order), order.getTotalAmount());
+            }
+            modifications++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reloads the counters from the database and replaces them if they drifted.
+     * If an order changed while the reload was running the correction is skipped
+     * and left to the next run.
+     */
+    public static void reconcile() {
+        long before;
+        lock.lock();
+        try {
+            before = modifications;
+        } finally {
+            lock.unlock();
+        }
+
+        Counts fresh;
+        try {
+            fresh = load();
+        } catch (SQLException e) {
+            System.err.println("Error reconciling order counters: " + e.getMessage());
+            return;
+        }
+
+        lock.lock();
+        try {
+            if (modifications != before) {
+                System.out.println("Order counters changed during reconciliation, retrying on next run");
+                return;
+            }
+            if (counts != null) {
+                counts.prune(weekStart(LocalDate.now()));
+            }
+            if (counts != null && !counts.equals(fresh)) {
+                System.err.println("Order counters drifted, correcting. Was " + counts + ", now " + fresh);
+            }
+            counts = fresh;
+            modifications++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Starts the periodic reconciliation job
+     *
+     * @param intervalSeconds Seconds between runs
+     */
+    public static synchronized void startReconciliation(long intervalSeconds) {
+        if (reconciler != null) {
+            return;
+        }
+        reconciler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "order-stats-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reconciler.scheduleWithFixedDelay(OrderStatsCounter::reconcile,
+                0, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the reconciliation job
+     */
+    public static synchronized void shutdown() {
+        if (reconciler != null) {
+            reconciler.shutdownNow();
+            reconciler = null;
+        }
+    }
+
+    private static Counts load() throws SQLException {
+        OrderDAO orderDAO = new OrderDAO();
+        DashboardStats stats = new DashboardStats();
+        orderDAO.loadDashboardStats(stats);
+
+        Counts loaded = new Counts();
+        loaded.byStatus.put("PLACED", (long) stats.getPendingOrders());
+        loaded.byStatus.put("PREPARING", (long) stats.getPreparingOrders());
+        loaded.byStatus.put("READY", (long) stats.getReadyOrders());
+        loaded.byStatus.put("OUT_FOR_DELIVERY", (long) stats.getActiveDeliveries());
+        loaded.byStatus.put("DELIVERED", (long) stats.getCompletedOrders());
+        loaded.byStatus.put("CANCELLED", (long) stats.getCancelledOrders());
+        loaded.totalOrders = stats.getTotalOrders();
+        loaded.totalRevenue = stats.getTotalRevenue();
+
+        LocalDate weekStart = weekStart(LocalDate.now());
+        loaded.revenueByDay.putAll(orderDAO.sumRevenueByDaySince(Timestamp.valueOf(weekStart.atStartOfDay())));
+        return loaded;
+    }
+
+    private static LocalDate creationDay(Order order) {
+        return order.getCreatedAt() != null
+                ? order.getCreatedAt().toLocalDateTime().toLocalDate()
+                : LocalDate.now();
+    }
+
+    private static LocalDate weekStart(LocalDate day) {
+        return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    private static BigDecimal negate(BigDecimal amount) {
+        return amount != null ? amount.negate() : null;
+    }
+
+    /**
+     * Mutable counter state, only touched while holding the lock
+     */
+    private static final class Counts {
+        private final Map<String, Long> byStatus = new HashMap<>();
+        private final Map<LocalDate, BigDecimal> revenueByDay = new HashMap<>();
+        private long totalOrders;
+        private BigDecimal totalRevenue = BigDecimal.ZERO;
+
+        void adjustStatus(String status, long delta) {
+            if (status != null) {
+                byStatus.merge(status, delta, Long::sum);
+            }
+        }
+
+        void adjustRevenue(LocalDate day, BigDecimal amount) {
+            if (amount == null) {
+                return;
+            }
+            totalRevenue = totalRevenue.add(amount);
+            revenueByDay.merge(day, amount, BigDecimal::add);
+        }
+
+        // Days before the current week are no longer needed
+        void prune(LocalDate weekStart) {
+            Iterator<LocalDate> days = revenueByDay.keySet().iterator();
+            while (days.hasNext()) {
+                if (days.next().isBefore(weekStart)) {
+                    days.remove();
+                }
+            }
+        }
+
+        DashboardStats toStats(LocalDate today) {
+            LocalDate weekStart = weekStart(today);
+            prune(weekStart);
+
+            BigDecimal weekly = BigDecimal.ZERO;
+            for (Map.Entry<LocalDate, BigDecimal> entry : revenueByDay.entrySet()) {
+                if (entry.getKey().isBefore(weekStart.plusDays(7))) {
+                    weekly = weekly.add(entry.getValue());
+                }
+            }
+
+            DashboardStats stats = new DashboardStats();
+            stats.setTotalOrders((int) totalOrders);
+            stats.setPendingOrders(count("PLACED"));
+            stats.setPreparingOrders(count("PREPARING"));
+            stats.setReadyOrders(count("READY"));
+            stats.setActiveDeliveries(count("OUT_FOR_DELIVERY"));
+            stats.setCompletedOrders(count("DELIVERED"));
+            stats.setCancelledOrders(count("CANCELLED"));
+            stats.setTotalRevenue(totalRevenue);
+            stats.setTodayRevenue(revenueByDay.getOrDefault(today, BigDecimal.ZERO));
+            stats.setWeeklyRevenue(weekly);
+            return stats;
+        }
+
+        private int count(String status) {
+            return byStatus.getOrDefault(status, 0L).intValue();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Counts)) {
+                return false;
+            }
+            Counts other = (Counts) o;
+            for (String status : STATUSES) {
+                if (count(status) != other.count(status)) {
+                    return false;
+                }
+            }
+            return totalOrders == other.totalOrders
+                    && totalRevenue.compareTo(other.totalRevenue) == 0
+                    && sameRevenue(revenueByDay, other.revenueByDay);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(totalOrders, totalRevenue.stripTrailingZeros());
+        }
+
+        private static boolean sameRevenue(Map<LocalDate, BigDecimal> a, Map<LocalDate, BigDecimal> b) {
+            for (LocalDate day : a.keySet()) {
+                if (a.get(day).compareTo(b.getOrDefault(day, BigDecimal.ZERO)) != 0) {
+                    return false;
+                }
+            }
+            for (LocalDate day : b.keySet()) {
+                if (b.get(day).compareTo(a.getOrDefault(day, BigDecimal.ZERO)) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "{orders=" + totalOrders + ", byStatus=" + byStatus + ", revenue=" + totalRevenue + "}";
+        }
+    }
+}
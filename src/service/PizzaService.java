@@ -40,7 +40,9 @@ public class PizzaService {
             }
             
             // Create the pizza in the database
-            return pizzaDAO.createPizza(pizza);
+            Pizza created = pizzaDAO.createPizza(pizza);
+            MenuCatalog.refresh();
+            return created;
         } catch (SQLException e) {
             throw new ServiceException("Error creating pizza", e);
         }
@@ -54,6 +56,22 @@ public class PizzaService {
      * @throws ServiceException If a service error occurs
      */
     public Pizza getPizzaById(int id) throws ServiceException {
+        try {
+            return MenuCatalog.get().getPizza(id);
+        } catch (SQLException e) {
+            throw new ServiceException("Error getting pizza by ID", e);
+        }
+    }
+    
+    /**
+     * Gets a private, modifiable copy of a pizza straight from the database,
+     * for callers that edit the pizza before saving it
+     * 
+     * @param id The pizza ID
+     * @return The pizza if found, null otherwise
+     * @throws ServiceException If a service error occurs
+     */
+    public Pizza getPizzaForUpdate(int id) throws ServiceException {
         try {
             return pizzaDAO.findById(id);
         } catch (SQLException e) {
@@ -69,7 +87,7 @@ public class PizzaService {
      */
     public List<Pizza> getAllPizzas() throws ServiceException {
         try {
-            return pizzaDAO.findAll();
+            return MenuCatalog.get().getPizzas();
         } catch (SQLException e) {
             throw new ServiceException("Error getting all pizzas", e);
         }
@@ -84,7 +102,7 @@ public class PizzaService {
      */
     public List<Pizza> getPizzasByCategory(int categoryId) throws ServiceException {
         try {
-            return pizzaDAO.findByCategory(categoryId);
+            return MenuCatalog.get().getPizzasByCategory(categoryId);
         } catch (SQLException e) {
             throw new ServiceException("Error getting pizzas by category", e);
         }
@@ -98,7 +116,7 @@ public class PizzaService {
      */
     public List<Pizza> getVegetarianPizzas() throws ServiceException {
         try {
-            return pizzaDAO.findVegetarian();
+            return MenuCatalog.get().getVegetarianPizzas();
         } catch (SQLException e) {
             throw new ServiceException("Error getting vegetarian pizzas", e);
         }
@@ -128,7 +146,9 @@ public class PizzaService {
             }
             
             // Update the pizza
-            return pizzaDAO.updatePizza(pizza);
+            boolean updated = pizzaDAO.updatePizza(pizza);
+            MenuCatalog.refresh();
+            return updated;
         } catch (SQLException e) {
             throw new ServiceException("Error updating pizza", e);
         }
@@ -156,7 +176,9 @@ public class PizzaService {
             pizza.setAvailable(isAvailable);
             
             // Update the pizza
-            return pizzaDAO.updatePizza(pizza);
+            boolean updated = pizzaDAO.updatePizza(pizza);
+            MenuCatalog.refresh();
+            return updated;
         } catch (SQLException e) {
             throw new ServiceException("Error updating pizza availability", e);
         }
@@ -171,7 +193,9 @@ public class PizzaService {
      */
     public boolean deletePizza(int id) throws ServiceException {
         try {
-            return pizzaDAO.deletePizza(id);
+            boolean deleted = pizzaDAO.deletePizza(id);
+            MenuCatalog.refresh();
+            return deleted;
         } catch (SQLException e) {
             throw new ServiceException("Error deleting pizza", e);
         }
@@ -185,7 +209,7 @@ public class PizzaService {
      */
     public int countAvailablePizzas() throws ServiceException {
         try {
-            return pizzaDAO.countByAvailability(true);
+            return countByAvailability(true);
         } catch (SQLException e) {
             throw new ServiceException("Error counting available pizzas", e);
         }
@@ -199,7 +223,7 @@ public class PizzaService {
      */
     public int countUnavailablePizzas() throws ServiceException {
         try {
-            return pizzaDAO.countByAvailability(false);
+            return countByAvailability(false);
         } catch (SQLException e) {
             throw new ServiceException("Error counting unavailable pizzas", e);
         }
@@ -213,12 +237,22 @@ public class PizzaService {
      */
     public int countTotalPizzas() throws ServiceException {
         try {
-            return pizzaDAO.countAll();
+            return MenuCatalog.get().getPizzas().size();
         } catch (SQLException e) {
             throw new ServiceException("Error counting total pizzas", e);
         }
     }
     
+    private int countByAvailability(boolean available) throws SQLException {
+        int count = 0;
+        for (Pizza pizza : MenuCatalog.get().getPizzas()) {
+            if (pizza.isAvailable() == available) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
     /**
      * Validates a pizza
      * 
@@ -0,0 +1,46 @@
+package service;
+
+import model.User;
+
+/**
+ * A delivery person and their current load, as seen by {@link DispatchScheduler}
+ * during one dispatch round. The load goes up as the round assigns orders.
+ */
+public class RiderLoad {
+
+    private final User rider;
+    private int activeDeliveries;
+    private long lastAssignedAt;
+
+    public RiderLoad(User rider, int activeDeliveries, long lastAssignedAt) {
+        this.rider = rider;
+        this.activeDeliveries = activeDeliveries;
+        this.lastAssignedAt = lastAssignedAt;
+    }
+
+    public User getRider() {
+        return rider;
+    }
+
+    public int getRiderId() {
+        return rider.getId();
+    }
+
+    public int getActiveDeliveries() {
+        return activeDeliveries;
+    }
+
+    /**
+     * Gets when the rider was last given an order by the dispatcher
+     *
+     * @return Epoch milliseconds, or 0 if never
+     */
+    public long getLastAssignedAt() {
+        return lastAssignedAt;
+    }
+
+    void assigned(long now) {
+        activeDeliveries++;
+        lastAssignedAt = now;
+    }
+}
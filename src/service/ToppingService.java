@@ -31,7 +31,9 @@ public class ToppingService {
             validateTopping(topping);
             
             // Create the topping in the database
-            return toppingDAO.createTopping(topping);
+            Topping created = toppingDAO.createTopping(topping);
+            MenuCatalog.refresh();
+            return created;
         } catch (SQLException e) {
             throw new ServiceException("Error creating topping", e);
         }
@@ -46,7 +48,7 @@ public class ToppingService {
      */
     public Topping getToppingById(int id) throws ServiceException {
         try {
-            return toppingDAO.findById(id);
+            return MenuCatalog.get().getTopping(id);
         } catch (SQLException e) {
             throw new ServiceException("Error getting topping by ID", e);
         }
@@ -60,7 +62,7 @@ public class ToppingService {
      */
     public List<Topping> getAllToppings() throws ServiceException {
         try {
-            return toppingDAO.findAll();
+            return MenuCatalog.get().getToppings();
         } catch (SQLException e) {
             throw new ServiceException("Error getting all toppings", e);
         }
@@ -74,7 +76,7 @@ public class ToppingService {
      */
     public List<Topping> getVegetarianToppings() throws ServiceException {
         try {
-            return toppingDAO.findVegetarian();
+            return MenuCatalog.get().getVegetarianToppings();
         } catch (SQLException e) {
             throw new ServiceException("Error getting vegetarian toppings", e);
         }
@@ -99,7 +101,9 @@ public class ToppingService {
             }
             
             // Update the topping
-            return toppingDAO.updateTopping(topping);
+            boolean updated = toppingDAO.updateTopping(topping);
+            MenuCatalog.refresh();
+            return updated;
         } catch (SQLException e) {
             throw new ServiceException("Error updating topping", e);
         }
@@ -114,7 +118,9 @@ public class ToppingService {
      */
     public boolean deleteTopping(int id) throws ServiceException {
         try {
-            return toppingDAO.deleteTopping(id);
+            boolean deleted = toppingDAO.deleteTopping(id);
+            MenuCatalog.refresh();
+            return deleted;
         } catch (SQLException e) {
             throw new ServiceException("Error deleting topping", e);
         }
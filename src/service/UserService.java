@@ -2,16 +2,21 @@ package service;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 import dao.UserDAO;
 import dao.OrderDAO;
 import model.User;
-import util.PasswordUtils;
+import util.PasswordHasher;
 /**
  * Service for handling user-related business logic
  */
 public class UserService {
     
+    private static final String BUSY_MESSAGE = "The server is busy right now. Please try again in a moment.";
+    
     private final UserDAO userDAO;
     
     public UserService() {
@@ -44,8 +49,7 @@ public class UserService {
             }
             
             // Hash the password before storing
-            String hashedPassword = hashPassword(user.getPassword());
-            user.setPassword(hashedPassword);
+            user.setHashedPassword(hashPassword(user.getPassword()));
             
             // Set default role if not provided
             if (user.getRole() == null || user.getRole().isEmpty()) {
@@ -56,6 +60,8 @@ public class UserService {
             return userDAO.createUser(user);
         } catch (SQLException e) {
             throw new ServiceException("Error registering user", e);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceException(BUSY_MESSAGE, e);
         }
     }
     
@@ -84,9 +90,16 @@ public class UserService {
                 throw new ValidationException("Invalid username or password");
             }
             
+            // Replace SHA-256 or lower-cost hashes now that the plain password is known
+            if (PasswordHasher.needsRehash(user.getPassword())) {
+                upgradePasswordHash(user, password);
+            }
+            
             return user;
         } catch (SQLException e) {
             throw new ServiceException("Error authenticating user", e);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceException(BUSY_MESSAGE, e);
         }
     }
     
@@ -215,6 +228,8 @@ public class UserService {
             return userDAO.updatePassword(userId, hashedPassword);
         } catch (SQLException e) {
             throw new ServiceException("Error updating password", e);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceException(BUSY_MESSAGE, e);
         }
     }
     
@@ -311,6 +326,20 @@ public class UserService {
         }
     }
 
+    /**
+     * Counts users per role
+     * 
+     * @return Map of role to number of users; roles without users are absent
+     * @throws ServiceException If a service error occurs
+     */
+    public Map<String, Integer> countUsersGroupedByRole() throws ServiceException {
+        try {
+            return userDAO.countGroupedByRole();
+        } catch (SQLException e) {
+            throw new ServiceException("Error counting users by role", e);
+        }
+    }
+    
     /**
      * Counts all users
      * 
@@ -337,8 +366,8 @@ public class UserService {
             // Validate user data
             validateUserProfile(user);
             
-            // Update user in database
-            boolean updated = userDAO.updateUser(user);
+            // Update the profile fields only; the password is not part of the profile
+            boolean updated = userDAO.updateProfile(user);
             
             if (updated) {
                 // Return the updated user data
@@ -402,15 +431,32 @@ public class UserService {
         // Validate format - should be 10 digits for Indian numbers
         return cleanNumber.matches("^[6-9]\\d{9}$"); // Indian mobile numbers start with 6, 7, 8, or 9
     }
-      /**
-     * Hashes a password using PasswordUtils
+    /**
+     * Rehashes a password with the configured algorithm and cost. A failure only
+     * means the upgrade is tried again at the next login.
+     * 
+     * @param user The user who just logged in
+     * @param password The verified plain text password
+     */
+    private void upgradePasswordHash(User user, String password) {
+        try {
+            String upgraded = hashPassword(password);
+            if (userDAO.updatePassword(user.getId(), upgraded)) {
+                user.setHashedPassword(upgraded);
+            }
+        } catch (SQLException | RejectedExecutionException e) {
+            System.err.println("Could not upgrade password hash of user " + user.getId() + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Hashes a password on the password hashing pool
      * 
      * @param password The plain text password
      * @return The hashed password
      */
     private String hashPassword(String password) {
-        // Using PasswordUtils for password hashing
-        return PasswordUtils.hashPassword(password);
+        return PasswordHasher.hash(password);
     }
 
     /**
@@ -420,8 +466,15 @@ public class UserService {
      * @param hashedPassword The hashed password
      * @return true if the password matches, false otherwise
      */    private boolean verifyPassword(String plainPassword, String hashedPassword) {
-        return PasswordUtils.verifyPassword(plainPassword, hashedPassword);
-    }    
+        return PasswordHasher.verify(plainPassword, hashedPassword);
+    }
+    
+    /**
+     * Gets all delivery persons with their number of active deliveries
+     * 
+     * @return List of delivery persons
+     * @throws ServiceException If a service error occurs
+     */
     public List<User> getDeliveryPersons() throws ServiceException {
         List<User> deliveryPersons = new ArrayList<>();
         OrderDAO orderDAO = new OrderDAO();
@@ -433,16 +486,21 @@ public class UserService {
             } catch (Exception e) {
                 deliveryPersons = userDAO.findByRole("ROLE_DELIVERY_PERSON");
             }
+            if (deliveryPersons.isEmpty()) {
+                return deliveryPersons;
+            }
             
-            // Count active deliveries for each person
+            // Count active deliveries for all persons in one query
+            Map<Integer, Integer> activeCounts;
+            try {
+                activeCounts = orderDAO.countActiveDeliveriesByAllPersons();
+            } catch (SQLException e) {
+                // Safe default
+                System.err.println("Error counting active deliveries: " + e.getMessage());
+                activeCounts = Collections.emptyMap();
+            }
             for (User user : deliveryPersons) {
-                try {
-                    int activeCount = orderDAO.countActiveDeliveriesByPerson(user.getId());
-                    user.setActiveDeliveries(activeCount);
-                } catch (Exception e) {
-                    // Safe default
-                    user.setActiveDeliveries(0);
-                }
+                user.setActiveDeliveries(activeCounts.getOrDefault(user.getId(), 0));
             }
             
             return deliveryPersons;
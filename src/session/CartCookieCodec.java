@@ -0,0 +1,199 @@
+package session;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import model.ShoppingCart;
+import util.AppConfig;
+
+/**
+ * Encodes the shopping cart as a signed cookie, for cart.storage=cookie.
+ *
+ * The cookie holds only pizza IDs, quantities and topping IDs, in the same compact
+ * form as {@link SessionStateCodec}, plus the time it was issued. It is signed with
+ * HMAC-SHA256 under cart.cookie.secret, so a modified cookie is rejected. Prices are
+ * never stored; the cart is priced against the current menu on every request. A
+ * cookie older than cart.cookie.maxAgeHours is ignored, and carts are limited to
+ * cart.cookie.maxLines lines to keep the cookie small.
+ */
+public final class CartCookieCodec {
+
+    public static final String COOKIE_NAME = AppConfig.getString("cart.cookieName", "PIZZACART");
+
+    // Request attribute holding the cart decoded by CartCookieFilter
+    public static final String REQUEST_ATTRIBUTE = "cookieCart";
+
+    private static final boolean ENABLED = "cookie".equalsIgnoreCase(AppConfig.getString("cart.storage", "session"));
+    private static final int MAX_LINES = AppConfig.getInt("cart.cookie.maxLines", 20);
+    private static final long MAX_AGE_SECONDS = AppConfig.getInt("cart.cookie.maxAgeHours", 72) * 3600L;
+
+    // Browsers accept about 4 KB per cookie, name and attributes included
+    private static final int MAX_VALUE_LENGTH = 3072;
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAC_LENGTH = 16;
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final SecretKeySpec KEY = loadKey();
+
+    private static final AtomicLong rejected = new AtomicLong();
+
+    private CartCookieCodec() {
+    }
+
+    /**
+     * Checks whether carts are kept in cookies instead of the session
+     *
+     * @return true if cart.storage=cookie
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public static int getMaxLines() {
+        return MAX_LINES;
+    }
+
+    public static long getMaxAgeSeconds() {
+        return MAX_AGE_SECONDS;
+    }
+
+    /**
+     * Gets the number of cookies rejected because they were malformed, modified or expired
+     *
+     * @return The number of rejected cookies
+     */
+    public static long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * Encodes and signs a cart
+     *
+     * @param cart The cart
+     * @return The cookie value
+     * @throws IllegalArgumentException If the cart is over the size limits, which
+     *         {@link #decode(String)} would reject
+     */
+    public static String encode(ShoppingCart cart) {
+        if (cart.getItems().size() > MAX_LINES) {
+            throw new IllegalArgumentException("Cart has more than " + MAX_LINES + " lines");
+        }
+        for (ShoppingCart.CartItem item : cart.getItems()) {
+            if (!isValidQuantity(item.getQuantity())) {
+                throw new IllegalArgumentException("Cart line quantity " + item.getQuantity() + " is out of range");
+            }
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeInt((int) (System.currentTimeMillis() / 1000));
+            SessionStateCodec.writeCart(out, cart);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cart cannot be encoded", e);
+        }
+
+        byte[] payload = bytes.toByteArray();
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String value = encoder.encodeToString(payload) + "." + encoder.encodeToString(sign(payload));
+        if (value.length() > MAX_VALUE_LENGTH) {
+            throw new IllegalArgumentException("Cart cookie would be " + value.length() + " characters");
+        }
+        return value;
+    }
+
+    /**
+     * Verifies and decodes a cart cookie
+     *
+     * @param value The cookie value
+     * @return The cart, or null if the cookie is malformed, modified or expired
+     */
+    public static ShoppingCart decode(String value) {
+        if (value == null || value.isEmpty() || value.length() > MAX_VALUE_LENGTH) {
+            return reject();
+        }
+        int dot = value.indexOf('.');
+        if (dot < 0) {
+            return reject();
+        }
+
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            byte[] payload = decoder.decode(value.substring(0, dot));
+            byte[] mac = decoder.decode(value.substring(dot + 1));
+            if (!MessageDigest.isEqual(mac, sign(payload))) {
+                return reject();
+            }
+
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+                if (in.readUnsignedByte() != FORMAT_VERSION) {
+                    return reject();
+                }
+                long issuedAt = in.readInt() & 0xFFFFFFFFL;
+                if (System.currentTimeMillis() / 1000 - issuedAt > MAX_AGE_SECONDS) {
+                    return reject();
+                }
+
+                ShoppingCart cart = SessionStateCodec.readCart(in);
+                if (cart.getItems().size() > MAX_LINES) {
+                    return reject();
+                }
+                for (ShoppingCart.CartItem item : cart.getItems()) {
+                    if (!isValidQuantity(item.getQuantity())) {
+                        return reject();
+                    }
+                }
+                return cart;
+            }
+        } catch (IllegalArgumentException | IOException e) {
+            return reject();
+        }
+    }
+
+    private static boolean isValidQuantity(int quantity) {
+        return quantity >= 1 && quantity <= ShoppingCart.MAX_QUANTITY;
+    }
+
+    private static ShoppingCart reject() {
+        rejected.incrementAndGet();
+        return null;
+    }
+
+    private static byte[] sign(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(KEY);
+            return Arrays.copyOf(mac.doFinal(payload), MAC_LENGTH);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign cart cookie", e);
+        }
+    }
+
+    private static SecretKeySpec loadKey() {
+        String secret = AppConfig.getString("cart.cookie.secret", null);
+        if (secret != null && secret.length() >= 32) {
+            return new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), MAC_ALGORITHM);
+        }
+
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        if (ENABLED) {
+            System.err.println("cart.cookie.secret is missing or shorter than 32 characters; using a random key. " +
+                    "Cart cookies will not survive a restart or work across nodes.");
+        }
+        return new SecretKeySpec(random, MAC_ALGORITHM);
+    }
+}
@@ -0,0 +1,104 @@
+package session;
+
+import java.io.IOException;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.annotation.WebFilter;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+
+import model.ShoppingCart;
+import service.CartService;
+import service.ServiceException;
+
+/**
+ * Reads the signed cart cookie when cart.storage=cookie, so the cart never has
+ * to be loaded from or written to the session.
+ *
+ * The decoded cart is put in a request attribute for the servlets. A missing,
+ * modified or expired cookie gives an empty cart.
+ *
+ * With either cart storage, the item count for the header badge is set when a
+ * servlet forwards or async-dispatches to its view, or to an error page, once the
+ * cart has its final state. It is taken from the cart's {@link model.CartView},
+ * so pizzas that left the menu are not counted, just as on the cart page.
+ */
+@WebFilter(urlPatterns = "/*", asyncSupported = true,
+        dispatcherTypes = { DispatcherType.REQUEST, DispatcherType.FORWARD, DispatcherType.ASYNC,
+                DispatcherType.ERROR })
+public class CartCookieFilter implements Filter {
+
+    public static final String ITEM_COUNT_ATTRIBUTE = "cartItemCount";
+
+    private final CartService cartService = new CartService();
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        if (CartCookieCodec.isEnabled()) {
+            System.out.println("Shopping carts are kept in signed cookies");
+        }
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            setItemCount((HttpServletRequest) request);
+        } else if (CartCookieCodec.isEnabled() && request.getAttribute(CartCookieCodec.REQUEST_ATTRIBUTE) == null) {
+            ShoppingCart cart = null;
+            String value = findCookie((HttpServletRequest) request);
+            if (value != null) {
+                cart = CartCookieCodec.decode(value);
+            }
+            if (cart == null) {
+                cart = new ShoppingCart();
+            }
+            request.setAttribute(CartCookieCodec.REQUEST_ATTRIBUTE, cart);
+        }
+        chain.doFilter(request, response);
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    private void setItemCount(HttpServletRequest request) {
+        ShoppingCart cart;
+        if (CartCookieCodec.isEnabled()) {
+            cart = (ShoppingCart) request.getAttribute(CartCookieCodec.REQUEST_ATTRIBUTE);
+        } else {
+            HttpSession session = request.getSession(false);
+            cart = session != null ? (ShoppingCart) session.getAttribute("cart") : null;
+        }
+        if (cart == null || cart.isEmpty()) {
+            request.setAttribute(ITEM_COUNT_ATTRIBUTE, 0);
+            return;
+        }
+        try {
+            request.setAttribute(ITEM_COUNT_ATTRIBUTE, cartService.getCartView(cart).getItemCount());
+        } catch (ServiceException e) {
+            // Without the menu, count every item rather than hide the badge
+            request.setAttribute(ITEM_COUNT_ATTRIBUTE, cart.getItemCount());
+        }
+    }
+
+    private String findCookie(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (CartCookieCodec.COOKIE_NAME.equals(cookie.getName())) {
+                return cookie.getValue();
+            }
+        }
+        return null;
+    }
+}
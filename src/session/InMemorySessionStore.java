@@ -0,0 +1,53 @@
+package session;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Session store that keeps encoded sessions in this JVM.
+ *
+ * Sessions are not shared between nodes, so this is meant for a single node,
+ * or to run the store-backed session code without a database table.
+ */
+public class InMemorySessionStore implements SessionStore {
+
+    private final Map<String, StoredSession> sessions = new ConcurrentHashMap<>();
+
+    @Override
+    public StoredSession load(String id) {
+        StoredSession session = sessions.get(id);
+        if (session == null || session.getExpiresAt() <= System.currentTimeMillis()) {
+            return null;
+        }
+        return session;
+    }
+
+    @Override
+    public void save(String id, byte[] data, long expiresAt) {
+        sessions.put(id, new StoredSession(data, expiresAt));
+    }
+
+    @Override
+    public void touch(String id, long expiresAt) {
+        sessions.computeIfPresent(id, (k, session) -> new StoredSession(session.getData(), expiresAt));
+    }
+
+    @Override
+    public void delete(String id) {
+        sessions.remove(id);
+    }
+
+    @Override
+    public int purgeExpired() {
+        long now = System.currentTimeMillis();
+        int purged = 0;
+        for (Iterator<StoredSession> it = sessions.values().iterator(); it.hasNext();) {
+            if (it.next().getExpiresAt() <= now) {
+                it.remove();
+                purged++;
+            }
+        }
+        return purged;
+    }
+}
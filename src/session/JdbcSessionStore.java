@@ -0,0 +1,86 @@
+package session;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import dao.StatementRegistry;
+import database.DatabaseConnection;
+
+/**
+ * Session store backed by the session_state table, shared by every node
+ * connected to the same database.
+ */
+public class JdbcSessionStore implements SessionStore {
+
+    @Override
+    public StoredSession load(String id) throws SQLException {
+        String sql = "SELECT data, expires_at FROM session_state WHERE id = ? AND expires_at > ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
+
+            stmt.setString(1, id);
+            stmt.setLong(2, System.currentTimeMillis());
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return new StoredSession(rs.getBytes("data"), rs.getLong("expires_at"));
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void save(String id, byte[] data, long expiresAt) throws SQLException {
+        String sql = "INSERT INTO session_state (id, data, expires_at) VALUES (?, ?, ?) " +
+                     "ON DUPLICATE KEY UPDATE data = VALUES(data), expires_at = VALUES(expires_at)";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
+
+            stmt.setString(1, id);
+            stmt.setBytes(2, data);
+            stmt.setLong(3, expiresAt);
+            stmt.executeUpdate();
+        }
+    }
+
+    @Override
+    public void touch(String id, long expiresAt) throws SQLException {
+        String sql = "UPDATE session_state SET expires_at = ? WHERE id = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
+
+            stmt.setLong(1, expiresAt);
+            stmt.setString(2, id);
+            stmt.executeUpdate();
+        }
+    }
+
+    @Override
+    public void delete(String id) throws SQLException {
+        String sql = "DELETE FROM session_state WHERE id = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
+
+            stmt.setString(1, id);
+            stmt.executeUpdate();
+        }
+    }
+
+    @Override
+    public int purgeExpired() throws SQLException {
+        String sql = "DELETE FROM session_state WHERE expires_at <= ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
+
+            stmt.setLong(1, System.currentTimeMillis());
+            return stmt.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package session;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.Map;
+import java.util.TreeMap;
+
+import model.ShoppingCart;
+import model.User;
+
+/**
+ * Compact binary encoding of session attributes.
+ *
+ * Supports the types the application keeps in the session: strings, numbers,
+ * booleans, the logged-in {@link User} and the {@link ShoppingCart}. Integers
+ * are written as variable-length numbers and cart topping IDs as deltas, so a
+ * typical logged-in session with a small cart takes a few hundred bytes.
+ * Attributes of other types are left out with a warning.
+ *
+ * The user's password hash is never encoded.
+ */
+public final class SessionStateCodec {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int TYPE_STRING = 1;
+    private static final int TYPE_INTEGER = 2;
+    private static final int TYPE_LONG = 3;
+    private static final int TYPE_BOOLEAN = 4;
+    private static final int TYPE_USER = 5;
+    private static final int TYPE_CART = 6;
+
+    private SessionStateCodec() {
+    }
+
+    /**
+     * Encodes session attributes
+     *
+     * @param creationTime When the session was created, in epoch milliseconds
+     * @param attributes The attributes
+     * @return The encoded state
+     */
+    public static byte[] encode(long creationTime, Map<String, Object> attributes) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeLong(creationTime);
+
+            // Sorted by name, so unchanged state always encodes to the same bytes
+            Map<String, Object> supported = new TreeMap<>();
+            for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+                if (typeOf(entry.getValue()) != 0) {
+                    supported.put(entry.getKey(), entry.getValue());
+                } else {
+                    System.err.println("Session attribute '" + entry.getKey() + "' of type " +
+                            entry.getValue().getClass().getName() + " cannot be stored and is dropped");
+                }
+            }
+
+            writeVarInt(out, supported.size());
+            for (Map.Entry<String, Object> entry : supported.entrySet()) {
+                out.writeUTF(entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+        } catch (IOException e) {
+            // Writing to memory only fails for strings over 64 KB
+            throw new IllegalArgumentException("Session state cannot be encoded: " + e.getMessage(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes session attributes
+     *
+     * @param data The encoded state
+     * @param attributes Map the attributes are put into
+     * @return When the session was created, in epoch milliseconds
+     * @throws IOException If the data is not valid encoded state
+     */
+    public static long decode(byte[] data, Map<String, Object> attributes) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int version = in.readUnsignedByte();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported session state format " + version);
+            }
+            long creationTime = in.readLong();
+
+            int count = readVarInt(in);
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                attributes.put(name, readValue(in));
+            }
+            return creationTime;
+        }
+    }
+
+    private static int typeOf(Object value) {
+        if (value instanceof String) {
+            return TYPE_STRING;
+        } else if (value instanceof Integer) {
+            return TYPE_INTEGER;
+        } else if (value instanceof Long) {
+            return TYPE_LONG;
+        } else if (value instanceof Boolean) {
+            return TYPE_BOOLEAN;
+        } else if (value instanceof User) {
+            return TYPE_USER;
+        } else if (value instanceof ShoppingCart) {
+            return TYPE_CART;
+        }
+        return 0;
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        int type = typeOf(value);
+        out.writeByte(type);
+        switch (type) {
+            case TYPE_STRING:
+                out.writeUTF((String) value);
+                break;
+            case TYPE_INTEGER:
+                writeVarInt(out, zigZag((Integer) value));
+                break;
+            case TYPE_LONG:
+                out.writeLong((Long) value);
+                break;
+            case TYPE_BOOLEAN:
+                out.writeBoolean((Boolean) value);
+                break;
+            case TYPE_USER:
+                writeUser(out, (User) value);
+                break;
+            case TYPE_CART:
+                writeCart(out, (ShoppingCart) value);
+                break;
+            default:
+                throw new IllegalStateException("Unhandled type " + type);
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        int type = in.readUnsignedByte();
+        switch (type) {
+            case TYPE_STRING:
+                return in.readUTF();
+            case TYPE_INTEGER:
+                return unZigZag(readVarInt(in));
+            case TYPE_LONG:
+                return in.readLong();
+            case TYPE_BOOLEAN:
+                return in.readBoolean();
+            case TYPE_USER:
+                return readUser(in);
+            case TYPE_CART:
+                return readCart(in);
+            default:
+                throw new IOException("Unknown session attribute type " + type);
+        }
+    }
+
+    private static void writeUser(DataOutputStream out, User user) throws IOException {
+        writeVarInt(out, user.getId());
+        writeNullableString(out, user.getUsername());
+        writeNullableString(out, user.getFullName());
+        writeNullableString(out, user.getEmail());
+        writeNullableString(out, user.getPhone());
+        writeNullableString(out, user.getRole());
+        out.writeLong(user.getCreatedAt() != null ? user.getCreatedAt().getTime() : Long.MIN_VALUE);
+        writeVarInt(out, user.getActiveDeliveries());
+    }
+
+    private static User readUser(DataInputStream in) throws IOException {
+        User user = new User();
+        user.setId(readVarInt(in));
+        user.setUsername(readNullableString(in));
+        user.setFullName(readNullableString(in));
+        user.setEmail(readNullableString(in));
+        user.setPhone(readNullableString(in));
+        user.setRole(readNullableString(in));
+        long createdAt = in.readLong();
+        user.setCreatedAt(createdAt != Long.MIN_VALUE ? new Timestamp(createdAt) : null);
+        user.setActiveDeliveries(readVarInt(in));
+        return user;
+    }
+
+    static void writeCart(DataOutputStream out, ShoppingCart cart) throws IOException {
+        writeVarInt(out, cart.getItems().size());
+        for (ShoppingCart.CartItem item : cart.getItems()) {
+            writeVarInt(out, item.getPizzaId());
+            writeVarInt(out, item.getQuantity());
+
+            // Topping IDs are sorted, so the gaps between them are small
+            int[] toppingIds = item.getToppingIds();
+            writeVarInt(out, toppingIds.length);
+            int previous = 0;
+            for (int toppingId : toppingIds) {
+                writeVarInt(out, toppingId - previous);
+                previous = toppingId;
+            }
+        }
+    }
+
+    static ShoppingCart readCart(DataInputStream in) throws IOException {
+        ShoppingCart cart = new ShoppingCart();
+        int items = readVarInt(in);
+        for (int i = 0; i < items; i++) {
+            int pizzaId = readVarInt(in);
+            int quantity = readVarInt(in);
+            int[] toppingIds = new int[readVarInt(in)];
+            int previous = 0;
+            for (int t = 0; t < toppingIds.length; t++) {
+                previous += readVarInt(in);
+                toppingIds[t] = previous;
+            }
+            cart.addItem(pizzaId, quantity, toppingIds);
+        }
+        return cart;
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    // Unsigned LEB128: 7 bits per byte, high bit set on all but the last byte
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length number");
+    }
+
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,335 @@
+package session;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.annotation.WebFilter;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+import util.AppConfig;
+
+/**
+ * Replaces the container's HttpSession with one kept in a {@link SessionStore},
+ * so any node can serve any request without sticky sessions.
+ *
+ * Enabled with session.store=jdbc (shared session_state table) or
+ * session.store=memory (this node only). With the default, session.store=container,
+ * the filter does nothing. The session is loaded on first use in a request and
+ * written back when the request ends, only if its encoded state changed; an
+ * unchanged session just has its expiry extended once half of it has passed.
+ * Concurrent requests of one session do not merge their changes: the last one
+ * to finish wins. A new session only gets its cookie once an attribute is set,
+ * so pages that merely look at the session do not hand out session IDs.
+ */
+@WebFilter(urlPatterns = "/*", asyncSupported = true)
+public class SessionStateFilter implements Filter {
+
+    private static final String STORE_TYPE = AppConfig.getString("session.store", "container");
+    private static final String COOKIE_NAME = AppConfig.getString("session.cookieName", "PIZZASESSION");
+    private static final int TTL_SECONDS = AppConfig.getInt("session.ttlMinutes", 30) * 60;
+    private static final int PURGE_SECONDS = AppConfig.getInt("session.purgeSeconds", 300);
+
+    // 32 random bytes, URL-safe base64 without padding
+    private static final int ID_LENGTH = 43;
+
+    private final SecureRandom random = new SecureRandom();
+    private SessionStore store;
+    private ServletContext servletContext;
+    private ScheduledExecutorService purger;
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        servletContext = filterConfig.getServletContext();
+        if ("jdbc".equalsIgnoreCase(STORE_TYPE)) {
+            store = new JdbcSessionStore();
+        } else if ("memory".equalsIgnoreCase(STORE_TYPE)) {
+            store = new InMemorySessionStore();
+        } else if (!"container".equalsIgnoreCase(STORE_TYPE)) {
+            throw new ServletException("Unknown session.store '" + STORE_TYPE + "', expected container, memory or jdbc");
+        }
+        if (store == null) {
+            return;
+        }
+
+        System.out.println("Session state is kept in the " + STORE_TYPE.toLowerCase() + " session store");
+        purger = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "session-purger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purger.scheduleWithFixedDelay(this::purgeExpired, PURGE_SECONDS, PURGE_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (store == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        SessionRequest wrapped = new SessionRequest((HttpServletRequest) request, (HttpServletResponse) response);
+        try {
+            chain.doFilter(wrapped, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // The session may still change while the async request runs
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        wrapped.writeBack();
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                wrapped.writeBack();
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (purger != null) {
+            purger.shutdownNow();
+            purger = null;
+        }
+    }
+
+    private void purgeExpired() {
+        try {
+            int purged = store.purgeExpired();
+            if (purged > 0) {
+                System.out.println("Purged " + purged + " expired session(s)");
+            }
+        } catch (SQLException e) {
+            System.err.println("Error purging expired sessions: " + e.getMessage());
+        }
+    }
+
+    private String newSessionId() {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Request whose getSession() returns the store-backed session
+     */
+    private final class SessionRequest extends HttpServletRequestWrapper {
+        // Not synchronized: the store is read and written under this lock, and a
+        // monitor would pin a virtual thread's carrier for the database round trip
+        private final ReentrantLock lock = new ReentrantLock();
+        private final HttpServletResponse response;
+        private final String requestedId;
+        private final List<String> invalidatedIds = new ArrayList<>();
+        private StoreBackedSession session;
+        private boolean loaded;
+
+        SessionRequest(HttpServletRequest request, HttpServletResponse response) {
+            super(request);
+            this.response = response;
+            this.requestedId = findRequestedId(request);
+        }
+
+        @Override
+        public HttpSession getSession() {
+            return getSession(true);
+        }
+
+        @Override
+        public HttpSession getSession(boolean create) {
+            lock.lock();
+            try {
+                if (session != null && session.isInvalidated()) {
+                    invalidatedIds.add(session.getId());
+                    session = null;
+                }
+                if (session == null && !loaded) {
+                    loaded = true;
+                    session = load();
+                }
+                if (session == null && create) {
+                    session = newSession(TTL_SECONDS);
+                }
+                return session;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public String changeSessionId() {
+            lock.lock();
+            try {
+                StoreBackedSession current = (StoreBackedSession) getSession(false);
+                if (current == null) {
+                    throw new IllegalStateException("No session to change the ID of");
+                }
+                StoreBackedSession renamed = new StoreBackedSession(newSessionId(), servletContext,
+                        current.getMaxInactiveInterval(), true);
+                renamed.setCreationTime(current.getCreationTime());
+                renamed.getAttributes().putAll(current.getAttributes());
+                current.invalidate();
+                invalidatedIds.add(current.getId());
+                session = renamed;
+                renamed.onFirstAttribute(() -> setCookie(renamed.getId()));
+                return renamed.getId();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public String getRequestedSessionId() {
+            return requestedId;
+        }
+
+        @Override
+        public boolean isRequestedSessionIdValid() {
+            HttpSession current = getSession(false);
+            return requestedId != null && current != null && requestedId.equals(current.getId());
+        }
+
+        @Override
+        public boolean isRequestedSessionIdFromCookie() {
+            return requestedId != null;
+        }
+
+        @Override
+        public boolean isRequestedSessionIdFromURL() {
+            return false;
+        }
+
+        // The cookie is sent when the first attribute is set; writeBack skips empty new sessions
+        private StoreBackedSession newSession(int maxInactiveInterval) {
+            StoreBackedSession created = new StoreBackedSession(newSessionId(), servletContext,
+                    maxInactiveInterval, true);
+            created.onFirstAttribute(() -> setCookie(created.getId()));
+            return created;
+        }
+
+        private StoreBackedSession load() {
+            if (requestedId == null) {
+                return null;
+            }
+            try {
+                SessionStore.StoredSession stored = store.load(requestedId);
+                if (stored == null) {
+                    return null;
+                }
+                StoreBackedSession existing = new StoreBackedSession(requestedId, servletContext, TTL_SECONDS, false);
+                existing.setCreationTime(SessionStateCodec.decode(stored.getData(), existing.getAttributes()));
+                existing.setLoaded(stored.getData(), stored.getExpiresAt());
+                return existing;
+            } catch (SQLException | IOException e) {
+                // Start over with an empty session rather than failing the request
+                System.err.println("Could not load session state: " + e.getMessage());
+                return null;
+            }
+        }
+
+        /**
+         * Writes the session back to the store if it changed, and removes
+         * sessions invalidated during the request
+         */
+        void writeBack() {
+            lock.lock();
+            try {
+                if (session != null && session.isInvalidated()) {
+                    invalidatedIds.add(session.getId());
+                    session = null;
+                }
+                for (String id : invalidatedIds) {
+                    store.delete(id);
+                }
+                invalidatedIds.clear();
+                if (session == null) {
+                    return;
+                }
+
+                long now = System.currentTimeMillis();
+                long expiresAt = now + session.getMaxInactiveInterval() * 1000L;
+                if (session.getLoadedData() == null && session.getAttributes().isEmpty()) {
+                    // Nothing worth storing in a new session
+                    return;
+                }
+
+                byte[] data = SessionStateCodec.encode(session.getCreationTime(), session.getAttributes());
+                if (!Arrays.equals(data, session.getLoadedData())) {
+                    store.save(session.getId(), data, expiresAt);
+                    session.setLoaded(data, expiresAt);
+                } else if (session.getLoadedExpiresAt() - now < session.getMaxInactiveInterval() * 500L) {
+                    store.touch(session.getId(), expiresAt);
+                    session.setLoaded(data, expiresAt);
+                }
+            } catch (SQLException | IllegalArgumentException e) {
+                System.err.println("Could not write session state: " + e.getMessage());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void setCookie(String id) {
+            if (response.isCommitted()) {
+                System.err.println("Session created after the response was committed; its cookie could not be set");
+                return;
+            }
+            String path = getContextPath().isEmpty() ? "/" : getContextPath();
+            StringBuilder cookie = new StringBuilder()
+                    .append(COOKIE_NAME).append('=').append(id)
+                    .append("; Path=").append(path)
+                    .append("; HttpOnly; SameSite=Lax");
+            if (isSecure()) {
+                cookie.append("; Secure");
+            }
+            response.addHeader("Set-Cookie", cookie.toString());
+        }
+
+        private String findRequestedId(HttpServletRequest request) {
+            Cookie[] cookies = request.getCookies();
+            if (cookies == null) {
+                return null;
+            }
+            for (Cookie cookie : cookies) {
+                if (COOKIE_NAME.equals(cookie.getName())) {
+                    String value = cookie.getValue();
+                    return value != null && value.length() == ID_LENGTH ? value : null;
+                }
+            }
+            return null;
+        }
+    }
+}
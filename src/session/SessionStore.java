@@ -0,0 +1,77 @@
+package session;
+
+import java.sql.SQLException;
+
+/**
+ * Storage for encoded session state, shared by every node that uses the same store.
+ *
+ * Implementations only move bytes; {@link SessionStateCodec} turns the session
+ * attributes into those bytes and back.
+ */
+public interface SessionStore {
+
+    /**
+     * Loads a session
+     *
+     * @param id The session ID
+     * @return The stored session, or null if it does not exist or has expired
+     * @throws SQLException If the store cannot be read
+     */
+    StoredSession load(String id) throws SQLException;
+
+    /**
+     * Creates or replaces a session
+     *
+     * @param id The session ID
+     * @param data The encoded session state
+     * @param expiresAt When the session expires, in epoch milliseconds
+     * @throws SQLException If the store cannot be written
+     */
+    void save(String id, byte[] data, long expiresAt) throws SQLException;
+
+    /**
+     * Extends the expiry of an unchanged session
+     *
+     * @param id The session ID
+     * @param expiresAt The new expiry, in epoch milliseconds
+     * @throws SQLException If the store cannot be written
+     */
+    void touch(String id, long expiresAt) throws SQLException;
+
+    /**
+     * Deletes a session
+     *
+     * @param id The session ID
+     * @throws SQLException If the store cannot be written
+     */
+    void delete(String id) throws SQLException;
+
+    /**
+     * Deletes all expired sessions
+     *
+     * @return The number of sessions deleted
+     * @throws SQLException If the store cannot be written
+     */
+    int purgeExpired() throws SQLException;
+
+    /**
+     * Session state as read from a store
+     */
+    final class StoredSession {
+        private final byte[] data;
+        private final long expiresAt;
+
+        public StoredSession(byte[] data, long expiresAt) {
+            this.data = data;
+            this.expiresAt = expiresAt;
+        }
+
+        public byte[] getData() {
+            return data;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package session;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpSession;
+
+/**
+ * An HttpSession whose attributes are loaded from, and written back to, a
+ * {@link SessionStore} by {@link SessionStateFilter}. Lives for one request.
+ */
+public class StoreBackedSession implements HttpSession {
+
+    private final String id;
+    private final ServletContext servletContext;
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+    private final long lastAccessedTime;
+    private long creationTime;
+    private int maxInactiveInterval;
+    private final boolean isNew;
+    private volatile boolean invalidated;
+
+    // Run once when the first attribute is set, to send the cookie of a new session
+    private final AtomicReference<Runnable> firstAttributeListener = new AtomicReference<>();
+
+    // State as loaded, to tell whether anything changed during the request
+    private byte[] loadedData;
+    private long loadedExpiresAt;
+
+    StoreBackedSession(String id, ServletContext servletContext, int maxInactiveInterval, boolean isNew) {
+        this.id = id;
+        this.servletContext = servletContext;
+        this.maxInactiveInterval = maxInactiveInterval;
+        this.isNew = isNew;
+        this.creationTime = System.currentTimeMillis();
+        this.lastAccessedTime = creationTime;
+    }
+
+    Map<String, Object> getAttributes() {
+        return attributes;
+    }
+
+    void setCreationTime(long creationTime) {
+        this.creationTime = creationTime;
+    }
+
+    void setLoaded(byte[] data, long expiresAt) {
+        this.loadedData = data;
+        this.loadedExpiresAt = expiresAt;
+    }
+
+    byte[] getLoadedData() {
+        return loadedData;
+    }
+
+    long getLoadedExpiresAt() {
+        return loadedExpiresAt;
+    }
+
+    /**
+     * Runs the listener when an attribute is first set, or right away if the
+     * session already has attributes
+     */
+    void onFirstAttribute(Runnable listener) {
+        if (!attributes.isEmpty()) {
+            listener.run();
+            return;
+        }
+        firstAttributeListener.set(listener);
+    }
+
+    boolean isInvalidated() {
+        return invalidated;
+    }
+
+    @Override
+    public long getCreationTime() {
+        checkValid();
+        return creationTime;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public long getLastAccessedTime() {
+        checkValid();
+        return lastAccessedTime;
+    }
+
+    @Override
+    public ServletContext getServletContext() {
+        return servletContext;
+    }
+
+    @Override
+    public void setMaxInactiveInterval(int interval) {
+        this.maxInactiveInterval = interval;
+    }
+
+    @Override
+    public int getMaxInactiveInterval() {
+        return maxInactiveInterval;
+    }
+
+    @Override
+    @Deprecated
+    public javax.servlet.http.HttpSessionContext getSessionContext() {
+        return null;
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        checkValid();
+        return attributes.get(name);
+    }
+
+    @Override
+    @Deprecated
+    public Object getValue(String name) {
+        return getAttribute(name);
+    }
+
+    @Override
+    public Enumeration<String> getAttributeNames() {
+        checkValid();
+        return Collections.enumeration(attributes.keySet());
+    }
+
+    @Override
+    @Deprecated
+    public String[] getValueNames() {
+        checkValid();
+        return attributes.keySet().toArray(new String[0]);
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        checkValid();
+        if (value == null) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, value);
+            Runnable listener = firstAttributeListener.getAndSet(null);
+            if (listener != null) {
+                listener.run();
+            }
+        }
+    }
+
+    @Override
+    @Deprecated
+    public void putValue(String name, Object value) {
+        setAttribute(name, value);
+    }
+
+    @Override
+    public void removeAttribute(String name) {
+        checkValid();
+        attributes.remove(name);
+    }
+
+    @Override
+    @Deprecated
+    public void removeValue(String name) {
+        removeAttribute(name);
+    }
+
+    @Override
+    public void invalidate() {
+        checkValid();
+        invalidated = true;
+        attributes.clear();
+    }
+
+    @Override
+    public boolean isNew() {
+        checkValid();
+        return isNew;
+    }
+
+    private void checkValid() {
+        if (invalidated) {
+            throw new IllegalStateException("Session " + id + " has been invalidated");
+        }
+    }
+}
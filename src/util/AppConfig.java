@@ -0,0 +1,122 @@
+package util;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Loads application settings from config.properties
+ */
+public class AppConfig {
+
+    private static final String CONFIG_FILE = "config.properties";
+
+    private static volatile Properties properties;
+
+    private AppConfig() {
+    }
+
+    /**
+     * Gets the loaded configuration, loading it on first use
+     *
+     * @return The application properties
+     * @throws RuntimeException If the configuration cannot be found in any location
+     */
+    public static Properties getProperties() {
+        Properties props = properties;
+        if (props == null) {
+            synchronized (AppConfig.class) {
+                props = properties;
+                if (props == null) {
+                    props = load();
+                    properties = props;
+                }
+            }
+        }
+        return props;
+    }
+
+    /**
+     * Gets a string setting
+     *
+     * @param key The property key
+     * @param defaultValue The value to use if the key is not set
+     * @return The configured value or the default
+     */
+    public static String getString(String key, String defaultValue) {
+        String value = getProperties().getProperty(key);
+        return value != null && !value.trim().isEmpty() ? value.trim() : defaultValue;
+    }
+
+    /**
+     * Gets an integer setting
+     *
+     * @param key The property key
+     * @param defaultValue The value to use if the key is missing or invalid
+     * @return The configured value or the default
+     */
+    public static int getInt(String key, int defaultValue) {
+        String value = getString(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid integer for " + key + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Gets a boolean setting
+     *
+     * @param key The property key
+     * @param defaultValue The value to use if the key is not set
+     * @return The configured value or the default
+     */
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key, null);
+        return value != null ? Boolean.parseBoolean(value) : defaultValue;
+    }
+
+    private static Properties load() {
+        Properties props = new Properties();
+
+        // Try to load from classpath first
+        try (InputStream is = Thread.currentThread().getContextClassLoader().getResourceAsStream(CONFIG_FILE)) {
+            if (is != null) {
+                props.load(is);
+                System.out.println("Loaded config from classpath");
+                return props;
+            }
+        } catch (IOException e) {
+            System.out.println("Could not load config from classpath: " + e.getMessage());
+        }
+
+        // Try from WEB-INF/classes
+        String catalinaBase = System.getProperty("catalina.base");
+        if (catalinaBase != null) {
+            String configPath = catalinaBase + "/webapps/PizzaDeliverySystem/WEB-INF/classes/" + CONFIG_FILE;
+            try (FileInputStream fis = new FileInputStream(configPath)) {
+                props.load(fis);
+                System.out.println("Loaded config from: " + configPath);
+                return props;
+            } catch (IOException e) {
+                System.out.println("Could not load config from Tomcat: " + e.getMessage());
+            }
+        }
+
+        // Last resort: try from config directory
+        try (FileInputStream fis = new FileInputStream("config/" + CONFIG_FILE)) {
+            props.load(fis);
+            System.out.println("Loaded config from config directory");
+            return props;
+        } catch (IOException e) {
+            System.out.println("Could not load config from config directory: " + e.getMessage());
+        }
+
+        throw new RuntimeException("Could not load configuration from any location");
+    }
+}
@@ -0,0 +1,226 @@
+package util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import dao.StatementRegistry;
+import database.DatabaseConnection;
+
+/**
+ * Writes notification audit records to the notifications table in the background.
+ *
+ * Callers only put a record on a bounded queue. A single writer thread drains the
+ * queue and inserts records as one JDBC batch of a single fixed INSERT, which
+ * rewriteBatchedStatements sends as one multi-row INSERT, flushing when a
+ * batch is full or the flush interval has passed. When the queue is full callers
+ * wait briefly and then drop the record, which is counted in the metrics. Records
+ * logged once shutdown has started are dropped and counted the same way.
+ */
+public class AuditLogWriter {
+
+    private static final int QUEUE_CAPACITY = AppConfig.getInt("audit.queueCapacity", 10000);
+    private static final int BATCH_SIZE = AppConfig.getInt("audit.batchSize", 100);
+    private static final long FLUSH_MILLIS = AppConfig.getInt("audit.flushMillis", 1000);
+    private static final long OFFER_TIMEOUT_MILLIS = AppConfig.getInt("audit.offerTimeoutMillis", 10);
+    private static final long DRAIN_TIMEOUT_MILLIS = AppConfig.getInt("audit.drainTimeoutMillis", 5000);
+
+    // Length of the notifications.message column
+    private static final int MAX_MESSAGE_LENGTH = 500;
+
+    private static final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    // Metrics
+    private static final AtomicLong enqueued = new AtomicLong();
+    private static final AtomicLong written = new AtomicLong();
+    private static final AtomicLong dropped = new AtomicLong();
+    private static final AtomicLong failed = new AtomicLong();
+    private static final AtomicLong batches = new AtomicLong();
+
+    private static volatile boolean running;
+    private static volatile boolean stopped;
+    private static Thread writer;
+
+    private AuditLogWriter() {
+    }
+
+    /**
+     * Queues a notification audit record
+     *
+     * @param orderId The order ID
+     * @param message The notification message
+     * @return true if the record was queued, false if it was dropped
+     */
+    public static boolean log(int orderId, String message) {
+        if (!running && !stopped) {
+            start();
+        }
+
+        if (message != null && message.length() > MAX_MESSAGE_LENGTH) {
+            message = message.substring(0, MAX_MESSAGE_LENGTH);
+        }
+        Entry entry = new Entry(orderId, message, new Timestamp(System.currentTimeMillis()));
+        try {
+            if (running && queue.offer(entry, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                // If shutdown started meanwhile the writer may already have done its
+                // final drain; take the record back unless the writer has it
+                if (!stopped || !queue.remove(entry)) {
+                    enqueued.incrementAndGet();
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        long total = dropped.incrementAndGet();
+        if (total == 1 || total % 1000 == 0) {
+            System.err.println((stopped ? "Audit writer stopped" : "Audit queue full")
+                    + ", dropped " + total + " notification record(s) so far");
+        }
+        return false;
+    }
+
+    /**
+     * Starts the writer thread if it is not running
+     */
+    public static synchronized void start() {
+        if (running || stopped) {
+            return;
+        }
+        running = true;
+        writer = new Thread(AuditLogWriter::run, "audit-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stops accepting new work, flushes what is queued and stops the writer thread.
+     * Waits at most audit.drainTimeoutMillis for the queue to drain.
+     */
+    public static synchronized void shutdown() {
+        stopped = true;
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            writer.join(DRAIN_TIMEOUT_MILLIS);
+            if (writer.isAlive()) {
+                System.err.println("Audit writer did not drain in time, " + queue.size() + " record(s) lost");
+                writer.interrupt();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+    }
+
+    public static long getEnqueuedCount() {
+        return enqueued.get();
+    }
+
+    public static long getWrittenCount() {
+        return written.get();
+    }
+
+    public static long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public static long getFailedCount() {
+        return failed.get();
+    }
+
+    public static long getBatchCount() {
+        return batches.get();
+    }
+
+    public static int getQueueDepth() {
+        return queue.size();
+    }
+
+    public static int getQueueCapacity() {
+        return QUEUE_CAPACITY;
+    }
+
+    private static void run() {
+        List<Entry> batch = new ArrayList<>(BATCH_SIZE);
+        while (running || !queue.isEmpty()) {
+            try {
+                long deadline = System.currentTimeMillis() + FLUSH_MILLIS;
+
+                // Collect until the batch is full or the flush interval has passed
+                while (batch.size() < BATCH_SIZE) {
+                    long wait = deadline - System.currentTimeMillis();
+                    if (wait <= 0) {
+                        break;
+                    }
+                    Entry entry = queue.poll(wait, TimeUnit.MILLISECONDS);
+                    if (entry == null) {
+                        break;
+                    }
+                    batch.add(entry);
+                    queue.drainTo(batch, BATCH_SIZE - batch.size());
+                    if (!running) {
+                        break;
+                    }
+                }
+            } catch (InterruptedException e) {
+                // Flush what we have and let the loop condition decide
+                Thread.currentThread().interrupt();
+                queue.drainTo(batch, BATCH_SIZE - batch.size());
+                flush(batch);
+                return;
+            }
+            flush(batch);
+        }
+    }
+
+    private static void flush(List<Entry> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        // The same statement for every batch size, so only one is ever prepared and cached
+        String sql = "INSERT INTO notifications (order_id, message, created_at) VALUES (?, ?, ?)";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = StatementRegistry.prepare(conn, sql)) {
+
+            for (Entry entry : batch) {
+                stmt.setInt(1, entry.orderId);
+                stmt.setString(2, entry.message);
+                stmt.setTimestamp(3, entry.createdAt);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            written.addAndGet(batch.size());
+            batches.incrementAndGet();
+        } catch (SQLException e) {
+            failed.addAndGet(batch.size());
+            System.err.println("Error writing " + batch.size() + " notification audit record(s): " + e.getMessage());
+        } finally {
+            batch.clear();
+        }
+    }
+
+    private static final class Entry {
+        final int orderId;
+        final String message;
+        final Timestamp createdAt;
+
+        Entry(int orderId, String message, Timestamp createdAt) {
+            this.orderId = orderId;
+            this.message = message;
+            this.createdAt = createdAt;
+        }
+    }
+}
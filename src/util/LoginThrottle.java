@@ -0,0 +1,287 @@
+package util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Rate limits login attempts per username and per client IP, before the
+ * database or the password hasher are touched.
+ *
+ * Each key has a token bucket: an attempt takes a token, and tokens come back at
+ * login.throttle.userPerMinute (or ipPerMinute) up to the burst size. Failed
+ * logins beyond login.throttle.userFreeFailures (or ipFreeFailures) also lock the
+ * key out for a period that doubles with each further failure, up to
+ * login.throttle.maxBackoffSeconds.
+ * A successful login clears the username's failures; an IP's failures only age
+ * out, since many users can share one address.
+ *
+ * Entries live in lock-striped maps, so logins for different keys rarely contend.
+ * Each stripe holds a bounded number of entries and drops the least recently used
+ * one when full, and entries idle for login.throttle.idleMinutes are dropped on
+ * the next access to their stripe, so memory stays bounded under a spray of
+ * random usernames.
+ */
+public final class LoginThrottle {
+
+    private static final boolean ENABLED = AppConfig.getBoolean("login.throttle.enabled", true);
+    private static final int STRIPES = 64;
+    private static final int MAX_ENTRIES = AppConfig.getInt("login.throttle.maxEntries", 100000);
+    private static final long IDLE_NANOS = TimeUnit.MINUTES.toNanos(AppConfig.getInt("login.throttle.idleMinutes", 30));
+
+    private static final Limits USER_LIMITS = new Limits(
+            AppConfig.getInt("login.throttle.userBurst", 5),
+            AppConfig.getInt("login.throttle.userPerMinute", 5),
+            AppConfig.getInt("login.throttle.userFreeFailures", 3));
+    private static final Limits IP_LIMITS = new Limits(
+            AppConfig.getInt("login.throttle.ipBurst", 20),
+            AppConfig.getInt("login.throttle.ipPerMinute", 30),
+            AppConfig.getInt("login.throttle.ipFreeFailures", 20));
+
+    private static final long BASE_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(
+            AppConfig.getInt("login.throttle.baseBackoffSeconds", 1));
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(
+            AppConfig.getInt("login.throttle.maxBackoffSeconds", 900));
+
+    private static final Stripe[] stripes = new Stripe[STRIPES];
+
+    // Metrics
+    private static final AtomicLong allowed = new AtomicLong();
+    private static final AtomicLong throttled = new AtomicLong();
+    private static final AtomicLong failures = new AtomicLong();
+    private static final AtomicLong evicted = new AtomicLong();
+
+    static {
+        int perStripe = Math.max(16, MAX_ENTRIES / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    private LoginThrottle() {
+    }
+
+    /**
+     * Checks whether a login attempt may go ahead, and takes a token from the
+     * username's and the IP's buckets if so
+     *
+     * @param username The username entered
+     * @param ip The client IP address
+     * @return 0 if the attempt is allowed, otherwise the seconds to wait
+     */
+    public static long tryAcquire(String username, String ip) {
+        if (!ENABLED) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        long waitNanos = Math.max(
+                acquire(ipKey(ip), IP_LIMITS, now),
+                acquire(userKey(username), USER_LIMITS, now));
+        if (waitNanos > 0) {
+            throttled.incrementAndGet();
+            return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        }
+        allowed.incrementAndGet();
+        return 0;
+    }
+
+    /**
+     * Records a failed login, extending the backoff of the username and the IP
+     *
+     * @param username The username entered
+     * @param ip The client IP address
+     */
+    public static void recordFailure(String username, String ip) {
+        if (!ENABLED) {
+            return;
+        }
+        failures.incrementAndGet();
+        long now = System.nanoTime();
+        fail(ipKey(ip), IP_LIMITS, now);
+        fail(userKey(username), USER_LIMITS, now);
+    }
+
+    /**
+     * Records a successful login, clearing the username's failures
+     *
+     * @param username The username
+     */
+    public static void recordSuccess(String username) {
+        if (!ENABLED) {
+            return;
+        }
+        String key = userKey(username);
+        Stripe stripe = stripeFor(key);
+        stripe.lock.lock();
+        try {
+            Entry entry = stripe.entries.get(key);
+            if (entry != null) {
+                entry.failures = 0;
+                entry.blockedUntil = 0;
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public static long getAllowedCount() {
+        return allowed.get();
+    }
+
+    public static long getThrottledCount() {
+        return throttled.get();
+    }
+
+    public static long getFailureCount() {
+        return failures.get();
+    }
+
+    public static long getEvictedCount() {
+        return evicted.get();
+    }
+
+    /**
+     * Gets the number of usernames and IPs currently tracked
+     *
+     * @return The number of entries
+     */
+    public static int getTrackedCount() {
+        int count = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                count += stripe.entries.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return count;
+    }
+
+    private static long acquire(String key, Limits limits, long now) {
+        Stripe stripe = stripeFor(key);
+        stripe.lock.lock();
+        try {
+            Entry entry = stripe.get(key, limits, now);
+            if (entry.blockedUntil - now > 0) {
+                return entry.blockedUntil - now;
+            }
+
+            // Refill for the time since the last attempt
+            entry.tokens = Math.min(limits.burst, entry.tokens + (now - entry.refilledAt) * limits.tokensPerNano);
+            entry.refilledAt = now;
+            if (entry.tokens < 1) {
+                return (long) ((1 - entry.tokens) / limits.tokensPerNano);
+            }
+            entry.tokens -= 1;
+            return 0;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private static void fail(String key, Limits limits, long now) {
+        Stripe stripe = stripeFor(key);
+        stripe.lock.lock();
+        try {
+            Entry entry = stripe.entries.get(key);
+            if (entry == null) {
+                return;
+            }
+            entry.failures++;
+            int excess = entry.failures - limits.freeFailures;
+            if (excess > 0) {
+                // 1s, 2s, 4s, ... capped, without overflowing the shift
+                long backoff = excess > 30 ? MAX_BACKOFF_NANOS
+                        : Math.min(MAX_BACKOFF_NANOS, BASE_BACKOFF_NANOS << (excess - 1));
+                entry.blockedUntil = now + backoff;
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private static Stripe stripeFor(String key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return stripes[h & (STRIPES - 1)];
+    }
+
+    private static String userKey(String username) {
+        return "u:" + (username != null ? username.trim().toLowerCase(Locale.ROOT) : "");
+    }
+
+    private static String ipKey(String ip) {
+        return "ip:" + (ip != null ? ip : "");
+    }
+
+    private static final class Limits {
+        final int burst;
+        final double tokensPerNano;
+        final int freeFailures;
+
+        Limits(int burst, int perMinute, int freeFailures) {
+            this.burst = Math.max(1, burst);
+            this.tokensPerNano = Math.max(1, perMinute) / (double) TimeUnit.MINUTES.toNanos(1);
+            this.freeFailures = Math.max(0, freeFailures);
+        }
+    }
+
+    // Fields guarded by the stripe's lock
+    private static final class Entry {
+        double tokens;
+        long refilledAt;
+        long lastSeen;
+        int failures;
+        long blockedUntil;
+    }
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final LinkedHashMap<String, Entry> entries;
+
+        Stripe(int capacity) {
+            // Access order, so the eldest entry is the least recently used
+            entries = new LinkedHashMap<String, Entry>(32, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    if (size() > capacity) {
+                        evicted.incrementAndGet();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        Entry get(String key, Limits limits, long now) {
+            dropIdle(now);
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry();
+                entry.tokens = limits.burst;
+                entry.refilledAt = now;
+                entries.put(key, entry);
+            }
+            entry.lastSeen = now;
+            return entry;
+        }
+
+        // The least recently used entries come first, so stop at the first recent one
+        private void dropIdle(long now) {
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                Entry eldest = it.next();
+                if (now - eldest.lastSeen < IDLE_NANOS || eldest.blockedUntil - now > 0) {
+                    return;
+                }
+                it.remove();
+                evicted.incrementAndGet();
+            }
+        }
+    }
+}
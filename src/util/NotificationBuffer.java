@@ -0,0 +1,61 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import model.Notification;
+
+/**
+ * Fixed-size ring buffer of one user's notifications.
+ *
+ * Appends claim a slot with a single atomic increment and never block; once the
+ * buffer is full the oldest notification is overwritten. Readers take a
+ * best-effort snapshot of the slots.
+ */
+final class NotificationBuffer {
+
+    private final AtomicReferenceArray<Notification> slots;
+    private final AtomicLong appended = new AtomicLong();
+    private volatile long lastAppendAt;
+
+    NotificationBuffer(int capacity) {
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    void append(Notification notification) {
+        lastAppendAt = notification.getTimestamp();
+        long position = appended.getAndIncrement();
+        slots.set((int) (position % slots.length()), notification);
+    }
+
+    /**
+     * Gets the notifications that have not expired, newest first
+     *
+     * @param notBefore The oldest timestamp to include
+     * @return The live notifications
+     */
+    List<Notification> snapshot(long notBefore) {
+        List<Notification> result = new ArrayList<>(slots.length());
+        long end = appended.get();
+        long start = Math.max(0, end - slots.length());
+        for (long position = end - 1; position >= start; position--) {
+            Notification notification = slots.get((int) (position % slots.length()));
+            if (notification != null && notification.getTimestamp() >= notBefore && !result.contains(notification)) {
+                result.add(notification);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether every notification in the buffer has expired
+     *
+     * @param notBefore The oldest timestamp still considered live
+     * @return true if nothing newer than notBefore was appended
+     */
+    boolean isExpired(long notBefore) {
+        return lastAppendAt < notBefore;
+    }
+}
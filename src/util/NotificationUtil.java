@@ -1,22 +1,30 @@
 package util;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
-import database.DatabaseConnection;
+import model.Notification;
 import model.Order;
-import model.User;
 
 /**
  * Utility class for handling notifications throughout the system
  */
 public class NotificationUtil {
     
-    // In-memory storage for demo purposes (in a real app, would use WebSockets/database)
-    private static final Map<Integer, Map<String, Object>> userNotifications = new HashMap<>();
+    // Each user keeps their most recent notifications in a bounded ring buffer
+    private static final Map<Integer, NotificationBuffer> userNotifications = new ConcurrentHashMap<>();
+    
+    private static final AtomicLong notificationIds = new AtomicLong();
+    private static final AtomicLong lastSweep = new AtomicLong(System.currentTimeMillis());
+    
+    private static final int MAX_PER_USER = AppConfig.getInt("notifications.maxPerUser", 50);
+    private static final long TTL_MILLIS = TimeUnit.MINUTES.toMillis(
+            AppConfig.getInt("notifications.ttlMinutes", 24 * 60));
     
     /**
      * Sends a notification about an order status update
@@ -44,42 +52,114 @@ public class NotificationUtil {
     }
     
     /**
-     * Adds a notification for a specific user
+     * Adds a notification for a specific user. Once the user has MAX_PER_USER
+     * notifications the oldest one is dropped.
      * 
      * @param userId The user ID to notify
      * @param messageType The type of message (success, warning, info)
      * @param message The notification message
+     * @return The stored notification
      */
-    public static void addNotification(int userId, String messageType, String message) {
-        Map<String, Object> notification = new HashMap<>();
-        notification.put("message", message);
-        notification.put("type", messageType);
-        notification.put("timestamp", System.currentTimeMillis());
-        notification.put("read", false);
+    public static Notification addNotification(int userId, String messageType, String message) {
+        Notification notification = new Notification(
+                notificationIds.incrementAndGet(), userId, messageType, message, System.currentTimeMillis());
+        
+        while (true) {
+            NotificationBuffer buffer = userNotifications.computeIfAbsent(
+                    userId, k -> new NotificationBuffer(MAX_PER_USER));
+            buffer.append(notification);
+            
+            // If a sweep evicted the buffer meanwhile, append to a fresh one instead
+            if (userNotifications.get(userId) == buffer) {
+                break;
+            }
+        }
         
-        userNotifications.put(userId, notification);
+        sweepExpired(notification.getTimestamp());
+        return notification;
+    }
+    
+    /**
+     * Gets a user's notifications that have not expired
+     * 
+     * @param userId The user ID
+     * @return The notifications, newest first
+     */
+    public static List<Notification> getNotifications(int userId) {
+        NotificationBuffer buffer = userNotifications.get(userId);
+        if (buffer == null) {
+            return new ArrayList<>();
+        }
+        return buffer.snapshot(System.currentTimeMillis() - TTL_MILLIS);
+    }
+    
+    /**
+     * Gets a user's unread notifications that have not expired
+     * 
+     * @param userId The user ID
+     * @return The unread notifications, newest first
+     */
+    public static List<Notification> getUnreadNotifications(int userId) {
+        List<Notification> notifications = getNotifications(userId);
+        notifications.removeIf(Notification::isRead);
+        return notifications;
+    }
+    
+    /**
+     * Counts a user's unread notifications
+     * 
+     * @param userId The user ID
+     * @return The number of unread notifications
+     */
+    public static int getUnreadCount(int userId) {
+        return getUnreadNotifications(userId).size();
     }
     
     /**
-     * Gets notifications for a user
+     * Marks one notification as read
      * 
      * @param userId The user ID
-     * @return Map of notification data
+     * @param notificationId The notification ID
+     * @return true if the notification was found
      */
-    public static Map<String, Object> getUserNotification(int userId) {
-        return userNotifications.get(userId);
+    public static boolean markAsRead(int userId, long notificationId) {
+        for (Notification notification : getNotifications(userId)) {
+            if (notification.getId() == notificationId) {
+                notification.markRead();
+                return true;
+            }
+        }
+        return false;
     }
     
     /**
-     * Marks a notification as read
+     * Marks all of a user's notifications as read
      * 
      * @param userId The user ID
      */
-    public static void markAsRead(int userId) {
-        Map<String, Object> notification = userNotifications.get(userId);
-        if (notification != null) {
-            notification.put("read", true);
-            userNotifications.put(userId, notification);
+    public static void markAllAsRead(int userId) {
+        for (Notification notification : getNotifications(userId)) {
+            notification.markRead();
+        }
+    }
+    
+    /**
+     * Drops the buffers of users whose notifications have all expired. Runs at most
+     * once per TTL period, on whichever thread gets there first.
+     */
+    private static void sweepExpired(long now) {
+        long previous = lastSweep.get();
+        if (now - previous < TTL_MILLIS || !lastSweep.compareAndSet(previous, now)) {
+            return;
+        }
+        
+        long notBefore = now - TTL_MILLIS;
+        Iterator<Map.Entry<Integer, NotificationBuffer>> it = userNotifications.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Integer, NotificationBuffer> entry = it.next();
+            if (entry.getValue().isExpired(notBefore)) {
+                userNotifications.remove(entry.getKey(), entry.getValue());
+            }
         }
     }
     
@@ -95,27 +175,12 @@ public class NotificationUtil {
     }
     
     /**
-     * Logs a notification in the database
+     * Queues a notification for the audit log in the database
      * 
      * @param orderId The order ID
      * @param message The notification message
      */
-    private static void logNotification(int orderId, String message) throws SQLException {
-        String sql = "INSERT INTO notifications (order_id, message, created_at) VALUES (?, ?, CURRENT_TIMESTAMP)";
-        
-        // Skip if the notifications table doesn't exist yet
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, orderId);
-            stmt.setString(2, message);
-            
-            stmt.executeUpdate();
-        } catch (SQLException e) {
-            // Silently ignore if table doesn't exist, but log other errors
-            if (!e.getMessage().contains("notifications")) {
-                throw e;
-            }
-        }
+    private static void logNotification(int orderId, String message) {
+        AuditLogWriter.log(orderId, message);
     }
 }
@@ -0,0 +1,240 @@
+package util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+/**
+ * Hashes and verifies passwords on a small dedicated pool.
+ *
+ * New hashes use bcrypt with cost password.bcryptCost (password.algorithm=sha256
+ * keeps the old salted SHA-256 format of {@link PasswordUtils}). Both formats are
+ * verified, and {@link #needsRehash} tells when a stored hash should be replaced
+ * at the next successful login.
+ *
+ * Hashing is deliberately slow, so it runs on password.threads threads rather than
+ * on the container's. When the threads and their queue are busy, as during a
+ * credential-stuffing burst, further logins are turned away immediately instead of
+ * taking the CPU from normal page traffic.
+ */
+public final class PasswordHasher {
+
+    private static final String ALGORITHM = AppConfig.getString("password.algorithm", "bcrypt").toLowerCase();
+    private static final int BCRYPT_COST = AppConfig.getInt("password.bcryptCost", 10);
+    private static final int THREADS = AppConfig.getInt("password.threads",
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    private static final int QUEUE_CAPACITY = AppConfig.getInt("password.queueCapacity", 32);
+    private static final long TIMEOUT_MILLIS = AppConfig.getInt("password.timeoutSeconds", 5) * 1000L;
+
+    private static volatile ThreadPoolExecutor executor;
+    private static volatile boolean stopped;
+
+    // Metrics
+    private static final AtomicLong hashed = new AtomicLong();
+    private static final AtomicLong verified = new AtomicLong();
+    private static final AtomicLong rejected = new AtomicLong();
+    private static final AtomicLong timedOut = new AtomicLong();
+
+    static {
+        if (!"bcrypt".equals(ALGORITHM) && !"sha256".equals(ALGORITHM)) {
+            System.err.println("Unknown password.algorithm '" + ALGORITHM + "', using bcrypt");
+        }
+        if (BCRYPT_COST < 4 || BCRYPT_COST > 31) {
+            System.err.println("password.bcryptCost must be between 4 and 31, got " + BCRYPT_COST);
+        }
+    }
+
+    private PasswordHasher() {
+    }
+
+    /**
+     * Hashes a password with the configured algorithm
+     *
+     * @param password The plain text password
+     * @return The hash to store
+     * @throws RejectedExecutionException If the hashing pool is busy
+     */
+    public static String hash(String password) {
+        String result = run(() -> {
+            if (useSha256()) {
+                return PasswordUtils.hashPassword(password);
+            }
+            return BCrypt.hashpw(password, BCrypt.gensalt(getBcryptCost()));
+        });
+        hashed.incrementAndGet();
+        return result;
+    }
+
+    /**
+     * Verifies a password against a stored bcrypt or salted SHA-256 hash
+     *
+     * @param password The plain text password
+     * @param storedHash The stored hash
+     * @return true if the password matches
+     * @throws RejectedExecutionException If the hashing pool is busy
+     */
+    public static boolean verify(String password, String storedHash) {
+        if (password == null || storedHash == null) {
+            return false;
+        }
+        boolean result = run(() -> {
+            if (isBcrypt(storedHash)) {
+                try {
+                    return BCrypt.checkpw(password, storedHash);
+                } catch (IllegalArgumentException e) {
+                    // Malformed hash
+                    return false;
+                }
+            }
+            return PasswordUtils.verifyPassword(password, storedHash);
+        });
+        verified.incrementAndGet();
+        return result;
+    }
+
+    /**
+     * Checks whether a stored hash uses an older algorithm or cost than configured.
+     * Hashes are only ever upgraded: with password.algorithm=sha256, bcrypt hashes
+     * are kept.
+     *
+     * @param storedHash The stored hash
+     * @return true if the hash should be replaced
+     */
+    public static boolean needsRehash(String storedHash) {
+        if (storedHash == null) {
+            return false;
+        }
+        if (!isBcrypt(storedHash)) {
+            return !useSha256();
+        }
+        // $2a$10$...: the cost is the two digits after the second '$'
+        try {
+            return Integer.parseInt(storedHash.substring(4, 6)) < getBcryptCost();
+        } catch (IndexOutOfBoundsException | NumberFormatException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Stops the pool
+     */
+    public static synchronized void shutdown() {
+        stopped = true;
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    public static String getAlgorithm() {
+        return useSha256() ? "sha256" : "bcrypt";
+    }
+
+    public static int getThreadCount() {
+        return THREADS;
+    }
+
+    public static int getActiveCount() {
+        ThreadPoolExecutor current = executor;
+        return current != null ? current.getActiveCount() : 0;
+    }
+
+    public static int getQueueDepth() {
+        ThreadPoolExecutor current = executor;
+        return current != null ? current.getQueue().size() : 0;
+    }
+
+    public static int getQueueCapacity() {
+        return QUEUE_CAPACITY;
+    }
+
+    public static long getHashedCount() {
+        return hashed.get();
+    }
+
+    public static long getVerifiedCount() {
+        return verified.get();
+    }
+
+    public static long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public static long getTimedOutCount() {
+        return timedOut.get();
+    }
+
+    private static <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = getExecutor().submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw e;
+        }
+
+        try {
+            return future.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOut.incrementAndGet();
+            throw new RejectedExecutionException("Password hashing timed out", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while hashing a password", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+
+    private static boolean isBcrypt(String storedHash) {
+        return storedHash.startsWith("$2");
+    }
+
+    private static boolean useSha256() {
+        return "sha256".equals(ALGORITHM);
+    }
+
+    private static int getBcryptCost() {
+        return Math.max(4, Math.min(31, BCRYPT_COST));
+    }
+
+    private static ThreadPoolExecutor getExecutor() {
+        ThreadPoolExecutor current = executor;
+        return current != null ? current : startExecutor();
+    }
+
+    private static synchronized ThreadPoolExecutor startExecutor() {
+        if (stopped) {
+            throw new RejectedExecutionException("Password hasher is shut down");
+        }
+        if (executor != null) {
+            return executor;
+        }
+
+        AtomicInteger threads = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(THREADS, THREADS, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+                    Thread thread = new Thread(r, "password-hasher-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        executor = pool;
+        return executor;
+    }
+}
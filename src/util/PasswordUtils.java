@@ -6,12 +6,14 @@ import java.security.SecureRandom;
 import java.util.Base64;
 
 /**
- * Utility class for securely hashing and validating passwords
+ * Salted SHA-256 password hashes in the original "salt:hash" format. New
+ * passwords are hashed with bcrypt by {@link PasswordHasher}; this format is
+ * still verified so older accounts can log in and be upgraded.
  */
 public class PasswordUtils {
     
-    // In a real production system, you would use a library like BCrypt
-    // This is a simpler implementation for learning purposes
+    // Thread-safe, and seeding a new instance on every call is slow
+    private static final SecureRandom RANDOM = new SecureRandom();
     
     /**
      * Hash a password using SHA-256 with a random salt
@@ -22,9 +24,8 @@ public class PasswordUtils {
     public static String hashPassword(String password) {
         try {
             // Generate a random salt
-            SecureRandom random = new SecureRandom();
             byte[] salt = new byte[16];
-            random.nextBytes(salt);
+            RANDOM.nextBytes(salt);
             
             // Hash the password with the salt
             MessageDigest md = MessageDigest.getInstance("SHA-256");
@@ -77,6 +78,9 @@ public class PasswordUtils {
                 diff |= hash[i] ^ inputHash[i];
             }
             return diff == 0;
+        } catch (IllegalArgumentException e) {
+            // Not valid Base64, so not a hash in this format
+            return false;
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException("Error verifying password", e);
         }
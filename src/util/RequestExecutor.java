@@ -0,0 +1,202 @@
+package util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded worker pool for the database work of async servlets.
+ *
+ * The pool is sized to the connection pool rather than to the number of open
+ * requests, so a slow database fills this pool and its queue instead of the
+ * container's threads. When both are full new work is rejected straight away
+ * and the servlet answers with 503.
+ *
+ * With async.virtualThreads=true, on Java 21 and later, each piece of work gets
+ * its own virtual thread instead. The number of requests in flight is still
+ * limited to async.threads + async.queueCapacity; work beyond the connection
+ * pool size waits for a connection instead of in the queue.
+ */
+public class RequestExecutor {
+
+    private static final int THREADS = AppConfig.getInt("async.threads",
+            AppConfig.getInt("db.pool.maxSize", 20));
+    private static final int QUEUE_CAPACITY = AppConfig.getInt("async.queueCapacity", 200);
+    private static final long TIMEOUT_MILLIS = AppConfig.getInt("async.timeoutSeconds", 15) * 1000L;
+    private static final boolean VIRTUAL_THREADS = AppConfig.getBoolean("async.virtualThreads", false);
+
+    private static volatile ExecutorService executor;
+    private static volatile boolean stopped;
+    private static volatile boolean virtual;
+
+    // Limits work in flight when running on virtual threads, which have no queue to fill up
+    private static final Semaphore inFlightPermits = new Semaphore(THREADS + QUEUE_CAPACITY);
+    private static final AtomicInteger inFlight = new AtomicInteger();
+
+    // Metrics
+    private static final AtomicLong submitted = new AtomicLong();
+    private static final AtomicLong rejected = new AtomicLong();
+    private static final AtomicLong timedOut = new AtomicLong();
+
+    private RequestExecutor() {
+    }
+
+    /**
+     * Submits work for a request
+     *
+     * @param task The work
+     * @return The pending work, to cancel it when the request times out
+     * @throws RejectedExecutionException If the pool and its queue are full or shut down
+     */
+    public static Future<?> submit(Runnable task) {
+        try {
+            ExecutorService current = getExecutor();
+            if (!virtual) {
+                Future<?> future = current.submit(task);
+                submitted.incrementAndGet();
+                return future;
+            }
+
+            if (!inFlightPermits.tryAcquire()) {
+                throw new RejectedExecutionException("Too many requests in flight");
+            }
+            // The permit is released by the wrapper, which runs even if the work is cancelled first
+            FutureTask<Void> future = new FutureTask<>(task, null);
+            try {
+                current.execute(() -> {
+                    inFlight.incrementAndGet();
+                    try {
+                        future.run();
+                    } finally {
+                        inFlight.decrementAndGet();
+                        inFlightPermits.release();
+                    }
+                });
+                submitted.incrementAndGet();
+                return future;
+            } catch (RejectedExecutionException e) {
+                inFlightPermits.release();
+                throw e;
+            }
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Records a request that timed out before its work finished
+     */
+    public static void recordTimeout() {
+        timedOut.incrementAndGet();
+    }
+
+    /**
+     * Gets how long a request may wait for its work, including time in the queue
+     *
+     * @return The timeout in milliseconds
+     */
+    public static long getTimeoutMillis() {
+        return TIMEOUT_MILLIS;
+    }
+
+    /**
+     * Stops the pool, interrupting work that is still running
+     */
+    public static synchronized void shutdown() {
+        stopped = true;
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Checks whether work runs on virtual threads. Only known once the first
+     * work has been submitted.
+     *
+     * @return true if virtual threads are in use
+     */
+    public static boolean isVirtual() {
+        return virtual;
+    }
+
+    public static int getActiveCount() {
+        ExecutorService current = executor;
+        if (current instanceof ThreadPoolExecutor) {
+            return ((ThreadPoolExecutor) current).getActiveCount();
+        }
+        return inFlight.get();
+    }
+
+    public static int getQueueDepth() {
+        ExecutorService current = executor;
+        if (current instanceof ThreadPoolExecutor) {
+            return ((ThreadPoolExecutor) current).getQueue().size();
+        }
+        return 0;
+    }
+
+    public static int getThreadCount() {
+        return THREADS;
+    }
+
+    public static int getQueueCapacity() {
+        return QUEUE_CAPACITY;
+    }
+
+    public static long getSubmittedCount() {
+        return submitted.get();
+    }
+
+    public static long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public static long getTimedOutCount() {
+        return timedOut.get();
+    }
+
+    private static ExecutorService getExecutor() {
+        ExecutorService current = executor;
+        return current != null ? current : startExecutor();
+    }
+
+    private static synchronized ExecutorService startExecutor() {
+        if (stopped) {
+            throw new RejectedExecutionException("Request executor is shut down");
+        }
+        if (executor != null) {
+            return executor;
+        }
+
+        if (VIRTUAL_THREADS && VirtualThreads.isSupported()) {
+            virtual = true;
+            executor = VirtualThreads.newPerTaskExecutor("request-worker-");
+            System.out.println("Request executor running on virtual threads");
+            return executor;
+        }
+        if (VIRTUAL_THREADS) {
+            System.err.println("async.virtualThreads is set but this JVM has no virtual threads "
+                    + "(Java 21 or later required); using " + THREADS + " platform threads");
+        }
+
+        AtomicInteger threads = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(THREADS, THREADS, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+                    Thread thread = new Thread(r, "request-worker-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        executor = pool;
+        return executor;
+    }
+}
@@ -0,0 +1,372 @@
+package util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Holds open Server-Sent Events streams, grouped by an integer key such as a user ID.
+ *
+ * Streams are async servlet requests, so an idle subscriber costs only its
+ * AsyncContext, not a container thread. Events are handed to a small shared
+ * dispatcher pool, never written on the thread that publishes them. Each stream
+ * has its own queue and is written with non-blocking I/O, so a slow client never
+ * holds up a thread or other streams; a client that falls more than
+ * sse.maxQueuedEvents behind is disconnected and reconnects on its own. A periodic
+ * comment line keeps proxies from closing idle streams.
+ */
+public class SseHub {
+
+    private static final int DISPATCH_THREADS = AppConfig.getInt("sse.dispatchThreads", 2);
+    private static final int HEARTBEAT_SECONDS = AppConfig.getInt("sse.heartbeatSeconds", 20);
+    private static final int MAX_CONNECTIONS = AppConfig.getInt("sse.maxConnections", 10000);
+    private static final int MAX_PER_KEY = AppConfig.getInt("sse.maxPerKey", 5);
+    private static final int MAX_QUEUED_EVENTS = AppConfig.getInt("sse.maxQueuedEvents", 64);
+
+    // Shared by every hub; started on first use
+    private static ScheduledExecutorService dispatcher;
+    private static final Set<SseHub> hubs = ConcurrentHashMap.newKeySet();
+    private static final AtomicInteger totalConnections = new AtomicInteger();
+    private static final AtomicLong slowDropped = new AtomicLong();
+
+    private final String name;
+    private final Map<Integer, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong eventIds = new AtomicLong();
+
+    public SseHub(String name) {
+        this.name = name;
+        hubs.add(this);
+    }
+
+    /**
+     * Starts an event stream for the request and registers it under the key
+     *
+     * @param key The key events are published to, e.g. the user ID
+     * @param asyncContext The started async context of the request
+     * @return true if the stream was registered, false if the connection limit was hit
+     * @throws IOException If the stream headers cannot be written
+     */
+    public boolean subscribe(int key, AsyncContext asyncContext) throws IOException {
+        if (totalConnections.incrementAndGet() > MAX_CONNECTIONS) {
+            totalConnections.decrementAndGet();
+            return false;
+        }
+
+        // Until the stream is registered, give the connection back on any failure
+        Subscriber subscriber = null;
+        boolean registered = false;
+        try {
+            HttpServletResponse resp = (HttpServletResponse) asyncContext.getResponse();
+            resp.setContentType("text/event-stream");
+            resp.setCharacterEncoding("UTF-8");
+            resp.setHeader("Cache-Control", "no-cache");
+            resp.setHeader("X-Accel-Buffering", "no");
+
+            ServletOutputStream out = resp.getOutputStream();
+            Subscriber created = new Subscriber(key, asyncContext, out);
+            boolean[] added = new boolean[1];
+            subscribers.compute(key, (k, forKey) -> {
+                Set<Subscriber> set = forKey != null ? forKey : ConcurrentHashMap.<Subscriber>newKeySet();
+                // Checked here so concurrent subscribes cannot exceed the limit
+                if (set.size() < MAX_PER_KEY) {
+                    set.add(created);
+                    added[0] = true;
+                }
+                return set.isEmpty() ? null : set;
+            });
+            if (!added[0]) {
+                return false;
+            }
+            subscriber = created;
+
+            asyncContext.addListener(subscriber);
+            startDispatcher();
+
+            // Tell the browser how soon to reconnect when the stream ends; written as
+            // soon as the container calls onWritePossible
+            subscriber.send("retry: 5000\n\n");
+            out.setWriteListener(subscriber);
+            registered = true;
+            return true;
+        } finally {
+            if (!registered && (subscriber == null || !remove(subscriber))) {
+                totalConnections.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Sends an event to every stream registered under the key
+     *
+     * @param key The key, e.g. the user ID
+     * @param event The event name
+     * @param data The event data, usually JSON on a single line
+     */
+    public void publish(int key, String event, String data) {
+        Set<Subscriber> forKey = subscribers.get(key);
+        if (forKey == null || forKey.isEmpty()) {
+            return;
+        }
+
+        String frame = "id: " + eventIds.incrementAndGet() + "\n" +
+                       "event: " + event + "\n" +
+                       "data: " + data + "\n\n";
+        for (Subscriber subscriber : forKey) {
+            dispatch(() -> subscriber.send(frame));
+        }
+    }
+
+    /**
+     * Checks whether any stream is open for the key
+     *
+     * @param key The key
+     * @return true if at least one stream is registered
+     */
+    public boolean hasSubscribers(int key) {
+        Set<Subscriber> forKey = subscribers.get(key);
+        return forKey != null && !forKey.isEmpty();
+    }
+
+    /**
+     * Gets the number of open streams in this hub
+     *
+     * @return The number of streams
+     */
+    public int getConnectionCount() {
+        int count = 0;
+        for (Set<Subscriber> forKey : subscribers.values()) {
+            count += forKey.size();
+        }
+        return count;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the number of streams closed because the client fell too far behind
+     *
+     * @return The number of dropped streams, across all hubs
+     */
+    public static long getSlowDroppedCount() {
+        return slowDropped.get();
+    }
+
+    /**
+     * Closes every open stream and stops the dispatcher
+     */
+    public static synchronized void shutdown() {
+        for (SseHub hub : hubs) {
+            for (Set<Subscriber> forKey : hub.subscribers.values()) {
+                for (Subscriber subscriber : forKey) {
+                    subscriber.close();
+                }
+            }
+        }
+        if (dispatcher != null) {
+            dispatcher.shutdownNow();
+            dispatcher = null;
+        }
+    }
+
+    private static synchronized void startDispatcher() {
+        if (dispatcher != null) {
+            return;
+        }
+        AtomicInteger threads = new AtomicInteger();
+        dispatcher = Executors.newScheduledThreadPool(DISPATCH_THREADS, r -> {
+            Thread thread = new Thread(r, "sse-dispatcher-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher.scheduleWithFixedDelay(SseHub::heartbeat,
+                HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static void dispatch(Runnable task) {
+        ScheduledExecutorService executor = dispatcher;
+        if (executor == null) {
+            return;
+        }
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+        }
+    }
+
+    private static void heartbeat() {
+        for (SseHub hub : hubs) {
+            for (Set<Subscriber> forKey : hub.subscribers.values()) {
+                for (Subscriber subscriber : forKey) {
+                    subscriber.send(": ping\n\n");
+                }
+            }
+        }
+    }
+
+    /**
+     * Unregisters a stream
+     *
+     * @return true if it was registered, in which case its connection was given back
+     */
+    private boolean remove(Subscriber subscriber) {
+        boolean[] removed = new boolean[1];
+        subscribers.computeIfPresent(subscriber.key, (k, forKey) -> {
+            if (forKey.remove(subscriber)) {
+                totalConnections.decrementAndGet();
+                removed[0] = true;
+            }
+            return forKey.isEmpty() ? null : forKey;
+        });
+        return removed[0];
+    }
+
+    /**
+     * One open stream. Frames wait in a bounded queue and are written only while
+     * the container reports the stream ready, so no thread ever blocks on a slow
+     * client. The queue is guarded by a lock rather than synchronized, because
+     * events, heartbeats and the container's callbacks arrive on different threads.
+     */
+    private final class Subscriber implements AsyncListener, WriteListener {
+        private final int key;
+        private final AsyncContext asyncContext;
+        private final ServletOutputStream out;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ArrayDeque<byte[]> pending = new ArrayDeque<>();
+        // Set by the first onWritePossible; isReady may not be called before
+        private boolean started;
+        private boolean unflushed;
+        private boolean closed;
+
+        Subscriber(int key, AsyncContext asyncContext, ServletOutputStream out) {
+            this.key = key;
+            this.asyncContext = asyncContext;
+            this.out = out;
+        }
+
+        void send(String frame) {
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                if (pending.size() >= MAX_QUEUED_EVENTS) {
+                    // Too far behind; the browser reconnects and reloads the current state
+                    slowDropped.incrementAndGet();
+                    close();
+                    return;
+                }
+                pending.add(frame.getBytes(StandardCharsets.UTF_8));
+                if (started) {
+                    writePending();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void onWritePossible() {
+            lock.lock();
+            try {
+                started = true;
+                if (!closed) {
+                    writePending();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Must hold the lock. Stops when the container cannot take more without
+        // blocking; it calls onWritePossible once it can.
+        private void writePending() {
+            try {
+                while (out.isReady()) {
+                    byte[] frame = pending.poll();
+                    if (frame == null) {
+                        if (!unflushed) {
+                            return;
+                        }
+                        unflushed = false;
+                        out.flush();
+                        continue;
+                    }
+                    out.write(frame);
+                    unflushed = true;
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+            }
+        }
+
+        void close() {
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                pending.clear();
+                remove(this);
+                try {
+                    asyncContext.complete();
+                } catch (IllegalStateException e) {
+                    // Already completed by the container
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            close();
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            lock.lock();
+            try {
+                closed = true;
+                pending.clear();
+                remove(this);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
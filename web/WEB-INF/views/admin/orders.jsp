@@ -1,6 +1,7 @@
 <%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
 <%@ taglib uri="http://java.sun.com/jsp/jstl/core" prefix="c" %>
 <%@ taglib uri="http://java.sun.com/jsp/jstl/fmt" prefix="fmt" %>
+<%@ taglib uri="http://java.sun.com/jsp/jstl/functions" prefix="fn" %>
 
 <jsp:include page="../common/header.jsp">
     <jsp:param name="title" value="Manage Orders" />
@@ -38,6 +39,31 @@
         </div>
     </c:if>
     
+    <!-- Filters -->
+    <form class="row g-2 align-items-end mb-3" method="get" action="${pageContext.request.contextPath}/admin/orders">
+        <div class="col-md-3">
+            <label for="filterStatus" class="form-label">Status</label>
+            <select class="form-select" id="filterStatus" name="status">
+                <option value="">All statuses</option>
+                <c:forEach items="${['PLACED', 'PREPARING', 'READY', 'OUT_FOR_DELIVERY', 'DELIVERED', 'CANCELLED']}" var="s">
+                    <option value="${s}" ${param.status eq s ? 'selected' : ''}>${s}</option>
+                </c:forEach>
+            </select>
+        </div>
+        <div class="col-md-3">
+            <label for="filterFrom" class="form-label">From</label>
+            <input type="date" class="form-control" id="filterFrom" name="from" value="${fn:escapeXml(param.from)}">
+        </div>
+        <div class="col-md-3">
+            <label for="filterTo" class="form-label">To</label>
+            <input type="date" class="form-control" id="filterTo" name="to" value="${fn:escapeXml(param.to)}">
+        </div>
+        <div class="col-md-3">
+            <button type="submit" class="btn btn-primary"><i class="fas fa-filter"></i> Filter</button>
+            <a href="${pageContext.request.contextPath}/admin/orders" class="btn btn-outline-secondary">Reset</a>
+        </div>
+    </form>
+    
     <c:choose>
         <c:when test="${orders == null}">
             <div class="alert alert-warning">
@@ -215,6 +241,32 @@
             </div>
         </c:otherwise>
     </c:choose>
+    
+    <!-- Pagination -->
+    <c:if test="${orderPage != null && (orderPage.hasPrevious || orderPage.hasNext)}">
+        <c:url var="previousUrl" value="/admin/orders">
+            <c:param name="status" value="${param.status}" />
+            <c:param name="from" value="${param.from}" />
+            <c:param name="to" value="${param.to}" />
+            <c:param name="before" value="${orderPage.previousCursor}" />
+        </c:url>
+        <c:url var="nextUrl" value="/admin/orders">
+            <c:param name="status" value="${param.status}" />
+            <c:param name="from" value="${param.from}" />
+            <c:param name="to" value="${param.to}" />
+            <c:param name="after" value="${orderPage.nextCursor}" />
+        </c:url>
+        <nav aria-label="Orders pagination">
+            <ul class="pagination justify-content-center">
+                <li class="page-item ${orderPage.hasPrevious ? '' : 'disabled'}">
+                    <a class="page-link" href="${orderPage.hasPrevious ? previousUrl : '#'}">&laquo; Newer</a>
+                </li>
+                <li class="page-item ${orderPage.hasNext ? '' : 'disabled'}">
+                    <a class="page-link" href="${orderPage.hasNext ? nextUrl : '#'}">Older &raquo;</a>
+                </li>
+            </ul>
+        </nav>
+    </c:if>
 </div>
 
 <jsp:include page="../common/footer.jsp" />
\ No newline at end of file
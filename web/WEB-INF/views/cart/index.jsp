@@ -72,7 +72,7 @@
                                         <td>
                                             <form action="${pageContext.request.contextPath}/cart" method="post" class="quantity-form">
                                                 <input type="hidden" name="action" value="update">
-                                                <input type="hidden" name="itemIndex" value="${status.index}">
+                                                <input type="hidden" name="lineKey" value="${item.key}">
                                                 <div class="input-group">
                                                     <button type="button" class="btn btn-outline-secondary btn-sm quantity-decrement" 
                                                             aria-label="Decrease quantity">
@@ -95,7 +95,7 @@
                                         <td>
                                             <form action="${pageContext.request.contextPath}/cart" method="post">
                                                 <input type="hidden" name="action" value="remove">
-                                                <input type="hidden" name="itemIndex" value="${status.index}">
+                                                <input type="hidden" name="lineKey" value="${item.key}">
                                                 <button type="submit" class="btn btn-sm btn-outline-danger" title="Remove item">
                                                     <i class="fas fa-trash-alt"></i>
                                                 </button>
@@ -109,7 +109,7 @@
                                 <tr class="fw-bold">
                                     <td colspan="4" class="text-end">Total:</td>
                                     <td class="text-end total">
-                                        ₹<fmt:formatNumber value="${sessionScope.cart.total}" type="number" 
+                                        ₹<fmt:formatNumber value="${cart.total}" type="number" 
                                             minFractionDigits="2" maxFractionDigits="2" />
                                     </td>
                                     <td></td>
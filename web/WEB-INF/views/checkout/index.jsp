@@ -62,9 +62,9 @@
                     </h5>
                 </div>
                 <div class="card-body">
-                    <h6 class="mb-3">Items (${sessionScope.cart.itemCount})</h6>
+                    <h6 class="mb-3">Items (${cart.itemCount})</h6>
                     <ul class="list-group list-group-flush mb-3">
-                        <c:forEach items="${sessionScope.cart.items}" var="item">
+                        <c:forEach items="${cart.items}" var="item">
                             <li class="list-group-item px-0 d-flex justify-content-between">
                                 <div>
                                     <span class="fw-bold">${item.quantity}x</span> ${item.pizza.name}
@@ -84,7 +84,7 @@
                     
                     <div class="d-flex justify-content-between fw-bold border-top pt-3 mt-3">
                         <span>Total Amount:</span>
-                        <span>₹<fmt:formatNumber value="${sessionScope.cart.total}" type="number" 
+                        <span>₹<fmt:formatNumber value="${cart.total}" type="number" 
                                    minFractionDigits="2" maxFractionDigits="2" /></span>
                     </div>
                     
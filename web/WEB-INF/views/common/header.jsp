@@ -62,9 +62,10 @@
                     <li class="nav-item">
                         <a class="nav-link position-relative" href="${pageContext.request.contextPath}/cart">
                             <i class="fas fa-shopping-cart"></i> Cart
-                            <c:if test="${not empty sessionScope.cart and sessionScope.cart.itemCount > 0}">
+                            <c:set var="cartItemCount" value="${not empty requestScope.cartItemCount ? requestScope.cartItemCount : sessionScope.cart.itemCount}" />
+                            <c:if test="${cartItemCount > 0}">
                                 <span class="position-absolute top-0 start-100 translate-middle badge rounded-pill bg-danger cart-badge">
-                                    ${sessionScope.cart.itemCount}
+                                    ${cartItemCount}
                                     <span class="visually-hidden">items in cart</span>
                                 </span>
                             </c:if>
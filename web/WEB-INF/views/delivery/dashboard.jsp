@@ -43,7 +43,7 @@
                                 </thead>
                                 <tbody>
                                     <c:forEach items="${activeOrders}" var="order">
-                                        <tr>
+                                        <tr data-active-order="${order.id}">
                                             <td>${order.id}</td>
                                             <td><fmt:formatDate value="${order.assignedAt}" pattern="HH:mm" /></td>
                                             <td>                                                <span class="badge 
@@ -53,7 +53,7 @@
                                                 </span>
                                             </td>
                                             <td>${order.deliveryAddress}</td>
-                                            <td>${order.orderItems.size()} items</td>                                            <td>
+                                            <td>${order.itemCount} items</td>                                            <td>
                                                 <div class="btn-group">
                                                     <a href="${pageContext.request.contextPath}/view-order/${order.id}" 
                                                        class="btn btn-sm btn-outline-secondary">
@@ -128,7 +128,7 @@
                                                     ${order.orderStatus}
                                                 </span>
                                             </td>
-                                            <td>${order.orderItems.size()} items</td>
+                                            <td>${order.itemCount} items</td>
                                             <td>${order.deliveryAddress}</td>                                            <td>
                                                 <a href="${pageContext.request.contextPath}/view-order/${order.id}" 
                                                    class="btn btn-sm btn-outline-secondary">
@@ -147,4 +147,6 @@
 </div>
 </div>
 
+<script src="${pageContext.request.contextPath}/js/delivery-events.js" data-context-path="${pageContext.request.contextPath}"></script>
+
 <jsp:include page="../common/footer.jsp" />
\ No newline at end of file
@@ -32,7 +32,7 @@
                     <div class="d-flex justify-content-between align-items-center">                        <h5 class="mb-0">
                             <i class="fas fa-box me-2"></i> Order #${order.id}
                         </h5>
-                        <span class="badge bg-${order.orderStatus eq 'DELIVERED' ? 'success' : 
+                        <span data-order-status="${order.id}" class="badge bg-${order.orderStatus eq 'DELIVERED' ? 'success' : 
                                               order.orderStatus eq 'CANCELLED' ? 'danger' : 
                                               'primary'} fs-6">
                             ${order.orderStatus}
@@ -55,7 +55,7 @@
                         </div>
                         <div class="col-md-6 mb-3">
                             <h6><i class="fas fa-motorcycle me-2"></i> Delivery Person:</h6>
-                            <p>${not empty order.deliveryPersonName ? order.deliveryPersonName : 'Not assigned yet'}</p>
+                            <p data-order-delivery-person="${order.id}">${not empty order.deliveryPersonName ? order.deliveryPersonName : 'Not assigned yet'}</p>
                         </div>
                     </div>
                 </div>
@@ -339,3 +339,4 @@
 }
 </style>
 
+<script src="${pageContext.request.contextPath}/js/order-events.js" data-context-path="${pageContext.request.contextPath}"></script>
@@ -39,7 +39,7 @@
                         <tr>
                             <td>${order.id}</td>
                             <td><fmt:formatDate value="${order.createdAt}" pattern="yyyy-MM-dd HH:mm" /></td>
-                            <td>                                <span class="badge 
+                            <td>                                <span data-order-status="${order.id}" class="badge 
                                     ${order.orderStatus eq 'PLACED' ? 'bg-info' : 
                                      order.orderStatus eq 'PREPARING' ? 'bg-primary' :
                                      order.orderStatus eq 'READY' ? 'bg-warning' :
@@ -63,4 +63,6 @@
     </c:otherwise>
 </c:choose>
 
+<script src="${pageContext.request.contextPath}/js/order-events.js" data-context-path="${pageContext.request.contextPath}"></script>
+
 <jsp:include page="../common/footer.jsp" />
\ No newline at end of file
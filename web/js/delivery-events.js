@@ -0,0 +1,37 @@
+// Live delivery dashboard over Server-Sent Events.
+// Finished or reassigned orders leave the active list in place. New assignments and
+// status changes re-render the page, since they change the available actions; the
+// active list is served from memory, so this costs no database queries.
+(function() {
+    const script = document.currentScript;
+    if (!window.EventSource) {
+        return;
+    }
+
+    const contextPath = (script && script.getAttribute('data-context-path')) || '';
+    const source = new EventSource(contextPath + '/delivery/events');
+
+    function removeRow(orderId) {
+        const row = document.querySelector('[data-active-order="' + orderId + '"]');
+        if (row) {
+            row.remove();
+        }
+    }
+
+    source.addEventListener('order-assigned', function() {
+        window.location.reload();
+    });
+
+    source.addEventListener('order-unassigned', function(e) {
+        removeRow(JSON.parse(e.data).orderId);
+    });
+
+    source.addEventListener('order-status', function(e) {
+        const update = JSON.parse(e.data);
+        if (update.status === 'DELIVERED' || update.status === 'CANCELLED') {
+            removeRow(update.orderId);
+        } else {
+            window.location.reload();
+        }
+    });
+})();
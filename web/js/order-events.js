@@ -0,0 +1,36 @@
+// Live order status updates over Server-Sent Events.
+// Elements with a data-order-status attribute set to an order ID are updated in place.
+(function() {
+    const script = document.currentScript;
+    if (!window.EventSource || !document.querySelector('[data-order-status]')) {
+        return;
+    }
+
+    const badgeClasses = {
+        PLACED: 'bg-info',
+        PREPARING: 'bg-primary',
+        READY: 'bg-warning',
+        OUT_FOR_DELIVERY: 'bg-secondary',
+        DELIVERED: 'bg-success',
+        CANCELLED: 'bg-danger'
+    };
+
+    const contextPath = (script && script.getAttribute('data-context-path')) || '';
+    const source = new EventSource(contextPath + '/orders/events');
+
+    source.addEventListener('order-status', function(e) {
+        const update = JSON.parse(e.data);
+        document.querySelectorAll('[data-order-status="' + update.orderId + '"]').forEach(function(badge) {
+            Object.values(badgeClasses).forEach(function(cls) {
+                badge.classList.remove(cls);
+            });
+            badge.classList.add(badgeClasses[update.status] || 'bg-danger');
+            badge.textContent = update.status;
+        });
+        document.querySelectorAll('[data-order-delivery-person="' + update.orderId + '"]').forEach(function(el) {
+            if (update.deliveryPersonName) {
+                el.textContent = update.deliveryPersonName;
+            }
+        });
+    });
+})();